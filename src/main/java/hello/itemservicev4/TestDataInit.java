@@ -1,9 +1,12 @@
 package hello.itemservicev4;
 
+import hello.itemservicev4.dataset.DatasetSpec;
+import hello.itemservicev4.dataset.ItemDatasetGenerator;
 import hello.itemservicev4.domain.item.Item;
 import hello.itemservicev4.domain.item.ItemRepository;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -11,12 +14,34 @@ import org.springframework.stereotype.Component;
 public class TestDataInit {
 
     private final ItemRepository itemRepository;
+    private final ItemDatasetGenerator itemDatasetGenerator;
+
+    // 0 이면 itemA, itemB 두 건만 넣는다.
+    @Value("${dataset.size:0}")
+    private long datasetSize;
+
+    @Value("${dataset.seed:42}")
+    private long datasetSeed;
+
+    @Value("${dataset.skew:1.0}")
+    private double datasetSkew;
+
+    @Value("${replication.role:}")
+    private String replicationRole;
 
     /**
      * 테스트용 데이터 추가
      */
     @PostConstruct
     public void init() {
+        // DB 에서 불러온 상품이 있거나, primary 에서 받아 오는 replica 면 넣지 않는다.
+        if (itemRepository.count() > 0 || "replica".equals(replicationRole)) {
+            return;
+        }
+        if (datasetSize > 0) {
+            itemDatasetGenerator.generate(itemRepository, new DatasetSpec(datasetSize, datasetSeed, datasetSkew));
+            return;
+        }
         itemRepository.save(new Item("itemA", 10000, 10));
         itemRepository.save(new Item("itemB", 20000, 20));
     }
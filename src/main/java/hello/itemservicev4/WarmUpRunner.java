@@ -0,0 +1,157 @@
+package hello.itemservicev4;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 기동 직후 실제 핸들러 체인(바인딩, 검증, 메시지, 템플릿 렌더링)으로 가짜 요청을 보내 JIT 과 각종 지연 초기화를 미리 끝낸다.
+ * ApplicationRunner 가 끝나야 readiness 가 ACCEPTING_TRAFFIC 이 되므로, 워밍업이 끝나기 전에는 준비되지 않은 상태로 보인다.
+ * <p>
+ * 저장소 데이터를 바꾸지 않도록 조회 요청과 검증에 실패하는 등록/수정 요청만 보낸다.
+ * 목록은 상품 수에 따라 끝없이 길어질 수 있으므로 검색(최대 100건)으로 대신한다.
+ * <p>
+ * 워밍업 요청에는 {@link #HEADER} 를 붙이고, 등록 동시성 제한과 요청별 사용량 집계는 {@link #isWarmUp} 으로 이 요청을 건너뛴다.
+ * 응답이 2xx 가 아니거나 시간 안에 오지 않으면 경고를 남기고 워밍업을 그만둔다. (기동은 계속한다)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WarmUpRunner implements ApplicationRunner {
+
+    public static final String HEADER = "X-Warm-Up";
+    // 밖에서 같은 헤더를 붙여 제한을 피하지 못하도록 실행할 때마다 새로 만든다.
+    private static final String TOKEN = UUID.randomUUID().toString();
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(5);
+
+    private final Environment environment;
+
+    @Value("${warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${warmup.iterations:300}")
+    private int iterations;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        Integer port = environment.getProperty("local.server.port", Integer.class);
+        if (!enabled || port == null || port <= 0) {
+            return;
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(2))
+                .build();
+        List<HttpRequest> requests = requests("http://localhost:" + port);
+
+        long start = System.nanoTime();
+        long firstRound = 0;
+        long lastRound = 0;
+        for (int i = 0; i < iterations; i++) {
+            long roundStart = System.nanoTime();
+            for (HttpRequest request : requests) {
+                if (!send(client, request)) {
+                    return;
+                }
+            }
+            long round = System.nanoTime() - roundStart;
+            if (i == 0) {
+                firstRound = round;
+            }
+            lastRound = round;
+        }
+        long elapsed = System.nanoTime() - start;
+
+        log.info("warm-up finished in {}ms ({} rounds x {} requests), first round {}us -> last round {}us ({}x faster)",
+                elapsed / 1_000_000, iterations, requests.size(), firstRound / 1000, lastRound / 1000,
+                String.format("%.1f", (double) firstRound / Math.max(1, lastRound)));
+    }
+
+    /**
+     * 워밍업이 보낸 요청이면 true
+     */
+    public static boolean isWarmUp(HttpServletRequest request) {
+        return TOKEN.equals(request.getHeader(HEADER));
+    }
+
+    private static boolean send(HttpClient client, HttpRequest request) throws InterruptedException {
+        try {
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            if (status / 100 == 2) {
+                return true;
+            }
+            log.warn("warm-up stopped, {} {} returned {}", request.method(), request.uri(), status);
+        } catch (IOException e) {
+            // HttpTimeoutException 포함
+            log.warn("warm-up stopped, {} {} failed: {}", request.method(), request.uri(), e.toString());
+        }
+        return false;
+    }
+
+    private List<HttpRequest> requests(String baseUrl) {
+        // 검증에 걸리는 값 (필드 오류 + 타입 오류), 필드는 맞지만 가격 * 수량이 부족한 값 (글로벌 오류)
+        String invalidForm = form("", "qqq", "99999");
+        String totalPriceMinForm = form("warm-up", "1000", "1");
+        String invalidJson = "{\"itemName\":\"\",\"price\":0,\"quantity\":100000}";
+
+        return List.of(
+                get(baseUrl + "/validation/v4/items?q=warm", "ko"),
+                get(baseUrl + "/validation/v4/items/add", "en"),
+                postForm(baseUrl + "/validation/v4/items/add", invalidForm, "ko"),
+                postForm(baseUrl + "/validation/v4/items/add", totalPriceMinForm, "en"),
+                postForm(baseUrl + "/validation/v4/items/0/edit", invalidForm, "ko"),
+                postJson(baseUrl + "/validation/api/items/add", invalidJson),
+                get(baseUrl + "/validation/api/items/search?q=warm", "ko")
+        );
+    }
+
+    private static HttpRequest get(String url, String language) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(REQUEST_TIMEOUT)
+                .header(HEADER, TOKEN)
+                .header("Accept-Language", language)
+                .GET()
+                .build();
+    }
+
+    private static HttpRequest postForm(String url, String body, String language) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(REQUEST_TIMEOUT)
+                .header(HEADER, TOKEN)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .header("Accept-Language", language)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static HttpRequest postJson(String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(REQUEST_TIMEOUT)
+                .header(HEADER, TOKEN)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static String form(String itemName, String price, String quantity) {
+        return "itemName=" + URLEncoder.encode(itemName, StandardCharsets.UTF_8)
+                + "&price=" + price + "&quantity=" + quantity;
+    }
+}
@@ -0,0 +1,58 @@
+package hello.itemservicev4;
+
+import hello.itemservicev4.web.LoopbackOnlyInterceptor;
+import hello.itemservicev4.web.validation.error.ValidationErrorsHttpMessageConverter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Jackson 컨버터보다 먼저 검증 오류 응답을 처리
+        converters.add(0, new ValidationErrorsHttpMessageConverter());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new LoopbackOnlyInterceptor())
+                .addPathPatterns("/internal/**");
+    }
+
+    /**
+     * css 는 내용 해시가 들어간 URL(/css/bootstrap.min-{md5}.css)로 내보낸다. 템플릿의 @{/css/...} 는 자동으로 바뀐다.
+     * 해시가 들어간 URL 은 내용이 바뀌면 URL 도 바뀌므로 1년 동안 다시 확인하지 않게 하고(immutable),
+     * 해시 없는 URL 은 매번 Last-Modified 로 다시 확인하게 한다. (no-cache)
+     * 미리 압축해 둔 .gz 가 있으면 Accept-Encoding 에 맞춰 그대로 보낸다.
+     */
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler("/css/*-{version:[0-9a-f]+}.css")
+                .addResourceLocations("classpath:/static/css/")
+                .setCacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(versionResolver());
+        // 해시 URL 로 바꾸는 것도 이 handler 가 맡으므로 같은 resolver 를 둔다.
+        registry.addResourceHandler("/css/**")
+                .addResourceLocations("classpath:/static/css/")
+                .setCacheControl(CacheControl.noCache())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(versionResolver());
+    }
+
+    private static VersionResourceResolver versionResolver() {
+        return new VersionResourceResolver().addContentVersionStrategy("/**");
+    }
+}
@@ -0,0 +1,69 @@
+package hello.itemservicev4.bulk;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * 가격, 수량 일괄 조정 작업을 시작하고 진행 상황을 조회한다.
+ * <pre>
+ * POST /internal/bulk-adjustments {"priceTo": 10000, "pricePercent": 5, "priceRoundTo": 100}
+ * </pre>
+ */
+@RestController
+@RequestMapping("/internal/bulk-adjustments")
+@RequiredArgsConstructor
+public class BulkAdjustmentController {
+
+    private final BulkAdjustmentService bulkAdjustmentService;
+
+    /**
+     * 작업을 시작하고 202 와 작업 상태를 반환한다. 조건이나 바꿀 방법이 잘못되면 400
+     */
+    @PostMapping
+    public ResponseEntity<BulkAdjustmentJob.Status> submit(@RequestBody BulkAdjustmentSpec spec) {
+        BulkAdjustmentJob job = bulkAdjustmentService.submit(spec);
+        return ResponseEntity.accepted()
+                .location(URI.create("/internal/bulk-adjustments/" + job.getId()))
+                .body(job.status());
+    }
+
+    @GetMapping
+    public ResponseEntity<List<BulkAdjustmentJob.Status>> jobs() {
+        return ResponseEntity.ok(bulkAdjustmentService.statuses());
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<BulkAdjustmentJob.Status> job(@PathVariable long jobId) {
+        BulkAdjustmentJob job = bulkAdjustmentService.find(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(job.status());
+    }
+
+    /**
+     * 남은 상품은 건너뛰게 한다. 이미 끝난 작업이면 409
+     */
+    @DeleteMapping("/{jobId}")
+    public ResponseEntity<BulkAdjustmentJob.Status> cancel(@PathVariable long jobId) {
+        BulkAdjustmentJob job = bulkAdjustmentService.find(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!job.cancel()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(job.status());
+        }
+        return ResponseEntity.accepted().body(job.status());
+    }
+}
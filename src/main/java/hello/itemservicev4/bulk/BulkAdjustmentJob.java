@@ -0,0 +1,147 @@
+package hello.itemservicev4.bulk;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 실행 중이거나 끝난 일괄 조정 작업. 진행 상황은 여러 스레드가 함께 센다.
+ */
+public class BulkAdjustmentJob {
+
+    // 검증에 걸린 상품은 앞의 몇 개만 남긴다.
+    static final int MAX_REJECTION_SAMPLES = 20;
+
+    public enum State {
+        RUNNING, COMPLETED, CANCELLED, FAILED
+    }
+
+    private final long id;
+    private final BulkAdjustmentSpec spec;
+    // 훑어볼 id 수 (1 ~ maxId)
+    private final long total;
+    private final Instant startedAt = Instant.now();
+    private final long startedNanos = System.nanoTime();
+
+    private final LongAdder scanned = new LongAdder();
+    private final LongAdder matched = new LongAdder();
+    private final LongAdder updated = new LongAdder();
+    private final LongAdder unchanged = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final ConcurrentLinkedQueue<Rejection> rejections = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger rejectionSamples = new AtomicInteger();
+
+    private volatile State state = State.RUNNING;
+    private volatile boolean cancelRequested;
+    private volatile long finishedNanos;
+    private volatile String failure;
+
+    BulkAdjustmentJob(long id, BulkAdjustmentSpec spec, long total) {
+        this.id = id;
+        this.spec = spec;
+        this.total = total;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    BulkAdjustmentSpec getSpec() {
+        return spec;
+    }
+
+    long getTotal() {
+        return total;
+    }
+
+    boolean isFinished() {
+        return state != State.RUNNING;
+    }
+
+    /**
+     * 남은 상품은 건너뛰게 한다. 이미 바꾼 상품은 되돌리지 않는다.
+     */
+    public boolean cancel() {
+        if (state != State.RUNNING) {
+            return false;
+        }
+        cancelRequested = true;
+        return true;
+    }
+
+    boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    void scanned() {
+        scanned.increment();
+    }
+
+    void matched() {
+        matched.increment();
+    }
+
+    void updated() {
+        updated.increment();
+    }
+
+    void unchanged() {
+        unchanged.increment();
+    }
+
+    void rejected(long itemId, List<String> codes) {
+        rejected.increment();
+        if (rejectionSamples.getAndIncrement() < MAX_REJECTION_SAMPLES) {
+            rejections.add(new Rejection(itemId, codes));
+        }
+    }
+
+    void finish(Throwable error) {
+        finishedNanos = System.nanoTime();
+        if (error != null) {
+            failure = error.toString();
+            state = State.FAILED;
+        } else {
+            state = cancelRequested ? State.CANCELLED : State.COMPLETED;
+        }
+    }
+
+    public Status status() {
+        State currentState = state;
+        long end = currentState == State.RUNNING ? System.nanoTime() : finishedNanos;
+        long elapsedNanos = Math.max(1, end - startedNanos);
+        long scannedCount = scanned.sum();
+        long updatedCount = updated.sum();
+        double seconds = elapsedNanos / 1e9;
+        return new Status(id, currentState, spec, startedAt, total, scannedCount, matched.sum(), updatedCount,
+                unchanged.sum(), rejected.sum(), total == 0 ? 1 : (double) scannedCount / total,
+                elapsedNanos / 1_000_000, scannedCount / seconds, updatedCount / seconds,
+                List.copyOf(rejections), failure);
+    }
+
+    /**
+     * @param itemId 검증에 걸린 상품
+     * @param codes  걸린 규칙 (Range, totalPriceMin 등)
+     */
+    public record Rejection(long itemId, List<String> codes) {
+    }
+
+    /**
+     * @param total            훑어볼 id 수
+     * @param scanned          훑어본 id 수
+     * @param matched          조건에 맞은 상품 수
+     * @param updated          바꾼 상품 수
+     * @param unchanged        조건에 맞았지만 값이 그대로인 상품 수
+     * @param rejected         바꾼 결과가 검증을 통과하지 못해 그대로 둔 상품 수
+     * @param progress         scanned / total (0 ~ 1)
+     * @param scannedPerSecond 초당 훑어본 id 수
+     * @param updatedPerSecond 초당 바꾼 상품 수
+     */
+    public record Status(long id, State state, BulkAdjustmentSpec spec, Instant startedAt, long total,
+                         long scanned, long matched, long updated, long unchanged, long rejected, double progress,
+                         long elapsedMillis, double scannedPerSecond, double updatedPerSecond,
+                         List<Rejection> rejections, String failure) {
+    }
+}
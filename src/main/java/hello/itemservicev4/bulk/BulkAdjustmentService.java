@@ -0,0 +1,167 @@
+package hello.itemservicev4.bulk;
+
+import hello.itemservicev4.domain.item.ItemPatch;
+import hello.itemservicev4.domain.item.ItemPatchResult;
+import hello.itemservicev4.domain.item.ItemRepository;
+import hello.itemservicev4.web.validation.ItemPatchValidator;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.ObjectError;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 조건에 맞는 상품의 가격, 수량을 한꺼번에 바꾼다.
+ * <p>
+ * id 범위(1 ~ maxId)를 반씩 나눠 fork-join 으로 여러 스레드가 나눠 처리한다.
+ * 상품마다 {@link ItemRepository#patch} 로 바꾸므로 읽기, 계산, 검증, 저장이 그 상품의 잠금 안에서 이루어진다.
+ * 바꾼 결과는 수정 폼의 규칙(가격 범위, 가격 * 수량 등)으로 검증하고, 통과하지 못한 상품은 그대로 둔다.
+ * 작업 중에 새로 등록된 상품은 대상이 아니다.
+ */
+@Slf4j
+@Component
+public class BulkAdjustmentService {
+
+    // 한 스레드가 나누지 않고 처리하는 id 수
+    static final int LEAF_SIZE = 2048;
+    // 조회할 수 있게 남겨 둘 작업 수 (진행 중인 작업은 이보다 많아도 지우지 않는다)
+    static final int MAX_JOBS = 20;
+
+    private final ItemRepository itemRepository;
+    private final ItemPatchValidator itemPatchValidator;
+    private final ForkJoinPool pool;
+    private final AtomicLong jobSequence = new AtomicLong();
+    private final Map<Long, BulkAdjustmentJob> jobs = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    public BulkAdjustmentService(ItemRepository itemRepository, ItemPatchValidator itemPatchValidator,
+                                 @Value("${bulk.parallelism:0}") int parallelism) {
+        this.itemRepository = itemRepository;
+        this.itemPatchValidator = itemPatchValidator;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * 작업을 시작하고 바로 반환한다. 진행 상황은 {@link BulkAdjustmentJob#status()} 로 본다.
+     */
+    public BulkAdjustmentJob submit(BulkAdjustmentSpec spec) {
+        BulkAdjustmentJob job = new BulkAdjustmentJob(jobSequence.incrementAndGet(), spec, itemRepository.maxId());
+        jobs.put(job.getId(), job);
+        evictFinished();
+        log.info("bulk adjustment {} started {}", job.getId(), spec);
+        CompletableFuture.runAsync(() -> new Shard(job, 1, job.getTotal() + 1).invoke(), pool)
+                .whenComplete((result, error) -> {
+                    job.finish(error);
+                    BulkAdjustmentJob.Status status = job.status();
+                    log.info("bulk adjustment {} {} scanned={} updated={} rejected={} in {}ms",
+                            job.getId(), status.state(), status.scanned(), status.updated(), status.rejected(), status.elapsedMillis());
+                    evictFinished();
+                });
+        return job;
+    }
+
+    public BulkAdjustmentJob find(long id) {
+        return jobs.get(id);
+    }
+
+    public List<BulkAdjustmentJob.Status> statuses() {
+        List<BulkAdjustmentJob.Status> statuses = new ArrayList<>();
+        synchronized (jobs) {
+            for (BulkAdjustmentJob job : jobs.values()) {
+                statuses.add(job.status());
+            }
+        }
+        return statuses;
+    }
+
+    /**
+     * MAX_JOBS 를 넘으면 끝난 작업부터 오래된 순으로 지운다. 진행 중인 작업은 취소, 조회할 수 있게 남긴다.
+     */
+    private void evictFinished() {
+        synchronized (jobs) {
+            Iterator<BulkAdjustmentJob> iterator = jobs.values().iterator();
+            while (jobs.size() > MAX_JOBS && iterator.hasNext()) {
+                if (iterator.next().isFinished()) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    private void adjust(BulkAdjustmentJob job, long itemId) {
+        boolean[] matched = new boolean[1];
+        ItemPatchResult result = itemRepository.patch(itemId,
+                current -> {
+                    ItemPatch patch = job.getSpec().adjust(current);
+                    matched[0] = patch != null;
+                    return patch;
+                },
+                merged -> {
+                    BeanPropertyBindingResult errors = new BeanPropertyBindingResult(merged, "item");
+                    if (itemPatchValidator.validateUpdate(merged, errors)) {
+                        return true;
+                    }
+                    job.rejected(itemId, errors.getAllErrors().stream().map(ObjectError::getCode).toList());
+                    return false;
+                });
+        if (!matched[0]) {
+            return;
+        }
+        job.matched();
+        switch (result.status()) {
+            case UPDATED -> job.updated();
+            case UNCHANGED -> job.unchanged();
+            default -> {
+                // REJECTED 는 검증에서 셌다.
+            }
+        }
+    }
+
+    /**
+     * [from, to) 범위의 id 를 처리한다. LEAF_SIZE 보다 크면 반으로 나눠 함께 처리한다.
+     */
+    private final class Shard extends RecursiveAction {
+
+        private final BulkAdjustmentJob job;
+        private final long from;
+        private final long to;
+
+        Shard(BulkAdjustmentJob job, long from, long to) {
+            this.job = job;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (job.isCancelRequested()) {
+                return;
+            }
+            if (to - from > LEAF_SIZE) {
+                long mid = (from + to) >>> 1;
+                invokeAll(new Shard(job, from, mid), new Shard(job, mid, to));
+                return;
+            }
+            for (long id = from; id < to && !job.isCancelRequested(); id++) {
+                adjust(job, id);
+                job.scanned();
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package hello.itemservicev4.bulk;
+
+import hello.itemservicev4.domain.item.Item;
+import hello.itemservicev4.domain.item.ItemPatch;
+
+import java.util.Locale;
+
+/**
+ * 일괄 조정할 상품의 조건과 바꿀 방법. 값이 없는(null) 조건은 보지 않는다.
+ * <p>
+ * 예) 가격 10,000 미만 상품 5% 인상, 100원 단위 반올림: priceTo=10000, pricePercent=5, priceRoundTo=100
+ *
+ * @param priceFrom     가격이 이 값 이상인 상품
+ * @param priceTo       가격이 이 값 미만인 상품
+ * @param quantityFrom  수량이 이 값 이상인 상품
+ * @param quantityTo    수량이 이 값 미만인 상품
+ * @param nameContains  상품명에 포함된 문자열 (대소문자 무시)
+ * @param pricePercent  가격을 몇 % 바꿀지 (음수면 인하)
+ * @param priceDelta    가격에 더할 값 (pricePercent 적용 뒤)
+ * @param priceRoundTo  바꾼 가격을 이 단위로 반올림
+ * @param quantityDelta 수량에 더할 값
+ */
+public record BulkAdjustmentSpec(Integer priceFrom, Integer priceTo, Integer quantityFrom, Integer quantityTo,
+                                 String nameContains, Double pricePercent, Integer priceDelta, Integer priceRoundTo,
+                                 Integer quantityDelta) {
+
+    public BulkAdjustmentSpec {
+        if (pricePercent == null && priceDelta == null && quantityDelta == null) {
+            throw new IllegalArgumentException("nothing to adjust: pricePercent, priceDelta or quantityDelta is required");
+        }
+        if (pricePercent != null && (pricePercent.isNaN() || pricePercent <= -100)) {
+            throw new IllegalArgumentException("pricePercent must be greater than -100: " + pricePercent);
+        }
+        if (priceRoundTo != null && priceRoundTo <= 0) {
+            throw new IllegalArgumentException("priceRoundTo must be positive: " + priceRoundTo);
+        }
+        nameContains = nameContains == null || nameContains.isBlank() ? null : nameContains.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 조건에 맞으면 바꿀 값을, 아니면 null 을 반환한다.
+     */
+    public ItemPatch adjust(Item item) {
+        if (!matches(item)) {
+            return null;
+        }
+        ItemPatch patch = new ItemPatch();
+        if (pricePercent != null || priceDelta != null) {
+            double price = item.getPrice();
+            if (pricePercent != null) {
+                price = price * (100 + pricePercent) / 100;
+            }
+            if (priceDelta != null) {
+                price += priceDelta;
+            }
+            if (priceRoundTo != null) {
+                price = Math.round(price / priceRoundTo) * (double) priceRoundTo;
+            }
+            patch.price(toInt(Math.round(price)));
+        }
+        if (quantityDelta != null) {
+            patch.quantity(toInt((long) item.getQuantity() + quantityDelta));
+        }
+        return patch;
+    }
+
+    boolean matches(Item item) {
+        Integer price = item.getPrice();
+        Integer quantity = item.getQuantity();
+        // 바꿀 값이 없는 상품은 건너뛴다.
+        if ((pricePercent != null || priceDelta != null) && price == null) {
+            return false;
+        }
+        if (quantityDelta != null && quantity == null) {
+            return false;
+        }
+        return inRange(price, priceFrom, priceTo)
+                && inRange(quantity, quantityFrom, quantityTo)
+                && (nameContains == null || item.getItemName() != null && item.getItemName().toLowerCase(Locale.ROOT).contains(nameContains));
+    }
+
+    private static boolean inRange(Integer value, Integer from, Integer to) {
+        if (from == null && to == null) {
+            return true;
+        }
+        return value != null && (from == null || value >= from) && (to == null || value < to);
+    }
+
+    // 범위를 넘으면 검증(@Range 등)에서 걸리도록 int 끝 값으로 맞춘다.
+    private static int toInt(long value) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, value));
+    }
+}
@@ -0,0 +1,56 @@
+package hello.itemservicev4.dataset;
+
+import hello.itemservicev4.domain.item.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 실행 중에 상품 데이터를 다시 만든다.
+ */
+@RestController
+@RequestMapping("/internal/dataset")
+@RequiredArgsConstructor
+public class DatasetController {
+
+    private final ItemRepository itemRepository;
+    private final ItemDatasetGenerator itemDatasetGenerator;
+
+    @GetMapping
+    public ResponseEntity<DatasetStatus> status() {
+        return ResponseEntity.ok(new DatasetStatus(itemDatasetGenerator.getLastSpec(), itemRepository.count(), 0));
+    }
+
+    /**
+     * replace=true 면 따로 만든 뒤 기존 상품을 통째로 바꾼다. (id 1 부터) false 면 기존 상품 뒤에 이어서 만든다.
+     * 만든 상품은 저장한 것처럼 리스너에 알리므로 DB, replica 에도 반영된다.
+     */
+    @PostMapping
+    public ResponseEntity<DatasetStatus> generate(@RequestParam long size,
+                                                  @RequestParam(defaultValue = "42") long seed,
+                                                  @RequestParam(defaultValue = "1.0") double skew,
+                                                  @RequestParam(defaultValue = "true") boolean replace) {
+        DatasetSpec spec;
+        try {
+            spec = new DatasetSpec(size, seed, skew);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        long firstId = replace
+                ? itemDatasetGenerator.replace(itemRepository, spec)
+                : itemDatasetGenerator.generate(itemRepository, spec);
+        return ResponseEntity.ok(new DatasetStatus(spec, itemRepository.count(), firstId));
+    }
+
+    /**
+     * @param spec    마지막으로 만든 데이터 (만든 적 없으면 null)
+     * @param count   저장소의 전체 상품 수
+     * @param firstId 이번에 만든 첫 상품의 id (조회면 0)
+     */
+    public record DatasetStatus(DatasetSpec spec, long count, long firstId) {
+    }
+}
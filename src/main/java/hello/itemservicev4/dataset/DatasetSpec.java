@@ -0,0 +1,20 @@
+package hello.itemservicev4.dataset;
+
+/**
+ * 만들 상품 데이터의 크기와 분포. 같은 값이면 항상 같은 상품(id 포함)이 만들어진다.
+ *
+ * @param size 상품 수
+ * @param seed 난수 시드
+ * @param skew 쏠림 정도. 0 이면 균등하고, 클수록 싼 가격, 적은 수량, 일부 상품명에 몰린다.
+ */
+public record DatasetSpec(long size, long seed, double skew) {
+
+    public DatasetSpec {
+        if (size < 0) {
+            throw new IllegalArgumentException("size must not be negative: " + size);
+        }
+        if (skew < 0) {
+            throw new IllegalArgumentException("skew must not be negative: " + skew);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package hello.itemservicev4.dataset;
+
+import hello.itemservicev4.domain.item.DuplicateItemNameException;
+import hello.itemservicev4.domain.item.Item;
+import hello.itemservicev4.domain.item.ItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 성능 측정, 부하 테스트용 상품을 대량으로 만들어 저장소에 넣는다.
+ * <p>
+ * 전체를 CHUNK_SIZE 개씩 나눠 여러 스레드가 나눠 만든다. 조각마다 (시드, 조각 번호)로 난수를 따로 두므로
+ * 스레드 수나 실행 순서와 상관없이 같은 {@link DatasetSpec} 이면 같은 상품이 같은 id 로 만들어진다. (빈 저장소 기준 1 ~ size)
+ * 가격, 수량은 검증 규칙(가격 1,000 ~ 1,000,000, 수량 9,999 미만, 가격 * 수량 10,000 이상)을 만족하고,
+ * 상품명은 끝에 id 를 붙여 서로 겹치지 않는다. 이미 있는 상품과 이름이 겹치면 그 상품은 만들지 않는다.
+ * 이름이 모두 달라 상품명 arena 의 한계({@link hello.itemservicev4.domain.item.ItemNameArena}, UTF-8 약 2GB)가 곧 상품 수의 한계다.
+ * 만드는 이름이 평균 20 byte 정도이므로 약 1억 개까지 만들 수 있고, 넘으면 IllegalStateException 으로 멈춘다.
+ * <p>
+ * 다 만든 뒤 {@link ItemRepository#publish} 로 리스너에 알리므로 write-behind 는 DB 에 기록하고 replica 는 변경으로 받는다.
+ * 다시 기동하면 DB 에서 모두 불러오므로 다시 만들지 않아도 된다.
+ */
+@Slf4j
+@Component
+public class ItemDatasetGenerator {
+
+    static final int CHUNK_SIZE = 16_384;
+
+    static final int MIN_PRICE = 1000;
+    static final int MAX_PRICE = 1_000_000;
+    static final int MAX_QUANTITY = 9998;
+    static final int MIN_TOTAL_PRICE = 10000;
+
+    private static final String[] ADJECTIVES = {
+            "Basic", "Classic", "Smart", "Mini", "Pro", "Eco", "Premium", "Light", "Slim", "Max",
+            "Soft", "Fresh", "Daily", "Urban", "Wild", "Pure", "Royal", "Rapid", "Quiet", "Bold"
+    };
+    private static final String[] NOUNS = {
+            "Keyboard", "Mouse", "Monitor", "Chair", "Desk", "Lamp", "Mug", "Bottle", "Backpack", "Notebook",
+            "Pen", "Speaker", "Headset", "Charger", "Cable", "Tumbler", "Pillow", "Blanket", "Towel", "Sneakers",
+            "Jacket", "Shirt", "Cap", "Socks", "Watch", "Wallet", "Umbrella", "Candle", "Plant", "Clock",
+            "Camera", "Tripod", "Tablet", "Stand", "Hub", "Router", "Drone", "Scale", "Kettle", "Pan"
+    };
+
+    private final int threads;
+    // 마지막으로 만든 데이터 (부하 테스트가 같은 데이터인지 확인할 때 사용)
+    private volatile DatasetSpec lastSpec;
+
+    public ItemDatasetGenerator(@Value("${dataset.threads:0}") int threads) {
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * spec 대로 상품을 만들어 기존 상품 뒤에 넣고 첫 상품의 id 를 반환한다.
+     */
+    public long generate(ItemRepository itemRepository, DatasetSpec spec) {
+        long firstId = fill(itemRepository, spec);
+        itemRepository.publish(firstId, firstId + spec.size() - 1);
+        return firstId;
+    }
+
+    /**
+     * 빈 저장소에 spec 대로 만든 뒤 기존 상품을 통째로 바꾼다. (id 1 부터)
+     * 만드는 동안에도 기존 상품을 그대로 읽고 쓸 수 있고, 바꾼 뒤에 들어온 쓰기는 새 상품에 들어간다.
+     */
+    public long replace(ItemRepository itemRepository, DatasetSpec spec) {
+        ItemRepository target = itemRepository.createEmpty();
+        long firstId;
+        try {
+            firstId = fill(target, spec);
+        } catch (RuntimeException e) {
+            target.close();
+            throw e;
+        }
+        itemRepository.replaceAll(target);
+        return firstId;
+    }
+
+    public DatasetSpec getLastSpec() {
+        return lastSpec;
+    }
+
+    private long fill(ItemRepository itemRepository, DatasetSpec spec) {
+        long start = System.nanoTime();
+        long firstId = itemRepository.reserveIds(spec.size());
+        long chunks = (spec.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        long skipped = 0;
+
+        ExecutorService executor = Executors.newFixedThreadPool((int) Math.max(1, Math.min(threads, chunks)), runnable -> {
+            Thread thread = new Thread(runnable, "item-dataset-generator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (long chunk = 0; chunk < chunks; chunk++) {
+                long from = chunk * CHUNK_SIZE;
+                long to = Math.min(spec.size(), from + CHUNK_SIZE);
+                futures.add(executor.submit(() -> fillChunk(itemRepository, spec, firstId, from, to)));
+            }
+            for (Future<Long> future : futures) {
+                skipped += future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("dataset generation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("dataset generation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        lastSpec = spec;
+        log.info("generated {} items (ids {} ~ {}, seed={}, skew={}, skipped={}) in {}ms",
+                spec.size() - skipped, firstId, firstId + spec.size() - 1, spec.seed(), spec.skew(), skipped,
+                (System.nanoTime() - start) / 1_000_000);
+        return firstId;
+    }
+
+    /**
+     * [from, to) 번째 상품을 만든다. 조각의 첫 번째 순번으로 난수를 정하므로 어느 스레드가 만들어도 결과가 같다.
+     *
+     * @return 이름이 겹쳐 만들지 않은 상품 수
+     */
+    private static long fillChunk(ItemRepository itemRepository, DatasetSpec spec, long firstId, long from, long to) {
+        long skipped = 0;
+        SplittableRandom random = new SplittableRandom(spec.seed() ^ (from / CHUNK_SIZE) * 0x9E3779B97F4A7C15L);
+        ZipfSampler adjectives = new ZipfSampler(ADJECTIVES.length, spec.skew());
+        ZipfSampler nouns = new ZipfSampler(NOUNS.length, spec.skew());
+
+        for (long index = from; index < to; index++) {
+            String itemName = ADJECTIVES[adjectives.sample(random)] + " " + NOUNS[nouns.sample(random)]
+                    + " " + Long.toString(firstId + index, 36);
+            int price = (int) skewed(random, MIN_PRICE, MAX_PRICE, spec.skew()) / 100 * 100;
+            int quantity = (int) skewed(random, 1, MAX_QUANTITY, spec.skew());
+            if ((long) price * quantity < MIN_TOTAL_PRICE) {
+                quantity = (MIN_TOTAL_PRICE + price - 1) / price;
+            }
+
+            Item item = new Item(itemName, price, quantity);
+            item.setId(firstId + index);
+            try {
+                itemRepository.restore(item);
+            } catch (DuplicateItemNameException e) {
+                skipped++;
+            }
+        }
+        return skipped;
+    }
+
+    /**
+     * min ~ max 사이 값. skew 가 0 이면 로그 스케일로 고르게, 클수록 min 쪽에 몰린다.
+     */
+    static long skewed(SplittableRandom random, long min, long max, double skew) {
+        double u = Math.pow(random.nextDouble(), 1 + skew);
+        return Math.min(max, Math.round(min * Math.pow((double) max / min, u)));
+    }
+}
@@ -0,0 +1,30 @@
+package hello.itemservicev4.dataset;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * 0 ~ n-1 중 하나를 순위 k 의 확률이 1 / (k+1)^exponent 에 비례하도록 뽑는다. (exponent 가 0 이면 균등)
+ */
+final class ZipfSampler {
+
+    private final double[] cdf;
+
+    ZipfSampler(int n, double exponent) {
+        cdf = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1 / Math.pow(k + 1, exponent);
+            cdf[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cdf[k] /= sum;
+        }
+    }
+
+    int sample(SplittableRandom random) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        int rank = index >= 0 ? index : -index - 1;
+        return Math.min(rank, cdf.length - 1);
+    }
+}
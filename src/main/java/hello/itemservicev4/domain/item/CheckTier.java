@@ -0,0 +1,19 @@
+package hello.itemservicev4.domain.item;
+
+/**
+ * 검증 단계. 값이 있는지(Presence) → 범위(Range) → 여러 필드를 함께 보는 규칙(CrossField) 순으로 비용이 커진다.
+ * <p>
+ * 폼의 제약은 Default 와 함께 한 단계에 속한다. Default 로 검증하면 지금처럼 모든 오류를 모으고,
+ * {@link SaveCheck.FailFast}, {@link UpdateCheck.FailFast} 로 검증하면 앞 단계에서 실패할 때 뒤 단계는 검사하지 않는다.
+ */
+public interface CheckTier {
+
+    interface Presence {
+    }
+
+    interface Range {
+    }
+
+    interface CrossField {
+    }
+}
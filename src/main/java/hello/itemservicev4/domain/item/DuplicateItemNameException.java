@@ -0,0 +1,18 @@
+package hello.itemservicev4.domain.item;
+
+/**
+ * 다른 상품이 이미 쓰고 있는 상품명으로 저장하려고 할 때
+ */
+public class DuplicateItemNameException extends RuntimeException {
+
+    private final String itemName;
+
+    public DuplicateItemNameException(String itemName) {
+        super("duplicate item name: " + itemName);
+        this.itemName = itemName;
+    }
+
+    public String getItemName() {
+        return itemName;
+    }
+}
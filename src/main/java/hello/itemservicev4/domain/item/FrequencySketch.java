@@ -0,0 +1,70 @@
+package hello.itemservicev4.domain.item;
+
+/**
+ * 최근 접근 빈도를 근사하는 4bit Count-Min Sketch (TinyLFU)
+ * 샘플 수가 일정량을 넘으면 모든 카운터를 절반으로 줄여 오래된 빈도를 잊는다.
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private final long[] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int capacity) {
+        int size = Integer.highestOneBit(Math.max(16, capacity) - 1) << 1;
+        this.table = new long[size];
+        this.mask = size - 1;
+        this.sampleSize = 10 * size;
+    }
+
+    int frequency(long key) {
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            long hash = hash(key, i);
+            int count = (int) ((table[index(hash)] >>> offset(hash)) & 0xF);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    void increment(long key) {
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            long hash = hash(key, i);
+            int index = index(hash);
+            int offset = offset(hash);
+            if (((table[index] >>> offset) & 0xF) != 0xF) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions >>>= 1;
+    }
+
+    private long hash(long key, int depth) {
+        long hash = (key + SEEDS[depth]) * SEEDS[depth];
+        return hash ^ (hash >>> 31);
+    }
+
+    private int index(long hash) {
+        return (int) (hash >>> 32) & mask;
+    }
+
+    private int offset(long hash) {
+        return ((int) hash & 15) << 2;
+    }
+}
@@ -0,0 +1,50 @@
+package hello.itemservicev4.domain.item;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 모든 상품을 힙에 보관한다. (기본 모드)
+ */
+class HeapItemRecordStore implements ItemRecordStore {
+
+    private final Map<Long, ItemRecord> store = new ConcurrentHashMap<>();
+
+    @Override
+    public ItemRecord get(long id) {
+        return store.get(id);
+    }
+
+    @Override
+    public void put(ItemRecord record) {
+        store.put(record.id, record);
+    }
+
+    @Override
+    public List<ItemRecord> values() {
+        return new ArrayList<>(store.values());
+    }
+
+    @Override
+    public Iterator<ItemRecord> iterator() {
+        return store.values().iterator();
+    }
+
+    @Override
+    public int size() {
+        return store.size();
+    }
+
+    @Override
+    public void clear() {
+        store.clear();
+    }
+
+    @Override
+    public ItemRecordStore createEmpty() {
+        return new HeapItemRecordStore();
+    }
+}
@@ -1,5 +1,6 @@
 package hello.itemservicev4.domain.item;
 
+import hello.itemservicev4.validation.ExpressionAssert;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -9,6 +10,7 @@ import org.hibernate.validator.constraints.ScriptAssert;
 
 @Data
 //@ScriptAssert(lang = "javascript", script = "_this.price * _this.quantity >= 10000", message = "총 합이 10000원 넘게 입력해주세요.")
+@ExpressionAssert(expression = "price * quantity >= 10000", errorCode = "totalPriceMin", groups = {SaveCheck.class, UpdateCheck.class})
 public class Item {
 
 //    @NotNull(groups = UpdateCheck.class) // 수정 요구사항 추가
@@ -0,0 +1,36 @@
+package hello.itemservicev4.domain.item;
+
+/**
+ * 상품이 저장되거나 수정될 때 {@link ItemRepository} 가 호출한다.
+ * 같은 상품에 대한 호출은 저장소에 반영된 순서대로 들어온다.
+ */
+public interface ItemChangeListener {
+
+    /**
+     * 상품 잠금 안에서 호출되므로 기다리면 안 된다.
+     *
+     * @param item 저장된 상태의 복사본 (id 포함)
+     */
+    void itemChanged(Item item);
+
+    /**
+     * {@link #itemChanged} 를 호출한 스레드에서 상품 잠금을 놓은 뒤 호출된다.
+     * 변경이 밀려 요청을 늦춰야 하면 여기서 기다린다.
+     */
+    default void afterChanged() {
+    }
+
+    /**
+     * {@link ItemRepository#clearStore()} 로 모든 상품을 지웠거나 {@link ItemRepository#replaceAll} 로 통째로 바꿨을 때 호출된다.
+     * 이후 저장하는 상품은 id 1 부터 다시 받는다. (replaceAll 은 이어서 바뀐 상품마다 {@link #itemChanged} 를 호출한다)
+     * 외부에 보관한 상품도 지워야 예전 행이 같은 id 의 새 상품과 섞이지 않는다.
+     */
+    default void storeCleared() {
+    }
+
+    /**
+     * 저장소가 만들어질 때 한 번 호출된다. 외부에 보관한 상품이 있으면 {@link ItemRepository#restore(Item)} 로 다시 올린다.
+     */
+    default void attach(ItemRepository repository) {
+    }
+}
@@ -0,0 +1,458 @@
+package hello.itemservicev4.domain.item;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 상품명을 UTF-8 바이트로 하나의 배열(arena)에 모아 저장한다.
+ * 같은 상품명은 한 번만 저장하고, 저장 위치(handle)를 공유한다.
+ * <p>
+ * handle 마다 참조 수를 세어 아무도 쓰지 않게 된 이름({@link #release})은 지우고, 지운 바이트가 남은 바이트보다 많아지면
+ * 남은 이름만 새 배열로 옮겨 담는다(compaction). handle 은 (세대 31bit << 32 | 칸 번호) 이고 옮겨도 바뀌지 않는다.
+ * 지운 칸은 compaction 뒤에 세대를 올려 다시 쓰므로, 예전 handle 로 읽으면 {@link #decode} 가 null 을 반환한다.
+ * 세대를 끝까지 쓴 칸은 다시 쓰지 않고 버린다. 세대가 한 바퀴 돌아 예전 handle 이 새 이름을 읽는 일은 없다.
+ * <p>
+ * 읽는 쪽은 잠그지 않는다. 쓰는 쪽은 위치와 바이트를 먼저 쓰고 세대를 release 로 쓰며, 읽는 쪽은 세대를 acquire 로 읽은 뒤
+ * 위치를 읽는다. 세대가 맞으면 그 앞에 쓴 위치와 바이트도 보인다.
+ * 옮길 때는 새 배열을 만들어 바꾸므로 예전 배열로 읽던 쪽은 예전 이름을 그대로 읽는다.
+ * <p>
+ * 이름 수는 따로 정해 두지 않았다. 한계는 살아 있는 이름의 UTF-8 바이트(길이 헤더 포함)를 담는 배열 하나의 크기,
+ * {@link #MAX_BYTES}(약 2GB) 이다. 이름이 평균 20 byte 면 서로 다른 이름 약 1억 개까지 담는다.
+ */
+public class ItemNameArena {
+
+    public static final long NULL_HANDLE = -1L;
+
+    // 배열 하나에 담을 수 있는 최대 크기
+    static final int MAX_BYTES = Integer.MAX_VALUE - 8;
+    private static final long SLOT_MASK = 0xFFFFFFFFL;
+    // 비어 있는 칸 표시. 아래 bit 에는 다음에 쓸 세대가 들어 있다.
+    private static final int FREE = Integer.MIN_VALUE;
+    private static final int MAX_GEN = Integer.MAX_VALUE;
+    private static final VarHandle GENS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private static final int INITIAL_CAPACITY = 4096;
+    private static final int INITIAL_SLOTS = 1024;
+    private static final int INITIAL_TABLE_SIZE = 1024; // 2의 제곱수
+    // 지운 바이트가 이보다 적으면 옮기지 않는다.
+    static final int MIN_COMPACT_BYTES = 64 * 1024;
+
+    // 읽는 쪽이 한 번에 읽어야 하는 배열들
+    private volatile Layout layout = new Layout(new byte[INITIAL_CAPACITY], new int[INITIAL_SLOTS], freeGens(INITIAL_SLOTS));
+    private int size = 0;
+
+    // 이하는 쓰는 쪽(synchronized)만 사용한다.
+    private int[] refs = new int[INITIAL_SLOTS];
+    private int slotCount = 0;
+    // 다시 쓸 수 있는 칸
+    private int[] freeSlots = new int[16];
+    private int freeCount = 0;
+    // 지웠지만 compaction 전이라 아직 다시 쓰면 안 되는 칸
+    private int[] deadSlots = new int[16];
+    private int deadCount = 0;
+    private long liveBytes = 0;
+    private long garbageBytes = 0;
+
+    // 중복 제거용 open addressing 해시 테이블 (칸 번호 + 1 을 저장, 0 은 빈 칸)
+    private int[] table = new int[INITIAL_TABLE_SIZE];
+    private int count = 0;
+
+    /**
+     * 상품명을 저장하고 handle 을 반환한다. 이미 있는 상품명이면 기존 handle 을 반환한다.
+     * 반환한 handle 은 쓰지 않게 되면 {@link #release} 해야 한다.
+     *
+     * @throws IllegalStateException 살아 있는 이름의 바이트가 {@link #MAX_BYTES} 를 넘으면
+     */
+    public synchronized long intern(String name) {
+        if (name == null) {
+            return NULL_HANDLE;
+        }
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int index = tableIndex(bytes);
+        if (table[index] != 0) {
+            int slot = table[index] - 1;
+            refs[slot]++;
+            return handle(layout.gens[slot], slot);
+        }
+
+        long handle = append(bytes);
+        table[index] = slot(handle) + 1;
+        if (++count * 2 > table.length) {
+            rehash();
+        }
+        return handle;
+    }
+
+    /**
+     * 이미 저장된 상품명의 handle 을 찾는다. 참조 수는 바꾸지 않는다.
+     *
+     * @return 없으면 {@link #NULL_HANDLE}
+     */
+    public synchronized long find(String name) {
+        if (name == null) {
+            return NULL_HANDLE;
+        }
+        int index = tableIndex(name.getBytes(StandardCharsets.UTF_8));
+        if (table[index] == 0) {
+            return NULL_HANDLE;
+        }
+        int slot = table[index] - 1;
+        return handle(layout.gens[slot], slot);
+    }
+
+    /**
+     * intern 으로 받은 handle 을 더 쓰지 않는다. 참조가 모두 없어지면 이름을 지운다.
+     */
+    public synchronized void release(long handle) {
+        if (handle == NULL_HANDLE) {
+            return;
+        }
+        int slot = slot(handle);
+        int gen = gen(handle);
+        Layout current = layout;
+        if (slot < 0 || slot >= slotCount || current.gens[slot] != gen || --refs[slot] > 0) {
+            return;
+        }
+        removeFromTable(slot);
+        count--;
+        long entryBytes = entryBytes(current.data, current.offsets[slot]);
+        liveBytes -= entryBytes;
+        garbageBytes += entryBytes;
+        // 세대를 올려 두면 예전 handle 로 읽는 쪽은 바로 알아챈다. 바이트는 compaction 때까지 그대로 둔다.
+        GENS.setRelease(current.gens, slot, FREE | (gen == MAX_GEN ? MAX_GEN : gen + 1));
+        if (gen == MAX_GEN) {
+            // 세대를 다 쓴 칸은 버린다.
+            return;
+        }
+        deadSlots = push(deadSlots, deadCount++, slot);
+        if (garbageBytes >= MIN_COMPACT_BYTES && garbageBytes > liveBytes) {
+            compact();
+        }
+    }
+
+    /**
+     * handle 에 해당하는 상품명을 복원한다. 호출할 때마다 새 String 을 만든다.
+     *
+     * @return 이미 지운 이름의 handle 이면 null (읽는 사이 레코드의 이름이 바뀐 경우)
+     */
+    public String decode(long handle) {
+        if (handle == NULL_HANDLE) {
+            return null;
+        }
+        while (true) {
+            Layout current = layout;
+            long location = locate(current, handle);
+            if (location >= 0) {
+                return new String(current.data, (int) location, (int) (location >>> 32), StandardCharsets.UTF_8);
+            }
+            if (current == layout) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * handle 의 UTF-8 바이트 길이, 지운 이름이면 -1
+     */
+    public int byteLength(long handle) {
+        while (true) {
+            Layout current = layout;
+            long location = locate(current, handle);
+            if (location >= 0) {
+                return (int) (location >>> 32);
+            }
+            if (current == layout) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * 디코딩하지 않고 UTF-8 바이트에서 바로 검색한다.
+     *
+     * @param query 검색어의 UTF-8 바이트
+     * @return 처음 일치하는 바이트 위치, 없거나 지운 이름이면 -1
+     */
+    public int indexOf(long handle, byte[] query) {
+        Layout current;
+        long location;
+        do {
+            current = layout;
+            location = locate(current, handle);
+        } while (location < 0 && current != layout);
+        if (location < 0) {
+            return -1;
+        }
+        byte[] bytes = current.data;
+        int pos = (int) location;
+        int length = (int) (location >>> 32);
+
+        for (int i = 0; i <= length - query.length; i++) {
+            if (Arrays.equals(bytes, pos + i, pos + i + query.length, query, 0, query.length)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 저장된 서로 다른 상품명 수
+     */
+    public synchronized int distinctCount() {
+        return count;
+    }
+
+    /**
+     * 지웠지만 아직 compaction 으로 돌려받지 않은 바이트
+     */
+    public synchronized long garbageBytes() {
+        return garbageBytes;
+    }
+
+    /**
+     * arena 와 해시 테이블이 차지하는 대략적인 힙 크기 (byte)
+     */
+    public synchronized long footprint() {
+        Layout current = layout;
+        return 16L + current.data.length + 3 * (16L + 4L * refs.length) + 16L + 4L * table.length;
+    }
+
+    public synchronized void clear() {
+        layout = new Layout(new byte[INITIAL_CAPACITY], new int[INITIAL_SLOTS], freeGens(INITIAL_SLOTS));
+        size = 0;
+        refs = new int[INITIAL_SLOTS];
+        slotCount = 0;
+        freeCount = 0;
+        deadCount = 0;
+        liveBytes = 0;
+        garbageBytes = 0;
+        table = new int[INITIAL_TABLE_SIZE];
+        count = 0;
+    }
+
+    private long append(byte[] bytes) {
+        long required = (long) size + 5 + bytes.length;
+        if (required > MAX_BYTES && garbageBytes > 0) {
+            compact();
+            required = (long) size + 5 + bytes.length;
+        }
+        if (required > MAX_BYTES || (freeCount == 0 && slotCount == MAX_BYTES)) {
+            throw new IllegalStateException("item name arena is full (" + liveBytes + " bytes of " + count
+                    + " distinct names, max " + MAX_BYTES + " bytes)");
+        }
+        int slot = freeCount > 0 ? freeSlots[--freeCount] : slotCount++;
+
+        Layout current = layout;
+        if (required > current.data.length || slot >= current.offsets.length) {
+            // 늘린 배열은 따로 만들어 바꾼다. 예전 배열로 읽던 쪽은 그대로 읽는다.
+            int slots = slot < current.offsets.length ? current.offsets.length : grownLength(current.offsets.length, slot + 1);
+            current = new Layout(Arrays.copyOf(current.data, grownLength(current.data.length, required)),
+                    Arrays.copyOf(current.offsets, slots), grow(current.gens, slots));
+            refs = Arrays.copyOf(refs, slots);
+            layout = current;
+        }
+
+        byte[] target = current.data;
+        int start = size;
+        int pos = size;
+        int length = bytes.length;
+        while ((length & ~0x7F) != 0) {
+            target[pos++] = (byte) ((length & 0x7F) | 0x80);
+            length >>>= 7;
+        }
+        target[pos++] = (byte) length;
+        System.arraycopy(bytes, 0, target, pos, bytes.length);
+        size = pos + bytes.length;
+        liveBytes += size - start;
+
+        int gen = current.gens[slot] & MAX_GEN;
+        refs[slot] = 1;
+        current.offsets[slot] = start;
+        // 세대는 마지막에 release 로 쓴다. (읽는 쪽은 세대가 맞을 때만 위치를 믿는다.)
+        GENS.setRelease(current.gens, slot, gen);
+        return handle(gen, slot);
+    }
+
+    /**
+     * 살아 있는 이름만 새 배열로 옮긴다. 칸 번호는 그대로이고, 지운 칸은 이때부터 다시 쓴다.
+     */
+    private void compact() {
+        Layout current = layout;
+        byte[] data = new byte[(int) Math.max(INITIAL_CAPACITY, Math.min(MAX_BYTES, liveBytes * 2))];
+        int[] offsets = current.offsets.clone();
+        int[] gens = current.gens.clone();
+        int pos = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (gens[slot] < 0) {
+                continue;
+            }
+            int from = offsets[slot];
+            int length = entryBytes(current.data, from);
+            System.arraycopy(current.data, from, data, pos, length);
+            offsets[slot] = pos;
+            pos += length;
+        }
+        size = pos;
+        garbageBytes = 0;
+        for (int i = 0; i < deadCount; i++) {
+            freeSlots = push(freeSlots, freeCount++, deadSlots[i]);
+        }
+        deadCount = 0;
+        layout = new Layout(data, offsets, gens);
+    }
+
+    /**
+     * bytes 가 있는 칸, 없으면 넣을 빈 칸의 위치
+     */
+    private int tableIndex(byte[] bytes) {
+        int mask = table.length - 1;
+        int index = hash(bytes, 0, bytes.length) & mask;
+        while (table[index] != 0 && !matches(table[index] - 1, bytes)) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private boolean matches(int slot, byte[] bytes) {
+        Layout current = layout;
+        long location = header(current.data, current.offsets[slot]);
+        int pos = (int) location;
+        int length = (int) (location >>> 32);
+        return length == bytes.length
+                && Arrays.equals(current.data, pos, pos + length, bytes, 0, bytes.length);
+    }
+
+    private void rehash() {
+        int[] newTable = new int[table.length * 2];
+        int mask = newTable.length - 1;
+        for (int entry : table) {
+            if (entry == 0) {
+                continue;
+            }
+            int index = hashAt(entry - 1) & mask;
+            while (newTable[index] != 0) {
+                index = (index + 1) & mask;
+            }
+            newTable[index] = entry;
+        }
+        table = newTable;
+    }
+
+    /**
+     * 해시 테이블에서 지우고 뒤에 밀려 있던 칸을 당겨 온다. (linear probing 의 backward shift)
+     */
+    private void removeFromTable(int slot) {
+        int mask = table.length - 1;
+        int gap = hashAt(slot) & mask;
+        while (table[gap] != slot + 1) {
+            gap = (gap + 1) & mask;
+        }
+        int next = (gap + 1) & mask;
+        while (table[next] != 0) {
+            int home = hashAt(table[next] - 1) & mask;
+            if ((next - home & mask) >= (next - gap & mask)) {
+                table[gap] = table[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table[gap] = 0;
+    }
+
+    private int hashAt(int slot) {
+        Layout current = layout;
+        long location = header(current.data, current.offsets[slot]);
+        int pos = (int) location;
+        return hash(current.data, pos, pos + (int) (location >>> 32));
+    }
+
+    /**
+     * handle 의 (길이 << 32 | 내용 시작 위치), 지운 이름이거나 이 배열에 아직 없는 칸이면 -1
+     */
+    private static long locate(Layout layout, long handle) {
+        if (handle < 0) {
+            return -1;
+        }
+        long slot = handle & SLOT_MASK;
+        // 세대를 acquire 로 먼저 읽어야 그 앞에 쓴 위치와 바이트가 보인다.
+        if (slot >= layout.gens.length || (int) GENS.getAcquire(layout.gens, (int) slot) != gen(handle)) {
+            return -1;
+        }
+        return header(layout.data, layout.offsets[(int) slot]);
+    }
+
+    private static long handle(int gen, int slot) {
+        return (long) gen << 32 | slot;
+    }
+
+    private static int slot(long handle) {
+        return (int) handle;
+    }
+
+    private static int gen(long handle) {
+        return (int) (handle >>> 32);
+    }
+
+    /**
+     * 두 배로 늘리되 required 이상, {@link #MAX_BYTES} 이하
+     */
+    private static int grownLength(int length, long required) {
+        return (int) Math.min(MAX_BYTES, Math.max(required, length * 2L));
+    }
+
+    // 길이(varint)를 읽어 (길이 << 32 | 내용 시작 위치) 로 반환
+    private static long header(byte[] bytes, int offset) {
+        int length = 0;
+        int shift = 0;
+        int pos = offset;
+        byte b;
+        do {
+            b = bytes[pos++];
+            length |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return (long) length << 32 | pos;
+    }
+
+    // 길이 헤더를 포함한 크기
+    private static int entryBytes(byte[] bytes, int offset) {
+        long header = header(bytes, offset);
+        return (int) header - offset + (int) (header >>> 32);
+    }
+
+    private static int hash(byte[] bytes, int from, int to) {
+        int h = 1;
+        for (int i = from; i < to; i++) {
+            h = 31 * h + bytes[i];
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static int[] freeGens(int slots) {
+        int[] gens = new int[slots];
+        Arrays.fill(gens, FREE);
+        return gens;
+    }
+
+    private static int[] grow(int[] gens, int slots) {
+        int[] grown = Arrays.copyOf(gens, slots);
+        Arrays.fill(grown, gens.length, slots, FREE);
+        return grown;
+    }
+
+    private static int[] push(int[] stack, int index, int value) {
+        if (index == stack.length) {
+            stack = Arrays.copyOf(stack, index * 2);
+        }
+        stack[index] = value;
+        return stack;
+    }
+
+    /**
+     * 이름 바이트와 칸별 위치, 세대. 크기를 늘리거나 옮길 때는 새로 만들어 바꾼다.
+     */
+    private record Layout(byte[] data, int[] offsets, int[] gens) {
+    }
+}
@@ -0,0 +1,310 @@
+package hello.itemservicev4.domain.item;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+
+/**
+ * 상품명 부분 검색용 n-gram 역색인
+ * <p>
+ * 소문자로 바꾼 상품명의 1, 2, 3-gram 을 key 로 (이름 길이 << 32 | id) 를 정렬해 보관한다.
+ * 세 글자 이상인 검색어는 3-gram 으로 찾으므로 흔한 2-gram 으로 이루어진 검색어도 후보가 적다.
+ * 이름의 첫 gram 은 따로 한 번 더 색인해 앞부분 일치 후보만 훑을 수 있게 한다.
+ * posting 이 순위(짧은 이름, 먼저 등록된 상품) 순서이므로, 검색어의 gram 을 모두 가진 상품을 앞에서부터 확인하다가
+ * limit 개를 채우면 멈춘다. 자주 나오는 검색어일수록 일찍 멈춘다.
+ * <p>
+ * 후보가 실제로 검색어를 포함하는지는 색인이 아니라 저장소의 지금 이름으로 확인한다.
+ * 이름을 바꾸는 중이라 색인이 늦더라도 지금 이름과 맞지 않는 상품은 결과에 나오지 않는다.
+ * 검색어와 상품명을 같은 방식(toLowerCase)으로 바꾸므로 영문 외의 대소문자("CAFÉ", "café")도 같게 본다.
+ */
+class ItemNameIndex {
+
+    private final ConcurrentHashMap<Long, PostingList> postings = new ConcurrentHashMap<>();
+    // 이름의 첫 1-gram, 첫 2-gram -> 그렇게 시작하는 상품
+    private final ConcurrentHashMap<Long, PostingList> prefixes = new ConcurrentHashMap<>();
+
+    /**
+     * 같은 id, 이름으로 다시 넣어도 한 번만 들어간다.
+     */
+    void add(long id, String name) {
+        if (name == null) {
+            return;
+        }
+        String normalized = normalize(name);
+        long entry = entry(id, normalized);
+        for (long gram : indexGrams(normalized)) {
+            postings.computeIfAbsent(gram, k -> new PostingList()).add(entry);
+        }
+        for (long gram : prefixGrams(normalized)) {
+            prefixes.computeIfAbsent(gram, k -> new PostingList()).add(entry);
+        }
+    }
+
+    void remove(long id, String name) {
+        if (name == null) {
+            return;
+        }
+        String normalized = normalize(name);
+        long entry = entry(id, normalized);
+        for (long gram : indexGrams(normalized)) {
+            PostingList posting = postings.get(gram);
+            if (posting != null) {
+                posting.remove(entry);
+            }
+        }
+        for (long gram : prefixGrams(normalized)) {
+            PostingList posting = prefixes.get(gram);
+            if (posting != null) {
+                posting.remove(entry);
+            }
+        }
+    }
+
+    void clear() {
+        postings.clear();
+        prefixes.clear();
+    }
+
+    /**
+     * 검색어를 포함하는 상품 id 를 순위대로 반환한다.
+     * 순위 : 정확히 일치 > 앞부분 일치 > 중간 일치, 같으면 짧은 이름, 같으면 먼저 등록된 상품
+     *
+     * @param currentName id 의 지금 상품명 (없으면 null). 후보를 이 이름으로 확인한다.
+     */
+    List<Long> search(String query, int limit, LongFunction<String> currentName) {
+        String normalized = normalize(query == null ? "" : query.strip());
+        long[] grams = grams(normalized);
+        if (grams.length == 0 || limit <= 0) {
+            return List.of();
+        }
+
+        PostingList.View[] lists = new PostingList.View[grams.length + 1];
+        for (int i = 0; i < grams.length; i++) {
+            PostingList posting = postings.get(grams[i]);
+            if (posting == null) {
+                return List.of();
+            }
+            lists[i] = posting.view();
+        }
+
+        List<Long> ids = new ArrayList<>();
+        // 1. 앞부분 일치 (정확히 일치하는 이름은 가장 짧으므로 맨 앞에 온다)
+        PostingList prefix = prefixes.get(prefixGram(normalized));
+        if (prefix != null) {
+            lists[grams.length] = prefix.view();
+            scan(lists.clone(), limit, ids, id -> {
+                String name = currentName.apply(id);
+                return name != null && normalize(name).startsWith(normalized);
+            });
+        }
+        // 2. 중간 일치. 앞부분 일치는 1 에서 모두 찾았다.
+        if (ids.size() < limit) {
+            scan(Arrays.copyOf(lists, grams.length), limit, ids, id -> {
+                String name = currentName.apply(id);
+                if (name == null) {
+                    return false;
+                }
+                String current = normalize(name);
+                return !current.startsWith(normalized) && current.contains(normalized);
+            });
+        }
+        return ids;
+    }
+
+    /**
+     * 모든 posting 에 있는 항목을 순위대로 찾아 matches 를 통과한 id 를 limit 개까지 모은다.
+     * 가장 짧은 posting 을 따라가다 다른 posting 에 없으면, 그 posting 에서 다음으로 큰 항목까지 건너뛴다. (leapfrog)
+     */
+    private static void scan(PostingList.View[] lists, int limit, List<Long> ids, LongPredicate matches) {
+        Arrays.sort(lists, Comparator.comparingInt(PostingList.View::size));
+        PostingList.View driver = lists[0];
+        int[] cursors = new int[lists.length];
+        while (ids.size() < limit && cursors[0] < driver.size()) {
+            long entry = driver.entries()[cursors[0]];
+            long next = entry;
+            for (int i = 1; i < lists.length && next == entry; i++) {
+                cursors[i] = lists[i].lowerBound(entry, cursors[i]);
+                if (cursors[i] == lists[i].size()) {
+                    return;
+                }
+                next = lists[i].entries()[cursors[i]];
+            }
+            if (next != entry) {
+                cursors[0] = driver.lowerBound(next, cursors[0]);
+                continue;
+            }
+            long id = entry & 0xFFFFFFFFL;
+            // 이름을 바꾸는 중이면 같은 id 가 예전 길이로도 남아 있을 수 있다.
+            if (!ids.contains(id) && matches.test(id)) {
+                ids.add(id);
+            }
+            cursors[0]++;
+        }
+    }
+
+    private static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 검색어의 gram. 한 글자면 1-gram, 두 글자면 2-gram, 세 글자 이상이면 3-gram 들
+     */
+    private static long[] grams(String s) {
+        int n = Math.min(s.length(), 3);
+        if (n == 0) {
+            return new long[0];
+        }
+        long[] grams = new long[s.length() - n + 1];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = gram(s, i, n);
+        }
+        return Arrays.stream(grams).distinct().toArray();
+    }
+
+    /**
+     * 색인할 때는 1, 2, 3-gram 을 모두 넣는다.
+     */
+    private static long[] indexGrams(String s) {
+        long[] grams = new long[s.length() * 3];
+        int count = 0;
+        for (int i = 0; i < s.length(); i++) {
+            for (int n = 1; n <= 3 && i + n <= s.length(); n++) {
+                grams[count++] = gram(s, i, n);
+            }
+        }
+        return Arrays.stream(grams, 0, count).distinct().toArray();
+    }
+
+    /**
+     * 이름의 첫 1-gram 과 첫 2-gram
+     */
+    private static long[] prefixGrams(String s) {
+        if (s.isEmpty()) {
+            return new long[0];
+        }
+        if (s.length() == 1) {
+            return new long[]{gram(s, 0, 1)};
+        }
+        return new long[]{gram(s, 0, 1), gram(s, 0, 2)};
+    }
+
+    private static long prefixGram(String query) {
+        return gram(query, 0, Math.min(query.length(), 2));
+    }
+
+    /**
+     * s[from, from + n) 의 n-gram (n << 48 | 글자들). 길이가 다른 gram 은 겹치지 않는다.
+     */
+    private static long gram(String s, int from, int n) {
+        long gram = n;
+        for (int i = from; i < from + n; i++) {
+            gram = gram << 16 | s.charAt(i);
+        }
+        return gram << 16 * (3 - n);
+    }
+
+    private static long entry(long id, String normalized) {
+        return (long) normalized.length() << 32 | id;
+    }
+
+    /**
+     * (이름 길이 << 32 | id) 순으로 정렬된 배열
+     * <p>
+     * 순서대로 들어오면 뒤에 붙이고, 순서가 어긋나게 들어온 것은 일단 뒤에 모아 두었다가
+     * 다음에 읽을 때 한 번에 정렬해 합친다. 중간에 끼워 넣느라 배열을 매번 밀지 않는다.
+     * 읽는 쪽에 넘긴 범위([0, size))는 바꾸지 않으므로 검색은 잠그지 않고 훑는다. (지울 때는 새 배열을 만든다)
+     */
+    private static final class PostingList {
+
+        private long[] entries = new long[4];
+        private int size;
+        // [0, sorted) 는 정렬되어 있고 [sorted, size) 는 아직 합치지 않은 것
+        private int sorted;
+
+        synchronized void add(long entry) {
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, size * 2);
+            }
+            entries[size++] = entry;
+            if (sorted == size - 1 && (sorted == 0 || entries[sorted - 1] < entry)) {
+                sorted = size;
+            }
+        }
+
+        synchronized void remove(long entry) {
+            settle();
+            int index = Arrays.binarySearch(entries, 0, size, entry);
+            if (index < 0) {
+                return;
+            }
+            long[] removed = new long[entries.length];
+            System.arraycopy(entries, 0, removed, 0, index);
+            System.arraycopy(entries, index + 1, removed, index, size - index - 1);
+            entries = removed;
+            size--;
+            sorted = size;
+        }
+
+        synchronized View view() {
+            settle();
+            return new View(entries, size);
+        }
+
+        /**
+         * 뒤에 모아 둔 것을 정렬해 앞부분과 합친다. 같은 값은 하나만 남긴다.
+         */
+        private void settle() {
+            if (sorted == size) {
+                return;
+            }
+            Arrays.sort(entries, sorted, size);
+            long[] merged = new long[Math.max(4, entries.length)];
+            int count = 0;
+            int left = 0;
+            int right = sorted;
+            while (left < sorted || right < size) {
+                long next = right == size || (left < sorted && entries[left] <= entries[right])
+                        ? entries[left++] : entries[right++];
+                if (count == 0 || merged[count - 1] != next) {
+                    merged[count++] = next;
+                }
+            }
+            entries = merged;
+            size = count;
+            sorted = count;
+        }
+
+        /**
+         * 읽는 순간의 posting. entries 의 [0, size) 는 이후 바뀌지 않는다.
+         */
+        private record View(long[] entries, int size) {
+
+            /**
+             * from 부터 1, 2, 4, ... 칸씩 건너뛰며 범위를 좁힌 뒤 이분 탐색한다. 후보가 촘촘하면 거의 순차 비교가 된다.
+             */
+            int lowerBound(long key, int from) {
+                int low = from;
+                int step = 1;
+                while (low + step < size && entries[low + step] < key) {
+                    low += step;
+                    step <<= 1;
+                }
+                int high = Math.min(size, low + step);
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    if (entries[mid] < key) {
+                        low = mid + 1;
+                    } else {
+                        high = mid;
+                    }
+                }
+                return low;
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package hello.itemservicev4.domain.item;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 상품의 일부 필드만 바꾸는 요청
+ * 값을 지정한 필드만 반영하고, 지정하지 않은 필드는 그대로 둔다. (null 을 지정하면 null 로 바꾼다.)
+ */
+public class ItemPatch {
+
+    public static final String ITEM_NAME = "itemName";
+    public static final String PRICE = "price";
+    public static final String QUANTITY = "quantity";
+
+    private boolean hasItemName;
+    private boolean hasPrice;
+    private boolean hasQuantity;
+    private String itemName;
+    private Integer price;
+    private Integer quantity;
+    // quantity 를 정할 때 본 수량 (null 이면 quantity 를 그대로 쓴다)
+    private Integer seenQuantity;
+
+    /**
+     * 모든 필드를 지정한 patch (수정 폼처럼 전체 값을 받는 경우)
+     */
+    public static ItemPatch of(Item item) {
+        return new ItemPatch()
+                .itemName(item.getItemName())
+                .price(item.getPrice())
+                .quantity(item.getQuantity());
+    }
+
+    public ItemPatch itemName(String itemName) {
+        this.hasItemName = true;
+        this.itemName = itemName;
+        return this;
+    }
+
+    public ItemPatch price(Integer price) {
+        this.hasPrice = true;
+        this.price = price;
+        return this;
+    }
+
+    public ItemPatch quantity(Integer quantity) {
+        return quantity(quantity, null);
+    }
+
+    /**
+     * seen 을 보고 quantity 로 바꾸는 요청. 그 사이 예약 등으로 수량이 바뀌었으면 지금 수량에 바꾼 만큼(quantity - seen)만 반영한다.
+     * 수정 폼을 연 뒤 예약된 재고를 폼의 예전 수량으로 되살리지 않는다.
+     */
+    public ItemPatch quantity(Integer quantity, Integer seen) {
+        this.hasQuantity = true;
+        this.quantity = quantity;
+        this.seenQuantity = seen;
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return !hasItemName && !hasPrice && !hasQuantity;
+    }
+
+    /**
+     * current 에 이 patch 를 반영한 새 Item
+     */
+    Item applyTo(Item current) {
+        Item merged = new Item(
+                hasItemName ? itemName : current.getItemName(),
+                hasPrice ? price : current.getPrice(),
+                quantityFor(current));
+        merged.setId(current.getId());
+        return merged;
+    }
+
+    /**
+     * current 와 비교해 실제로 값이 바뀌는 필드 이름
+     */
+    List<String> changedFields(Item current) {
+        List<String> changed = new ArrayList<>(3);
+        if (hasItemName && !Objects.equals(itemName, current.getItemName())) {
+            changed.add(ITEM_NAME);
+        }
+        if (hasPrice && !Objects.equals(price, current.getPrice())) {
+            changed.add(PRICE);
+        }
+        if (hasQuantity && !Objects.equals(quantityFor(current), current.getQuantity())) {
+            changed.add(QUANTITY);
+        }
+        return changed;
+    }
+
+    private Integer quantityFor(Item current) {
+        if (!hasQuantity) {
+            return current.getQuantity();
+        }
+        if (seenQuantity == null || quantity == null || current.getQuantity() == null) {
+            return quantity;
+        }
+        long adjusted = (long) current.getQuantity() + quantity - seenQuantity;
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, adjusted));
+    }
+}
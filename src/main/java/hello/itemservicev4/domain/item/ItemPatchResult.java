@@ -0,0 +1,28 @@
+package hello.itemservicev4.domain.item;
+
+import java.util.List;
+
+/**
+ * {@link ItemRepository#patch} 결과
+ *
+ * @param status        처리 결과
+ * @param item          처리 후 상품 (NOT_FOUND 면 null)
+ * @param changedFields 실제로 바뀐 필드 (UPDATED 일 때만 값이 있다.)
+ */
+public record ItemPatchResult(Status status, Item item, List<String> changedFields) {
+
+    public enum Status {
+        UPDATED,
+        // 바뀐 값이 없어 저장하지 않음
+        UNCHANGED,
+        // 합친 상태가 검증을 통과하지 못해 저장하지 않음
+        REJECTED,
+        // 다른 상품이 이미 쓰는 상품명이라 저장하지 않음
+        DUPLICATE_NAME,
+        NOT_FOUND
+    }
+
+    static ItemPatchResult of(Status status, Item item) {
+        return new ItemPatchResult(status, item, List.of());
+    }
+}
@@ -0,0 +1,30 @@
+package hello.itemservicev4.domain.item;
+
+/**
+ * 저장소 내부에서 보관하는 상품 형태
+ * 상품명은 String 대신 {@link ItemNameArena} 의 handle 로 들고 있다가, 조회할 때 Item 으로 복원한다.
+ */
+final class ItemRecord {
+
+    final long id;
+    final long nameHandle;
+    final Integer price;
+    final Integer quantity;
+
+    ItemRecord(long id, long nameHandle, Integer price, Integer quantity) {
+        this.id = id;
+        this.nameHandle = nameHandle;
+        this.price = price;
+        this.quantity = quantity;
+    }
+
+    static ItemRecord of(long id, Item item, ItemNameArena names) {
+        return new ItemRecord(id, names.intern(item.getItemName()), item.getPrice(), item.getQuantity());
+    }
+
+    Item toItem(ItemNameArena names) {
+        Item item = new Item(names.decode(nameHandle), price, quantity);
+        item.setId(id);
+        return item;
+    }
+}
@@ -0,0 +1,36 @@
+package hello.itemservicev4.domain.item;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * {@link ItemRepository} 가 상품을 실제로 보관하는 저장 공간
+ */
+interface ItemRecordStore extends AutoCloseable {
+
+    ItemRecord get(long id);
+
+    void put(ItemRecord record);
+
+    List<ItemRecord> values();
+
+    /**
+     * 목록을 미리 만들지 않고 한 건씩 읽는다. 순회 중의 변경은 반영될 수도, 안 될 수도 있다.
+     */
+    default Iterator<ItemRecord> iterator() {
+        return values().iterator();
+    }
+
+    int size();
+
+    void clear();
+
+    /**
+     * 같은 방식의 빈 저장 공간을 새로 만든다. (새로 채운 뒤 통째로 바꿀 때 사용)
+     */
+    ItemRecordStore createEmpty();
+
+    @Override
+    default void close() {
+    }
+}
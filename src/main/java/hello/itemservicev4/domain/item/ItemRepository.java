@@ -1,41 +1,618 @@
 package hello.itemservicev4.domain.item;
 
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import java.text.Normalizer;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 @Repository
 public class ItemRepository {
 
-    private static final Map<Long, Item> store = new HashMap<>(); //static
-    private static long sequence = 0L; //static
+    // 상품과 색인. replaceWith() 로 통째로 바뀌므로 메서드마다 한 번 읽어 끝까지 같은 것을 쓴다.
+    // 바꿀 때는 id 별 잠금을 모두 잡으므로, 쓰기는 잠금 안에서 읽은(또는 다시 확인한) state 에만 쓴다.
+    private volatile State state;
+    private final AtomicLong sequence = new AtomicLong();
+    private final List<ItemChangeListener> listeners = new CopyOnWriteArrayList<>();
 
+    // 같은 상품의 저장과 리스너 호출 순서를 맞추기 위한 id 별 잠금
+    private final Object[] locks = new Object[64];
+
+    public ItemRepository() {
+        this(new HeapItemRecordStore());
+    }
+
+    ItemRepository(ItemRecordStore store) {
+        this.state = new State(store);
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    @Autowired
+    ItemRepository(ItemRecordStore store, ObjectProvider<ItemChangeListener> listeners) {
+        this(store);
+        listeners.orderedStream().forEach(this::addChangeListener);
+    }
+
+    /**
+     * 리스너를 등록하고, 리스너가 보관하던 상품을 불러오게 한다.
+     */
+    public void addChangeListener(ItemChangeListener listener) {
+        listener.attach(this);
+        listeners.add(listener);
+    }
+
+    /**
+     * @throws DuplicateItemNameException 같은 이름의 상품이 이미 있으면
+     */
     public Item save(Item item) {
-        item.setId(++sequence);
-        store.put(item.getId(), item);
+        while (!save(this.state, item)) {
+            // 잠금을 잡기 전에 저장소가 통째로 바뀌었다. 바뀐 저장소에 새 id 로 다시 넣는다.
+        }
+        afterChanged();
         return item;
     }
 
+    /**
+     * @return 그 사이 state 가 바뀌어 넣지 않았으면 false
+     */
+    private boolean save(State state, Item item) {
+        long id = sequence.incrementAndGet();
+        claimName(state, item.getItemName(), id);
+        ItemRecord record = null;
+        boolean stored = false;
+        try {
+            record = ItemRecord.of(id, item, state.names);
+            synchronized (lock(id)) {
+                if (state != this.state) {
+                    return false;
+                }
+                state.store.put(record);
+                stored = true;
+                item.setId(id);
+                state.nameIndex.add(id, item.getItemName());
+                notifyChanged(id, item);
+            }
+        } finally {
+            // 저장하지 못했으면 잡아 둔 이름을 놓는다.
+            if (!stored) {
+                if (record != null) {
+                    state.names.release(record.nameHandle);
+                }
+                releaseName(state, item.getItemName(), null, id);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 외부에 보관했던 상품을 id 그대로 다시 올린다. 리스너에는 알리지 않는다. (알리려면 {@link #publish})
+     * 올리는 중에 저장소가 통째로 바뀌면 바뀌기 전의 저장소에 올린 것으로 보고 버린다.
+     *
+     * @throws DuplicateItemNameException 다른 상품이 이미 쓰는 이름이면 (아무것도 바꾸지 않는다)
+     */
+    public void restore(Item item) {
+        State state = this.state;
+        long id = item.getId();
+        claimName(state, item.getItemName(), id);
+        String key = nameKey(item.getItemName());
+        if (sequence.get() < id) {
+            sequence.accumulateAndGet(id, Math::max);
+        }
+        ItemRecord record = ItemRecord.of(id, item, state.names);
+        synchronized (lock(id)) {
+            if (state != this.state) {
+                return;
+            }
+            ItemRecord previous = state.store.get(id);
+            state.store.put(record);
+            state.stocks.remove(id);
+            if (previous != null) {
+                String previousName = state.names.decode(previous.nameHandle);
+                releaseName(state, previousName, key, id);
+                state.nameIndex.remove(id, previousName);
+                state.names.release(previous.nameHandle);
+            }
+            state.nameIndex.add(id, item.getItemName());
+        }
+    }
+
+    /**
+     * 같은 방식의 저장 공간을 쓰는 빈 저장소. 여기에 restore() 로 채운 뒤 {@link #replaceWith} 로 바꾼다.
+     * 리스너는 등록되지 않는다.
+     */
+    public ItemRepository createEmpty() {
+        return new ItemRepository(state.store.createEmpty());
+    }
+
+    /**
+     * loaded 에 채운 상품으로 통째로 바꾼다. 읽는 요청은 바꾸기 전이나 후의 상품 전체를 보고, 중간에 빈 저장소를 보지 않는다.
+     * 바꾸는 동안은 id 별 잠금을 모두 잡아 쓰기를 멈춘다. 먼저 끝난 쓰기는 예전 상품과 함께 사라지고,
+     * 기다리던 쓰기는 바뀐 저장소에 들어간다. 리스너에는 알리지 않는다. loaded 는 이후 쓰지 않는다.
+     */
+    public void replaceWith(ItemRepository loaded) {
+        swap(loaded, false);
+    }
+
+    /**
+     * {@link #replaceWith} 처럼 바꾸고 리스너에도 알린다. (데이터를 다시 만들 때)
+     * 쓰기를 멈춘 채로 {@link ItemChangeListener#storeCleared()} 를 호출하고, 쓰기를 다시 받은 뒤 상품마다 알린다.
+     */
+    public void replaceAll(ItemRepository loaded) {
+        swap(loaded, true);
+        publish(1, loaded.sequence.get());
+    }
+
+    private void swap(ItemRepository loaded, boolean notifyCleared) {
+        State[] previous = new State[1];
+        whileWritesPaused(() -> {
+            previous[0] = state;
+            sequence.set(loaded.sequence.get());
+            state = loaded.state;
+            if (notifyCleared) {
+                for (ItemChangeListener listener : listeners) {
+                    listener.storeCleared();
+                }
+            }
+        });
+        // 읽고 있던 요청은 예전 레코드를 그대로 읽는다. (힙은 GC, 파일은 매핑이 남아 있다)
+        previous[0].store.close();
+    }
+
+    /**
+     * restore() 로 올린 fromId ~ toId 의 상품을 저장한 것처럼 리스너에 알린다. (write-behind 기록, replica 전달)
+     * 상품마다 잠금 안에서 지금 값을 읽어 알리므로, 그 사이 수정된 상품도 순서가 뒤바뀌지 않는다.
+     */
+    public void publish(long fromId, long toId) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        for (long id = fromId; id <= toId; id++) {
+            synchronized (lock(id)) {
+                State state = this.state;
+                ItemRecord record = state.store.get(id);
+                if (record == null) {
+                    continue;
+                }
+                notifyChanged(id, toItem(state, record));
+            }
+            afterChanged();
+        }
+    }
+
+    /**
+     * replaceWith() 로 바꾼 저장 공간은 여기서 닫는다.
+     */
+    @PreDestroy
+    public void close() {
+        state.store.close();
+    }
+
+    /**
+     * 연속된 id count 개를 미리 잡아 첫 id 를 반환한다. 잡은 id 는 save() 가 다시 쓰지 않는다.
+     * 잡은 id 로 넣을 때는 restore() 를 사용한다.
+     */
+    public long reserveIds(long count) {
+        return sequence.getAndAdd(count) + 1;
+    }
+
+    /**
+     * 상품명(정규화해서 비교)을 쓰고 있는 상품의 id, 없으면 null
+     */
+    public Long findIdByName(String itemName) {
+        String key = nameKey(itemName);
+        return key == null ? null : state.nameOwners.get(key);
+    }
+
+    /**
+     * 지금까지 쓴 가장 큰 id (reserveIds() 로 잡은 id 포함). 상품은 1 ~ maxId 사이에 있다.
+     */
+    public long maxId() {
+        return sequence.get();
+    }
+
+    public long count() {
+        return state.store.size();
+    }
+
     public Item findById(Long id) {
-        return store.get(id);
+        return findById(state, id);
     }
 
     public List<Item> findAll() {
-        return new ArrayList<>(store.values());
+        State state = this.state;
+        List<ItemRecord> records = state.store.values();
+        List<Item> items = new ArrayList<>(records.size());
+        for (ItemRecord record : records) {
+            items.add(toItem(state, record));
+        }
+        return items;
     }
 
+    /**
+     * 전체 상품을 순회할 때마다 저장소에서 한 건씩 읽어 Item 으로 만든다.
+     * 목록 화면처럼 한 번 훑고 버리는 경우 findAll() 과 달리 전체 목록을 메모리에 만들지 않는다.
+     */
+    public Iterable<Item> iterateAll() {
+        return () -> {
+            State state = this.state;
+            Iterator<ItemRecord> records = state.store.iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return records.hasNext();
+                }
+
+                @Override
+                public Item next() {
+                    return toItem(state, records.next());
+                }
+            };
+        };
+    }
+
+    /**
+     * 상품명에 검색어가 포함된 상품을 순위대로 조회한다. 색인의 후보는 지금 저장된 이름으로 다시 확인한다.
+     */
+    public List<Item> search(String query, int limit) {
+        State state = this.state;
+        List<Long> ids = state.nameIndex.search(query, limit, id -> {
+            Item item = findById(state, id);
+            return item == null ? null : item.getItemName();
+        });
+        List<Item> items = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Item item = findById(state, id);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    /**
+     * @throws DuplicateItemNameException 다른 상품이 이미 쓰는 이름으로 바꾸려고 하면
+     */
     public void update(Long itemId, Item updateParam) {
-        Item findItem = findById(itemId);
-        findItem.setItemName(updateParam.getItemName());
-        findItem.setPrice(updateParam.getPrice());
-        findItem.setQuantity(updateParam.getQuantity());
+        ItemRecord findRecord;
+        ItemRecord record;
+        String findName;
+        synchronized (lock(itemId)) {
+            State state = this.state;
+            findRecord = state.store.get(itemId);
+            if (findRecord == null) {
+                return;
+            }
+            findName = state.names.decode(findRecord.nameHandle);
+            claimName(state, updateParam.getItemName(), itemId);
+            Integer seen = toItem(state, findRecord).getQuantity();
+            Integer quantity = Objects.equals(seen, updateParam.getQuantity())
+                    ? seen : adjustStock(state, itemId, seen, updateParam.getQuantity());
+            record = new ItemRecord(itemId, state.names.intern(updateParam.getItemName()), updateParam.getPrice(), quantity);
+            state.store.put(record);
+            releaseName(state, findName, nameKey(updateParam.getItemName()), itemId);
+            state.names.release(findRecord.nameHandle);
+            // 색인도 잠금 안에서 바꿔야 같은 상품의 이름 변경이 겹쳐도 지금 이름으로 남는다.
+            if (findRecord.nameHandle != record.nameHandle) {
+                state.nameIndex.remove(itemId, findName);
+                state.nameIndex.add(itemId, updateParam.getItemName());
+            }
+            notifyChanged(itemId, new Item(updateParam.getItemName(), updateParam.getPrice(), quantity));
+        }
+        afterChanged();
+    }
+
+    /**
+     * 지정한 필드만 바꾼다. 조회, 검증, 저장이 같은 잠금 안에서 이루어진다.
+     * 바뀐 값이 없으면 저장하지 않고 리스너에도 알리지 않는다.
+     *
+     * @param check 합친 상태를 검증한다. false 를 반환하면 저장하지 않는다. (null 이면 검증하지 않음)
+     */
+    public ItemPatchResult patch(Long itemId, ItemPatch patch, Predicate<Item> check) {
+        return patch(itemId, current -> patch, check);
+    }
+
+    /**
+     * 저장된 상품을 보고 바꿀 값을 정한다. (현재 가격의 5% 인상 등)
+     * patcher 는 잠금 안에서 호출되므로 읽은 값이 반영 전에 다른 요청으로 바뀌지 않는다.
+     *
+     * @param patcher 현재 상품으로 patch 를 만든다. null 을 반환하면 바꾸지 않는다. (UNCHANGED)
+     */
+    public ItemPatchResult patch(Long itemId, Function<Item, ItemPatch> patcher, Predicate<Item> check) {
+        ItemRecord findRecord;
+        ItemRecord record;
+        Item current;
+        Item merged;
+        List<String> changed;
+        synchronized (lock(itemId)) {
+            State state = this.state;
+            findRecord = state.store.get(itemId);
+            if (findRecord == null) {
+                return ItemPatchResult.of(ItemPatchResult.Status.NOT_FOUND, null);
+            }
+            current = toItem(state, findRecord);
+            ItemPatch patch = patcher.apply(current);
+            if (patch == null) {
+                return ItemPatchResult.of(ItemPatchResult.Status.UNCHANGED, current);
+            }
+            merged = patch.applyTo(current);
+            if (check != null && !check.test(merged)) {
+                return ItemPatchResult.of(ItemPatchResult.Status.REJECTED, current);
+            }
+            changed = patch.changedFields(current);
+            if (changed.isEmpty()) {
+                return ItemPatchResult.of(ItemPatchResult.Status.UNCHANGED, current);
+            }
+            boolean nameChanged = changed.contains(ItemPatch.ITEM_NAME);
+            if (nameChanged && !tryClaimName(state, merged.getItemName(), itemId)) {
+                return ItemPatchResult.of(ItemPatchResult.Status.DUPLICATE_NAME, current);
+            }
+            if (changed.contains(ItemPatch.QUANTITY)) {
+                merged.setQuantity(adjustStock(state, itemId, current.getQuantity(), merged.getQuantity()));
+            }
+            long nameHandle = nameChanged ? state.names.intern(merged.getItemName()) : findRecord.nameHandle;
+            record = new ItemRecord(itemId, nameHandle, merged.getPrice(), merged.getQuantity());
+            state.store.put(record);
+            if (nameChanged) {
+                releaseName(state, current.getItemName(), nameKey(merged.getItemName()), itemId);
+                state.names.release(findRecord.nameHandle);
+                state.nameIndex.remove(itemId, current.getItemName());
+                state.nameIndex.add(itemId, merged.getItemName());
+            }
+            notifyChanged(itemId, merged);
+        }
+        afterChanged();
+        return new ItemPatchResult(ItemPatchResult.Status.UPDATED, merged, changed);
+    }
+
+    /**
+     * 재고를 quantity 만큼 예약한다. 재고보다 많이 예약되는 일은 없다.
+     * 같은 상품에 예약이 몰려도 잠금 없이 처리하고, 저장소와 리스너에는 모아서 반영한다.
+     */
+    public StockResult reserve(Long itemId, int quantity) {
+        State state = this.state;
+        ItemStock stock = stock(state, itemId);
+        if (stock == null) {
+            return StockResult.NOT_FOUND;
+        }
+        if (!stock.reserve(quantity)) {
+            return new StockResult(StockResult.Status.INSUFFICIENT, stock.available());
+        }
+        syncStock(state, itemId, stock);
+        return new StockResult(StockResult.Status.OK, stock.available());
     }
 
+    /**
+     * 예약했던 재고를 되돌린다. 예약된 수량보다 많이는 되돌리지 않는다.
+     */
+    public StockResult release(Long itemId, int quantity) {
+        State state = this.state;
+        ItemStock stock = stock(state, itemId);
+        if (stock == null) {
+            return StockResult.NOT_FOUND;
+        }
+        if (!stock.release(quantity)) {
+            return new StockResult(StockResult.Status.NOT_RESERVED, stock.available());
+        }
+        syncStock(state, itemId, stock);
+        return new StockResult(StockResult.Status.OK, stock.available());
+    }
+
+    /**
+     * 모든 상품을 지우고 id 를 1 부터 다시 쓴다. 리스너에 알린 뒤에 id 를 되돌린다.
+     * 지우는 동안은 쓰기를 멈추므로, 지운 뒤에 들어온 쓰기가 예전 id 와 겹치지 않는다.
+     */
     public void clearStore() {
-        store.clear();
+        whileWritesPaused(() -> {
+            State state = this.state;
+            state.stocks.clear();
+            state.nameOwners.clear();
+            state.store.clear();
+            state.nameIndex.clear();
+            state.names.clear();
+            for (ItemChangeListener listener : listeners) {
+                listener.storeCleared();
+            }
+            sequence.set(0);
+        });
+    }
+
+    /**
+     * id 별 잠금을 모두(항상 같은 순서로) 잡고 action 을 실행한다. 쓰기는 잠금 하나만 잡으므로 서로 막히지 않는다.
+     */
+    private void whileWritesPaused(Runnable action) {
+        whileWritesPaused(0, action);
+    }
+
+    private void whileWritesPaused(int stripe, Runnable action) {
+        if (stripe == locks.length) {
+            action.run();
+            return;
+        }
+        synchronized (locks[stripe]) {
+            whileWritesPaused(stripe + 1, action);
+        }
+    }
+
+    private static Item findById(State state, Long id) {
+        ItemRecord record = state.store.get(id);
+        return record == null ? null : toItem(state, record);
+    }
+
+    private static Item toItem(State state, ItemRecord record) {
+        Item item = record.toItem(state.names);
+        // 읽는 사이 이름이 바뀌어 예전 이름이 지워졌으면 지금 레코드로 다시 읽는다.
+        while (item.getItemName() == null && record.nameHandle != ItemNameArena.NULL_HANDLE) {
+            ItemRecord current = state.store.get(record.id);
+            if (current == null) {
+                break;
+            }
+            record = current;
+            item = record.toItem(state.names);
+        }
+        ItemStock stock = state.stocks.get(record.id);
+        if (stock != null) {
+            item.setQuantity(stock.available());
+        }
+        return item;
+    }
+
+    private ItemStock stock(State state, long id) {
+        ItemStock stock = state.stocks.get(id);
+        if (stock != null) {
+            return stock;
+        }
+        synchronized (lock(id)) {
+            stock = state.stocks.get(id);
+            if (stock == null) {
+                ItemRecord record = state.store.get(id);
+                if (record == null || record.quantity == null) {
+                    return null;
+                }
+                stock = new ItemStock(record.quantity);
+                state.stocks.put(id, stock);
+            }
+            return stock;
+        }
+    }
+
+    /**
+     * 수정으로 수량이 seen 에서 quantity 로 바뀌면 재고에는 바뀐 만큼만 더한다. (잠금 안에서 호출)
+     * 예약은 잠그지 않으므로 seen 을 읽은 뒤에도 재고가 줄 수 있다. quantity 로 덮으면 그 예약이 없던 일이 되어
+     * 초과 판매가 되므로, 차이만 CAS 로 반영하고 예약 수량은 그대로 둔다.
+     *
+     * @return 저장할 수량 (재고를 따로 세고 있으면 반영한 뒤의 남은 재고)
+     */
+    private static Integer adjustStock(State state, long id, Integer seen, Integer quantity) {
+        ItemStock stock = state.stocks.get(id);
+        if (stock == null) {
+            return quantity;
+        }
+        if (quantity == null) {
+            // 수량을 비우면 재고도 따로 세지 않는다. 예약이 남아 있으면 없앨 수 없으므로 남은 재고만 0 으로 한다.
+            if (stock.reserved() == 0) {
+                state.stocks.remove(id);
+                return null;
+            }
+            return stock.adjust(-(long) stock.available());
+        }
+        return stock.adjust((long) quantity - (seen == null ? 0 : seen));
     }
 
+    /**
+     * 예약 결과를 레코드에 기록하고 리스너에 알린다.
+     * 이미 다른 스레드가 기록하려고 기다리는 중이면, 그 스레드가 이 예약까지 함께 기록하므로 바로 돌아간다.
+     */
+    private void syncStock(State state, long id, ItemStock stock) {
+        if (!stock.dirty.compareAndSet(false, true)) {
+            return;
+        }
+        synchronized (lock(id)) {
+            stock.dirty.set(false);
+            // 저장소가 통째로 바뀌었으면 예전 상품의 예약이므로 기록하지 않는다.
+            if (state != this.state) {
+                return;
+            }
+            ItemRecord current = state.store.get(id);
+            if (current == null || state.stocks.get(id) != stock) {
+                return;
+            }
+            ItemRecord record = new ItemRecord(id, current.nameHandle, current.price, stock.available());
+            state.store.put(record);
+            if (!listeners.isEmpty()) {
+                notifyChanged(id, record.toItem(state.names));
+            }
+        }
+        afterChanged();
+    }
+
+    /**
+     * 대소문자, 앞뒤 공백, 전각/반각 차이를 없앤 이름. 비어 있으면 null (중복 검사 대상이 아님)
+     */
+    private static String nameKey(String itemName) {
+        if (itemName == null) {
+            return null;
+        }
+        String key = Normalizer.normalize(itemName.strip(), Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        return key.isEmpty() ? null : key;
+    }
+
+    /**
+     * id 가 itemName 을 쓰도록 등록한다. 이미 다른 상품이 쓰고 있으면 false
+     */
+    private static boolean tryClaimName(State state, String itemName, long id) {
+        String key = nameKey(itemName);
+        if (key == null) {
+            return true;
+        }
+        Long owner = state.nameOwners.putIfAbsent(key, id);
+        return owner == null || owner == id;
+    }
+
+    private static void claimName(State state, String itemName, long id) {
+        if (!tryClaimName(state, itemName, id)) {
+            throw new DuplicateItemNameException(itemName);
+        }
+    }
+
+    /**
+     * 이름을 바꾼 뒤 예전 이름을 놓는다. (정규화한 이름이 그대로면 유지)
+     */
+    private static void releaseName(State state, String previousName, String currentKey, long id) {
+        String previousKey = nameKey(previousName);
+        if (previousKey != null && !Objects.equals(previousKey, currentKey)) {
+            state.nameOwners.remove(previousKey, id);
+        }
+    }
+
+    private Object lock(long id) {
+        return locks[(int) (id & (locks.length - 1))];
+    }
+
+    private void notifyChanged(long id, Item item) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        Item snapshot = new Item(item.getItemName(), item.getPrice(), item.getQuantity());
+        snapshot.setId(id);
+        for (ItemChangeListener listener : listeners) {
+            listener.itemChanged(snapshot);
+        }
+    }
+
+    /**
+     * 잠금 밖에서 호출한다. 리스너가 기다리는 동안 같은 상품의 다른 요청은 막히지 않는다.
+     */
+    private void afterChanged() {
+        for (ItemChangeListener listener : listeners) {
+            listener.afterChanged();
+        }
+    }
+
+    private static final class State {
+
+        private final ItemRecordStore store;
+        private final ItemNameArena names = new ItemNameArena();
+        private final ItemNameIndex nameIndex = new ItemNameIndex();
+        // 예약이 한 번이라도 들어온 상품의 재고. 있으면 레코드의 quantity 대신 이 값을 쓴다.
+        private final ConcurrentHashMap<Long, ItemStock> stocks = new ConcurrentHashMap<>();
+        // 정규화한 상품명 -> 그 이름을 가진 상품 id. 같은 이름의 상품은 하나만 저장된다.
+        private final ConcurrentHashMap<String, Long> nameOwners = new ConcurrentHashMap<>();
+
+        State(ItemRecordStore store) {
+            this.store = store;
+        }
+    }
 }
@@ -0,0 +1,101 @@
+package hello.itemservicev4.domain.item;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 상품 하나의 남은 재고와 예약된 수량
+ * <p>
+ * 두 값을 long 하나에 (예약 수량 << 32 | 남은 재고) 로 담아 CAS 한 번으로 함께 바꾼다.
+ * 예약은 남은 재고에서 예약 수량으로, 반환은 예약 수량에서 남은 재고로 옮기기만 하므로
+ * 둘의 합은 수정으로 더하고 뺀 재고를 넘지 않는다. (초과 판매도, 예약하지 않은 재고의 반환도 없다)
+ * 수정은 남은 재고에 바뀐 만큼만 더하고({@link #adjust}) 예약 수량은 건드리지 않는다.
+ */
+final class ItemStock {
+
+    private static final long MASK = 0xFFFFFFFFL;
+
+    private final AtomicLong state;
+
+    // 저장소에 아직 반영하지 않은 예약이 있으면 true
+    final AtomicBoolean dirty = new AtomicBoolean();
+
+    ItemStock(int initial) {
+        this.state = new AtomicLong(Math.max(0, initial));
+    }
+
+    /**
+     * 남은 재고에서 quantity 만큼 예약한다.
+     *
+     * @return 예약했으면 true, 남은 재고가 모자라면 false (아무것도 바꾸지 않는다)
+     */
+    boolean reserve(int quantity) {
+        if (quantity <= 0) {
+            return quantity == 0;
+        }
+        while (true) {
+            long current = state.get();
+            if (available(current) < quantity) {
+                return false;
+            }
+            if (state.compareAndSet(current, current + ((long) quantity << 32) - quantity)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 예약했던 quantity 만큼을 남은 재고로 되돌린다.
+     *
+     * @return 되돌렸으면 true, 예약된 수량보다 많으면 false (아무것도 바꾸지 않는다)
+     */
+    boolean release(int quantity) {
+        if (quantity <= 0) {
+            return quantity == 0;
+        }
+        while (true) {
+            long current = state.get();
+            if (reserved(current) < quantity) {
+                return false;
+            }
+            if (state.compareAndSet(current, current - ((long) quantity << 32) + quantity)) {
+                return true;
+            }
+        }
+    }
+
+    int available() {
+        return available(state.get());
+    }
+
+    int reserved() {
+        return reserved(state.get());
+    }
+
+    /**
+     * 남은 재고에 delta 를 더한다. 예약 수량은 그대로 두므로 예약한 재고는 계속 되돌릴 수 있다.
+     * 남은 재고보다 많이 빼면 0 까지만 뺀다. (이미 예약된 재고는 수정으로 없앨 수 없다)
+     *
+     * @return 바꾼 뒤의 남은 재고
+     */
+    int adjust(long delta) {
+        while (true) {
+            long current = state.get();
+            int available = available(current);
+            // 남은 재고와 예약 수량의 합이 int 를 넘지 않게 한다.
+            long limit = Integer.MAX_VALUE - (long) reserved(current);
+            int next = (int) Math.max(0, Math.min(limit, available + delta));
+            if (state.compareAndSet(current, current - available + next)) {
+                return next;
+            }
+        }
+    }
+
+    private static int available(long state) {
+        return (int) (state & MASK);
+    }
+
+    private static int reserved(long state) {
+        return (int) (state >>> 32);
+    }
+}
@@ -0,0 +1,38 @@
+package hello.itemservicev4.domain.item;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * item.store.mode=heap   : 모든 상품을 힙에 보관 (기본)
+ * item.store.mode=tiered : item.store.hot-capacity 개만 힙에 보관하고 나머지는 item.store.file 에 기록
+ * <p>
+ * item.store.file 은 임시 파일이다. 시작할 때 내용을 비우고 종료할 때 지우므로 다른 용도의 파일을 지정하면 안 된다.
+ * (지정하지 않으면 임시 디렉터리에 새로 만든다.)
+ */
+@Slf4j
+@Configuration
+public class ItemStoreConfig {
+
+    @Bean
+    ItemRecordStore itemRecordStore(@Value("${item.store.mode:heap}") String mode,
+                                    @Value("${item.store.hot-capacity:100000}") int hotCapacity,
+                                    @Value("${item.store.file:}") String file) throws IOException {
+        if (!"tiered".equals(mode)) {
+            return new HeapItemRecordStore();
+        }
+        Path path = StringUtils.hasText(file) ? Path.of(file) : Files.createTempFile("items", ".dat");
+        if (StringUtils.hasText(file) && Files.isRegularFile(path) && Files.size(path) > 0) {
+            log.warn("item.store.file {} is not empty, its {} bytes will be discarded", path, Files.size(path));
+        }
+        log.info("tiered item store hotCapacity={} file={}", hotCapacity, path);
+        return new TieredItemRecordStore(path, hotCapacity);
+    }
+}
@@ -0,0 +1,22 @@
+package hello.itemservicev4.domain.item;
+
+/**
+ * {@link ItemRepository#reserve} / {@link ItemRepository#release} 결과
+ *
+ * @param status    처리 결과
+ * @param available 처리 후 남은 재고 (NOT_FOUND 면 0)
+ */
+public record StockResult(Status status, long available) {
+
+    public enum Status {
+        OK,
+        // 재고가 모자라 예약하지 않음
+        INSUFFICIENT,
+        // 예약된 수량보다 많이 되돌리려 함
+        NOT_RESERVED,
+        // 상품이 없거나 수량이 정해지지 않은 상품
+        NOT_FOUND
+    }
+
+    static final StockResult NOT_FOUND = new StockResult(Status.NOT_FOUND, 0);
+}
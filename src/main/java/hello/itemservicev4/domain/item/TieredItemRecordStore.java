@@ -0,0 +1,257 @@
+package hello.itemservicev4.domain.item;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 자주 조회되는 상품만 힙(hot)에 두고, 전체 상품은 memory-mapped 파일(cold)에 기록한다.
+ * 힙에 없는 상품은 조회할 때 파일에서 읽어 다시 올린다.
+ * <p>
+ * 레코드는 id 순서대로 고정 크기(32 byte)로 저장한다.
+ * [id(8)][nameHandle(8)][price(4)][quantity(4)][flags(1)][padding(7)]
+ * <p>
+ * 파일은 힙을 대신하는 임시 공간이다. nameHandle 은 실행 중인 arena 에서만 의미가 있으므로
+ * 열 때 내용을 비우고(TRUNCATE_EXISTING), 닫을 때 지운다. 다시 시작해도 예전 상품을 불러오지 않는다.
+ */
+class TieredItemRecordStore implements ItemRecordStore {
+
+    static final int RECORD_SIZE = 32;
+    private static final int SEGMENT_RECORDS = 1 << 20; // 세그먼트당 32MB
+
+    private static final byte PRESENT = 1;
+    private static final byte PRICE_NULL = 1 << 1;
+    private static final byte QUANTITY_NULL = 1 << 2;
+
+    private final Path path;
+    private final FileChannel channel;
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+
+    private final int hotCapacity;
+    private final WindowTinyLfuCache hot;
+    private final AtomicLong maxId = new AtomicLong();
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    TieredItemRecordStore(Path path, int hotCapacity) {
+        try {
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.hotCapacity = hotCapacity;
+        this.hot = new WindowTinyLfuCache(hotCapacity);
+    }
+
+    @Override
+    public ItemRecord get(long id) {
+        ItemRecord record = hot.get(id);
+        if (record != null) {
+            hits.increment();
+            return record;
+        }
+        misses.increment();
+        // 파일에서 읽어 올리는 사이 put 된 새 레코드를 예전 것으로 덮지 않도록 캐시 잠금 안에서 읽는다.
+        return hot.getOrLoad(id, this::read);
+    }
+
+    @Override
+    public void put(ItemRecord record) {
+        write(record);
+        hot.put(record);
+    }
+
+    @Override
+    public List<ItemRecord> values() {
+        List<ItemRecord> records = new ArrayList<>(size.get());
+        long last = maxId.get();
+        for (long id = 1; id <= last; id++) {
+            ItemRecord record = read(id);
+            if (record != null) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * 파일을 id 순서로 읽는다. hot 캐시는 건드리지 않는다.
+     */
+    @Override
+    public Iterator<ItemRecord> iterator() {
+        long last = maxId.get();
+        return new Iterator<>() {
+            private long id = 0;
+            private ItemRecord next = advance();
+
+            private ItemRecord advance() {
+                while (id < last) {
+                    ItemRecord record = read(++id);
+                    if (record != null) {
+                        return record;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public ItemRecord next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                ItemRecord record = next;
+                next = advance();
+                return record;
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public synchronized void clear() {
+        hot.clear();
+        try {
+            segments = new MappedByteBuffer[0];
+            channel.truncate(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        maxId.set(0);
+        size.set(0);
+    }
+
+    /**
+     * 같은 디렉터리에 새 임시 파일을 만든다.
+     */
+    @Override
+    public ItemRecordStore createEmpty() {
+        try {
+            Path directory = path.toAbsolutePath().getParent();
+            return new TieredItemRecordStore(Files.createTempFile(directory, "items", ".dat"), hotCapacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 파일을 닫고 지운다. 이미 매핑한 세그먼트는 GC 될 때까지 남으므로, 닫기 전에 읽기 시작한 요청은 그대로 읽는다.
+     */
+    @Override
+    public void close() {
+        try {
+            channel.close();
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    long hitCount() {
+        return hits.sum();
+    }
+
+    long missCount() {
+        return misses.sum();
+    }
+
+    private ItemRecord read(long id) {
+        if (id < 1 || id > maxId.get()) {
+            return null;
+        }
+        MappedByteBuffer segment = segments[segmentIndex(id)];
+        int offset = segmentOffset(id);
+        synchronized (segment) {
+            byte flags = segment.get(offset + 24);
+            if ((flags & PRESENT) == 0) {
+                return null;
+            }
+            long nameHandle = segment.getLong(offset + 8);
+            Integer price = (flags & PRICE_NULL) != 0 ? null : segment.getInt(offset + 16);
+            Integer quantity = (flags & QUANTITY_NULL) != 0 ? null : segment.getInt(offset + 20);
+            return new ItemRecord(id, nameHandle, price, quantity);
+        }
+    }
+
+    private void write(ItemRecord record) {
+        MappedByteBuffer segment = segment(record.id);
+        int offset = segmentOffset(record.id);
+        byte flags = PRESENT;
+        if (record.price == null) {
+            flags |= PRICE_NULL;
+        }
+        if (record.quantity == null) {
+            flags |= QUANTITY_NULL;
+        }
+        synchronized (segment) {
+            if ((segment.get(offset + 24) & PRESENT) == 0) {
+                size.incrementAndGet();
+            }
+            segment.putLong(offset, record.id);
+            segment.putLong(offset + 8, record.nameHandle);
+            segment.putInt(offset + 16, record.price == null ? 0 : record.price);
+            segment.putInt(offset + 20, record.quantity == null ? 0 : record.quantity);
+            segment.put(offset + 24, flags);
+        }
+        maxId.accumulateAndGet(record.id, Math::max);
+    }
+
+    private MappedByteBuffer segment(long id) {
+        int index = segmentIndex(id);
+        MappedByteBuffer[] current = segments;
+        if (index < current.length) {
+            return current[index];
+        }
+        return grow(index);
+    }
+
+    private synchronized MappedByteBuffer grow(int index) {
+        MappedByteBuffer[] current = segments;
+        if (index < current.length) {
+            return current[index];
+        }
+        MappedByteBuffer[] grown = Arrays.copyOf(current, index + 1);
+        try {
+            for (int i = current.length; i <= index; i++) {
+                long position = (long) i * SEGMENT_RECORDS * RECORD_SIZE;
+                grown[i] = channel.map(FileChannel.MapMode.READ_WRITE, position, (long) SEGMENT_RECORDS * RECORD_SIZE);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        segments = grown;
+        return grown[index];
+    }
+
+    private static int segmentIndex(long id) {
+        return (int) ((id - 1) / SEGMENT_RECORDS);
+    }
+
+    private static int segmentOffset(long id) {
+        return (int) ((id - 1) % SEGMENT_RECORDS) * RECORD_SIZE;
+    }
+}
@@ -1,4 +1,13 @@
 package hello.itemservicev4.domain.item;
 
+import jakarta.validation.GroupSequence;
+
 public interface UpdateCheck {
+
+    /**
+     * 수정 검증을 단계 순서대로 하고, 실패한 단계에서 멈춘다.
+     */
+    @GroupSequence({CheckTier.Presence.class, CheckTier.Range.class, CheckTier.CrossField.class, UpdateCheck.class})
+    interface FailFast {
+    }
 }
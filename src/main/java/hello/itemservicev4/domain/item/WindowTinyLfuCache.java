@@ -0,0 +1,191 @@
+package hello.itemservicev4.domain.item;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongFunction;
+
+/**
+ * W-TinyLFU 방식의 크기 제한 캐시
+ * 새 항목은 작은 window(LRU) 에 먼저 들어가고, window 에서 밀려날 때
+ * main(LRU) 의 희생 후보보다 접근 빈도가 높을 때만 main 에 들어간다.
+ * <p>
+ * 조회는 잠그지 않는다. 레코드는 ConcurrentHashMap 에서 바로 읽고, 접근 기록(빈도, LRU 순서)은
+ * 스레드별로 나눈 read buffer 에 id 만 넣어 둔다. buffer 가 차면 잠금을 잡은 스레드 하나가 모아서 반영한다.
+ * 넣기, 지우기는 잠금 안에서 먼저 buffer 를 비운 뒤 처리하므로 밀어낼 때는 그때까지의 접근이 모두 반영되어 있다.
+ * buffer 가 가득 차 있으면 접근 기록은 버린다. 빈도는 근사값이므로 조금 잃어도 된다.
+ */
+final class WindowTinyLfuCache {
+
+    private static final int READ_BUFFERS = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 4 - 1)) << 1;
+    private static final int READ_BUFFER_SIZE = 16; // 2의 제곱수
+
+    private final int windowCapacity;
+    private final int mainCapacity;
+    private final ConcurrentHashMap<Long, ItemRecord> records = new ConcurrentHashMap<>();
+    // 이하는 잠금 안에서만 사용한다. (값은 쓰지 않고 LRU 순서만 본다.)
+    private final LinkedHashMap<Long, Boolean> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<Long, Boolean> main = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+
+    private final ReadBuffer[] readBuffers = new ReadBuffer[READ_BUFFERS];
+    // buffer 를 비우려고 잠금을 기다리는 조회 스레드는 하나뿐이다.
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    WindowTinyLfuCache(int capacity) {
+        this.windowCapacity = Math.max(1, capacity / 100);
+        this.mainCapacity = Math.max(1, capacity - windowCapacity);
+        this.sketch = new FrequencySketch(capacity);
+        for (int i = 0; i < readBuffers.length; i++) {
+            readBuffers[i] = new ReadBuffer();
+        }
+    }
+
+    ItemRecord get(long id) {
+        ItemRecord record = records.get(id);
+        if (readBuffers[stripe()].offer(id) && draining.compareAndSet(false, true)) {
+            try {
+                synchronized (this) {
+                    drainReadBuffers();
+                }
+            } finally {
+                draining.set(false);
+            }
+        }
+        return record;
+    }
+
+    /**
+     * 없으면 loader 로 읽어 넣는다. 읽기와 넣기를 같은 잠금 안에서 하므로,
+     * 그 사이 {@link #put} 된 새 레코드를 먼저 읽어 둔 예전 레코드로 덮지 않는다.
+     */
+    synchronized ItemRecord getOrLoad(long id, LongFunction<ItemRecord> loader) {
+        ItemRecord record = records.get(id);
+        if (record == null) {
+            record = loader.apply(id);
+            if (record != null) {
+                put(record);
+            }
+        }
+        return record;
+    }
+
+    synchronized void put(ItemRecord record) {
+        drainReadBuffers();
+        Long id = record.id;
+        records.put(id, record);
+        if (main.containsKey(id)) {
+            main.get(id);
+            return;
+        }
+        window.put(id, Boolean.TRUE);
+        if (window.size() > windowCapacity) {
+            evictFromWindow();
+        }
+    }
+
+    int size() {
+        return records.size();
+    }
+
+    synchronized void clear() {
+        drainReadBuffers();
+        window.clear();
+        main.clear();
+        records.clear();
+    }
+
+    /**
+     * 모아 둔 접근을 빈도와 LRU 순서에 반영한다. 잠금 안에서 호출한다.
+     */
+    private void drainReadBuffers() {
+        for (ReadBuffer buffer : readBuffers) {
+            buffer.drain(this);
+        }
+    }
+
+    private void recordAccess(long id) {
+        sketch.increment(id);
+        Long key = id;
+        if (window.get(key) == null) {
+            main.get(key);
+        }
+    }
+
+    private void evictFromWindow() {
+        Iterator<Map.Entry<Long, Boolean>> windowIterator = window.entrySet().iterator();
+        Long candidate = windowIterator.next().getKey();
+        windowIterator.remove();
+
+        if (main.size() < mainCapacity) {
+            main.put(candidate, Boolean.TRUE);
+            return;
+        }
+
+        // 빈도가 더 높은 쪽을 남긴다.
+        Iterator<Map.Entry<Long, Boolean>> mainIterator = main.entrySet().iterator();
+        Long victim = mainIterator.next().getKey();
+        if (sketch.frequency(candidate) > sketch.frequency(victim)) {
+            mainIterator.remove();
+            records.remove(victim);
+            main.put(candidate, Boolean.TRUE);
+        } else {
+            records.remove(candidate);
+        }
+    }
+
+    private static int stripe() {
+        int h = Thread.currentThread().hashCode();
+        return (h ^ (h >>> 16)) & (READ_BUFFERS - 1);
+    }
+
+    /**
+     * 조회한 id 를 모아 두는 고리 버퍼. 여러 스레드가 넣고, 잠금을 잡은 스레드 하나가 꺼낸다.
+     * 칸의 0 은 아직 쓰지 않은 칸이다. (id 는 1 부터)
+     */
+    private static final class ReadBuffer {
+
+        private final AtomicLongArray ids = new AtomicLongArray(READ_BUFFER_SIZE);
+        private final AtomicLong writes = new AtomicLong();
+        private volatile long reads;
+
+        /**
+         * @return buffer 가 찼으면 true (비워야 한다)
+         */
+        boolean offer(long id) {
+            if (id < 1) {
+                return false;
+            }
+            long tail = writes.get();
+            if (tail - reads >= READ_BUFFER_SIZE) {
+                return true;
+            }
+            if (writes.compareAndSet(tail, tail + 1)) {
+                ids.lazySet((int) (tail & (READ_BUFFER_SIZE - 1)), id);
+                return tail + 1 - reads >= READ_BUFFER_SIZE;
+            }
+            // 다른 스레드와 겹치면 이번 접근은 기록하지 않는다.
+            return false;
+        }
+
+        void drain(WindowTinyLfuCache cache) {
+            long head = reads;
+            long tail = writes.get();
+            for (; head < tail; head++) {
+                int index = (int) (head & (READ_BUFFER_SIZE - 1));
+                long id = ids.get(index);
+                if (id == 0) {
+                    // 자리는 받았지만 아직 쓰지 않은 칸. 다음에 비울 때 읽는다.
+                    break;
+                }
+                ids.lazySet(index, 0);
+                cache.recordAccess(id);
+            }
+            reads = head;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package hello.itemservicev4.domain.item.jdbc;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 아직 기록하지 않은 변경을 id 별로 하나만 남겨 두는 큐
+ * <p>
+ * 같은 id 가 다시 들어오면 마지막 값으로 덮어쓰고 순서는 처음 들어온 자리를 유지한다.
+ * 넣기({@link #put})는 기다리지 않는다. 넣는 쪽은 잠금을 놓은 뒤 {@link #awaitCapacity} 로
+ * 기록 스레드가 capacity 아래로 비울 때까지 기다린다. (동시에 넣는 스레드 수만큼 capacity 를 넘을 수 있다)
+ */
+class CoalescingWriteQueue<V> {
+
+    private final int capacity;
+    private final LinkedHashMap<Long, V> pending = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    CoalescingWriteQueue(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    void put(long id, V value) {
+        lock.lock();
+        try {
+            pending.put(id, value);
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 남은 값이 capacity 이하가 될 때까지 기다린다.
+     *
+     * @return 기다리지 않았으면 true
+     */
+    boolean awaitCapacity() throws InterruptedException {
+        lock.lock();
+        try {
+            boolean waited = false;
+            while (pending.size() > capacity) {
+                waited = true;
+                notFull.await();
+            }
+            return !waited;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 기록에 실패한 값을 되돌린다. 그 사이 더 새로운 값이 들어왔으면 그 값을 남긴다.
+     */
+    void putBackIfAbsent(long id, V value) {
+        lock.lock();
+        try {
+            pending.putIfAbsent(id, value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 값이 들어올 때까지 timeout 만큼 기다린다.
+     *
+     * @return 값이 있으면 true
+     */
+    boolean awaitNotEmpty(long timeout, TimeUnit unit) throws InterruptedException {
+        lock.lock();
+        try {
+            long nanos = unit.toNanos(timeout);
+            while (pending.isEmpty() && nanos > 0) {
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return !pending.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 먼저 들어온 순서로 최대 max 개를 꺼낸다. 기다리지 않는다.
+     */
+    int drainTo(List<Long> ids, List<V> values, int max) {
+        lock.lock();
+        try {
+            int count = 0;
+            Iterator<Map.Entry<Long, V>> iterator = pending.entrySet().iterator();
+            while (count < max && iterator.hasNext()) {
+                Map.Entry<Long, V> entry = iterator.next();
+                ids.add(entry.getKey());
+                values.add(entry.getValue());
+                iterator.remove();
+                count++;
+            }
+            if (count > 0) {
+                notFull.signalAll();
+            }
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 남은 값을 모두 버린다.
+     */
+    void clear() {
+        lock.lock();
+        try {
+            pending.clear();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package hello.itemservicev4.domain.item.jdbc;
+
+import hello.itemservicev4.domain.item.Item;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * item 테이블 접근 (H2 문법)
+ */
+class JdbcItemDao {
+
+    private static final String CREATE_TABLE = "create table if not exists item ("
+            + "id bigint primary key, item_name varchar(255), price int, quantity int)";
+    private static final String MERGE = "merge into item (id, item_name, price, quantity) key (id) values (?, ?, ?, ?)";
+    private static final String TRUNCATE = "truncate table item";
+    private static final String SELECT_ALL = "select id, item_name, price, quantity from item order by id";
+
+    private static final int FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    JdbcItemDao(DataSource dataSource) {
+        this(new JdbcTemplate(dataSource));
+    }
+
+    JdbcItemDao(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    void createTable() {
+        jdbcTemplate.execute(CREATE_TABLE);
+    }
+
+    void deleteAll() {
+        jdbcTemplate.execute(TRUNCATE);
+    }
+
+    /**
+     * 있으면 수정, 없으면 추가를 한 번의 batch 로 실행한다.
+     */
+    void mergeAll(List<Item> items) {
+        jdbcTemplate.batchUpdate(MERGE, items, items.size(), (ps, item) -> {
+            ps.setLong(1, item.getId());
+            ps.setString(2, item.getItemName());
+            ps.setObject(3, item.getPrice());
+            ps.setObject(4, item.getQuantity());
+        });
+    }
+
+    /**
+     * 모든 상품을 id 순으로 읽는다. 결과를 한 번에 메모리에 올리지 않고 한 행씩 넘긴다.
+     */
+    long loadAll(Consumer<Item> consumer) {
+        long[] count = new long[1];
+        jdbcTemplate.query(SELECT_ALL, rs -> {
+            Item item = new Item(rs.getString("item_name"), rs.getObject("price", Integer.class), rs.getObject("quantity", Integer.class));
+            item.setId(rs.getLong("id"));
+            consumer.accept(item);
+            count[0]++;
+        });
+        return count[0];
+    }
+}
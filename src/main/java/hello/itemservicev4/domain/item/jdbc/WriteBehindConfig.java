@@ -0,0 +1,25 @@
+package hello.itemservicev4.domain.item.jdbc;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * item.write-behind.enabled=true 면 상품을 spring.datasource 의 item 테이블에 write-behind 로 기록하고,
+ * 기동할 때 테이블의 상품을 저장소에 다시 올린다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "item.write-behind.enabled", havingValue = "true")
+public class WriteBehindConfig {
+
+    @Bean
+    WriteBehindItemWriter writeBehindItemWriter(DataSource dataSource,
+                                                @Value("${item.write-behind.batch-size:500}") int batchSize,
+                                                @Value("${item.write-behind.max-pending:10000}") int maxPending,
+                                                @Value("${item.write-behind.flush-interval-ms:100}") long flushIntervalMillis) {
+        return new WriteBehindItemWriter(new JdbcItemDao(dataSource), batchSize, maxPending, flushIntervalMillis);
+    }
+}
@@ -0,0 +1,188 @@
+package hello.itemservicev4.domain.item.jdbc;
+
+import hello.itemservicev4.domain.item.Item;
+import hello.itemservicev4.domain.item.ItemChangeListener;
+import hello.itemservicev4.domain.item.ItemRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 저장소의 변경을 요청 스레드에서 DB 에 쓰지 않고, 별도 스레드가 모아서 JDBC batch 로 기록한다. (write-behind)
+ * <p>
+ * 같은 상품의 변경이 기록 전에 여러 번 오면 마지막 값만 기록한다.
+ * 기록하지 못한 상품이 maxPending 개를 넘으면 변경한 요청은 상품 잠금을 놓은 뒤({@link #afterChanged}) 자리가 날 때까지 기다린다.
+ * 기록에 실패하면 변경을 다시 큐에 넣고 잠시 뒤 재시도한다.
+ * 저장소를 비우면 큐에 남은 변경을 버리고 테이블도 비운다. id 를 1 부터 다시 쓰므로 예전 행이 남으면 새 상품과 섞인다.
+ * <p>
+ * DB 에 쓰는 스레드는 항상 기록 스레드 하나다. 닫을 때 남은 변경도 기록 스레드가 마저 기록한다.
+ */
+@Slf4j
+public class WriteBehindItemWriter implements ItemChangeListener {
+
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    private final JdbcItemDao dao;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final CoalescingWriteQueue<Item> queue;
+    // 꺼내서 기록하는 동안 잡는다. 테이블을 비우는 것과 섞이지 않게 한다.
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    WriteBehindItemWriter(JdbcItemDao dao, int batchSize, int maxPending, long flushIntervalMillis) {
+        this.dao = dao;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.queue = new CoalescingWriteQueue<>(maxPending);
+        this.writer = new Thread(this::run, "item-write-behind");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * DB 의 상품을 저장소에 올리고 기록 스레드를 시작한다.
+     */
+    @Override
+    public void attach(ItemRepository repository) {
+        dao.createTable();
+        long start = System.nanoTime();
+        long count = dao.loadAll(repository::restore);
+        log.info("loaded {} items in {}ms", count, (System.nanoTime() - start) / 1_000_000);
+        writer.start();
+    }
+
+    @Override
+    public void itemChanged(Item item) {
+        queue.put(item.getId(), item);
+    }
+
+    @Override
+    public void afterChanged() {
+        try {
+            if (!queue.awaitCapacity()) {
+                long count = throttled.incrementAndGet();
+                if ((count & (count - 1)) == 0) {
+                    log.warn("write-behind queue full, request waited for the writer (throttled={})", count);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for write-behind queue", e);
+        }
+    }
+
+    @Override
+    public void storeCleared() {
+        writeLock.lock();
+        try {
+            queue.clear();
+            dao.deleteAll();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 남은 변경을 모두 기록하고 기록 스레드를 멈춘다.
+     */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        // 기록 스레드는 다음 대기에서 빠져나오면 남은 변경을 기록하고 끝난다.
+        running = false;
+        writer.join(flushIntervalMillis + RETRY_DELAY_MILLIS + TimeUnit.SECONDS.toMillis(10));
+        if (writer.isAlive()) {
+            // 두 스레드가 함께 기록하면 같은 상품의 순서가 뒤바뀔 수 있으므로 여기서는 기록하지 않는다.
+            log.error("write-behind writer did not stop in time, {} items may not be written", queue.size());
+        } else {
+            // 기록 스레드를 시작하지 않았거나 인터럽트로 끝났으면 남은 것을 여기서 기록한다.
+            flush();
+        }
+        log.info("write-behind closed written={} batches={} throttled={}", written.get(), batches.get(), throttled.get());
+    }
+
+    /**
+     * 큐에 남은 변경을 지금 스레드에서 모두 기록한다. 기록 스레드가 돌지 않을 때만 호출한다.
+     */
+    void flush() {
+        List<Long> ids = new ArrayList<>(batchSize);
+        List<Item> items = new ArrayList<>(batchSize);
+        while (queue.size() > 0) {
+            if (!drainAndWrite(ids, items)) {
+                log.error("write-behind flush stopped, {} items not written", queue.size());
+                return;
+            }
+        }
+    }
+
+    int pendingCount() {
+        return queue.size();
+    }
+
+    long writtenCount() {
+        return written.get();
+    }
+
+    private void run() {
+        List<Long> ids = new ArrayList<>(batchSize);
+        List<Item> items = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                if (!queue.awaitNotEmpty(flushIntervalMillis, TimeUnit.MILLISECONDS)) {
+                    continue;
+                }
+                if (!drainAndWrite(ids, items)) {
+                    Thread.sleep(RETRY_DELAY_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                // 남은 변경은 close() 에서 기록한다.
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        flush();
+    }
+
+    /**
+     * @return 실패해서 큐에 되돌렸으면 false
+     */
+    private boolean drainAndWrite(List<Long> ids, List<Item> items) {
+        writeLock.lock();
+        try {
+            if (queue.drainTo(ids, items, batchSize) == 0) {
+                return true;
+            }
+            return write(ids, items);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private boolean write(List<Long> ids, List<Item> items) {
+        try {
+            dao.mergeAll(items);
+            written.addAndGet(items.size());
+            batches.incrementAndGet();
+            return true;
+        } catch (RuntimeException e) {
+            log.error("write-behind batch failed, {} items will be retried", items.size(), e);
+            for (int i = 0; i < items.size(); i++) {
+                queue.putBackIfAbsent(ids.get(i), items.get(i));
+            }
+            return false;
+        } finally {
+            ids.clear();
+            items.clear();
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package hello.itemservicev4.domain.item.replication;
+
+import hello.itemservicev4.domain.item.DuplicateItemNameException;
+import hello.itemservicev4.domain.item.Item;
+import hello.itemservicev4.domain.item.ItemChangeListener;
+import hello.itemservicev4.domain.item.ItemRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * replica 쪽. primary 에 접속해 스냅샷과 변경을 받아 저장소에 restore() 로 반영한다.
+ * <p>
+ * 받은 메시지의 primary 시각까지는 반영이 끝난 것이므로, 지금 시각과의 차이가 지연(lag)이다.
+ * primary 시각과 비교하므로 primary 와 시계가 맞아야 한다. (같은 서버에서 띄우면 항상 맞다.)
+ * 연결이 끊기면 잠시 뒤 다시 접속하고, 그 사이 지연은 계속 늘어난다.
+ * <p>
+ * primary 가 새로 떴거나 데이터를 다시 만들어 epoch 가 바뀌면 빈 저장소에 스냅샷을 다 받은 뒤 통째로 바꾼다.
+ * 받는 동안 조회는 예전 상품을 보고, 지연이 늘어나므로 maxLag 를 넘으면 ReplicaRequestFilter 가 거절한다.
+ * <p>
+ * 두 상품이 이름을 주고받으면 primary 에서 이름을 놓기 전에 다른 상품의 변경이 먼저 올 수 있다.
+ * 이름이 겹치는 상품은 미뤄 두었다가 다른 상품의 변경을 반영할 때마다 다시 반영한다.
+ */
+@Slf4j
+public class ReplicaSubscriber implements ItemChangeListener {
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 1000;
+    // heartbeat 가 이만큼 오지 않으면 끊긴 것으로 보고 다시 접속한다.
+    private static final int READ_TIMEOUT_MILLIS = 5000;
+    private static final long MAX_RETRY_DELAY_MILLIS = 2000;
+
+    private final String host;
+    private final int port;
+
+    private final AtomicLong snapshots = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+    private volatile boolean connected;
+    // 스냅샷을 한 번이라도 다 받았으면 true
+    private volatile boolean ready;
+    private volatile Long epoch;
+    private volatile long appliedSequence;
+    private volatile long appliedAsOfMillis;
+
+    private ItemRepository repository;
+    // 이름이 겹쳐 아직 반영하지 못한 상품 (받는 스레드만 사용)
+    private final Map<Long, Item> deferred = new LinkedHashMap<>();
+    private Thread receiver;
+    private volatile Socket socket;
+    private volatile boolean running = true;
+
+    ReplicaSubscriber(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    /**
+     * primary 에 접속해 받기 시작한다.
+     */
+    @Override
+    public void attach(ItemRepository repository) {
+        this.repository = repository;
+        receiver = new Thread(this::run, "replication-receiver");
+        receiver.setDaemon(true);
+        receiver.start();
+    }
+
+    /**
+     * replica 에서는 저장소를 직접 바꾸지 않는다. 바뀌었다면 primary 와 달라진 것이다.
+     */
+    @Override
+    public void itemChanged(Item item) {
+        log.warn("local write on replica is not replicated, item id={}", item.getId());
+    }
+
+    /**
+     * primary 보다 얼마나 늦었는지(ms). 아직 스냅샷을 다 받지 못했으면 -1
+     */
+    public long lagMillis() {
+        if (!ready) {
+            return -1;
+        }
+        return Math.max(0, System.currentTimeMillis() - appliedAsOfMillis);
+    }
+
+    public Status status() {
+        return new Status("replica", host + ":" + port, connected, ready, epoch, appliedSequence, lagMillis(),
+                snapshots.get(), reconnects.get());
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        running = false;
+        closeSocket();
+        if (receiver != null) {
+            receiver.join(CONNECT_TIMEOUT_MILLIS + READ_TIMEOUT_MILLIS);
+        }
+    }
+
+    private void run() {
+        long retryDelay = 100;
+        while (running) {
+            try (Socket socket = new Socket()) {
+                this.socket = socket;
+                socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MILLIS);
+                socket.setTcpNoDelay(true);
+                socket.setSoTimeout(READ_TIMEOUT_MILLIS);
+                connected = true;
+                retryDelay = 100;
+                receive(new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16)));
+            } catch (IOException e) {
+                if (running) {
+                    if (connected) {
+                        log.warn("replication connection to {}:{} lost: {}", host, port, e.toString());
+                    } else {
+                        log.debug("cannot connect to primary {}:{}: {}", host, port, e.toString());
+                    }
+                }
+            } finally {
+                connected = false;
+                socket = null;
+            }
+            if (!running) {
+                return;
+            }
+            reconnects.incrementAndGet();
+            try {
+                Thread.sleep(retryDelay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            retryDelay = Math.min(MAX_RETRY_DELAY_MILLIS, retryDelay * 2);
+        }
+    }
+
+    private void receive(DataInputStream in) throws IOException {
+        if (in.readByte() != ReplicationProtocol.HELLO) {
+            throw new IOException("expected HELLO");
+        }
+        long primaryEpoch = in.readLong();
+        // 같은 epoch 에 다시 접속했으면 지금 저장소에 덮어쓰고, 바뀌었으면 빈 저장소에 받는다.
+        ItemRepository target = repository;
+        if (epoch == null || epoch != primaryEpoch) {
+            target = repository.createEmpty();
+            deferred.clear();
+        }
+        long start = System.nanoTime();
+        long items = 0;
+        try {
+            while (running) {
+                byte type = in.readByte();
+                switch (type) {
+                    case ReplicationProtocol.ITEM -> {
+                        apply(target, ReplicationProtocol.readItem(in));
+                        items++;
+                    }
+                    case ReplicationProtocol.SNAPSHOT_END -> {
+                        if (target != repository) {
+                            repository.replaceWith(target);
+                            target = repository;
+                            epoch = primaryEpoch;
+                        }
+                        appliedSequence = in.readLong();
+                        appliedAsOfMillis = in.readLong();
+                        ready = true;
+                        snapshots.incrementAndGet();
+                        log.info("snapshot applied items={} sequence={} in {}ms",
+                                items, appliedSequence, (System.nanoTime() - start) / 1_000_000);
+                    }
+                    case ReplicationProtocol.CHANGE -> {
+                        long sequence = in.readLong();
+                        long time = in.readLong();
+                        apply(target, ReplicationProtocol.readItem(in));
+                        // 다른 상품의 변경끼리는 순번이 뒤바뀌어 올 수 있다.
+                        appliedSequence = Math.max(appliedSequence, sequence);
+                        appliedAsOfMillis = Math.max(appliedAsOfMillis, time);
+                    }
+                    case ReplicationProtocol.HEARTBEAT -> {
+                        appliedSequence = in.readLong();
+                        appliedAsOfMillis = in.readLong();
+                    }
+                    default -> throw new IOException("unknown message type " + type);
+                }
+            }
+        } finally {
+            // 스냅샷을 다 받기 전에 끊겼으면 받던 것은 버린다.
+            if (target != repository) {
+                target.close();
+            }
+        }
+    }
+
+    private void apply(ItemRepository target, Item item) {
+        if (!tryRestore(target, item)) {
+            deferred.put(item.getId(), item);
+            return;
+        }
+        deferred.remove(item.getId());
+        // 방금 놓인 이름을 기다리던 상품이 있으면 반영한다.
+        Iterator<Item> iterator = deferred.values().iterator();
+        while (iterator.hasNext()) {
+            if (tryRestore(target, iterator.next())) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static boolean tryRestore(ItemRepository target, Item item) {
+        try {
+            target.restore(item);
+            return true;
+        } catch (DuplicateItemNameException e) {
+            return false;
+        }
+    }
+
+    private void closeSocket() {
+        Socket current = socket;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * @param primary         접속할 primary 주소
+     * @param ready           스냅샷을 다 받아 조회를 처리할 수 있는지
+     * @param appliedSequence 반영한 마지막 변경 순번
+     * @param lagMillis       primary 보다 늦은 시간(ms), 준비 전이면 -1
+     * @param reconnects      다시 접속을 시도한 횟수
+     */
+    public record Status(String role, String primary, boolean connected, boolean ready, Long epoch,
+                         long appliedSequence, long lagMillis, long snapshots, long reconnects) {
+    }
+}
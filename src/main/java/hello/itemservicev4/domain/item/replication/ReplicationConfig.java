@@ -0,0 +1,30 @@
+package hello.itemservicev4.domain.item.replication;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * replication.role=primary 면 저장소의 변경을 replication.port 로 내보내고,
+ * replication.role=replica 면 replication.primary-host:replication.port 에서 받아 반영한다. 없으면 복제하지 않는다.
+ */
+@Configuration
+public class ReplicationConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "replication.role", havingValue = "primary")
+    ReplicationPublisher replicationPublisher(@Value("${replication.bind-address:127.0.0.1}") String bindAddress,
+                                              @Value("${replication.port:7070}") int port,
+                                              @Value("${replication.max-pending:10000}") int maxPending,
+                                              @Value("${replication.heartbeat-ms:200}") long heartbeatMillis) {
+        return new ReplicationPublisher(bindAddress, port, maxPending, heartbeatMillis);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "replication.role", havingValue = "replica")
+    ReplicaSubscriber replicaSubscriber(@Value("${replication.primary-host:127.0.0.1}") String host,
+                                        @Value("${replication.port:7070}") int port) {
+        return new ReplicaSubscriber(host, port);
+    }
+}
@@ -0,0 +1,65 @@
+package hello.itemservicev4.domain.item.replication;
+
+import hello.itemservicev4.domain.item.Item;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * primary 가 replica 에 보내는 메시지. 한 연결에서 다음 순서로 흐른다.
+ * <pre>
+ * HELLO(epoch) ITEM* SNAPSHOT_END(sequence, time) (CHANGE(sequence, time, item) | HEARTBEAT(sequence, time))*
+ * </pre>
+ * time 은 primary 의 시각(ms)으로, 그 메시지까지 반영하면 그 시각 이전의 변경은 모두 반영한 것이다.
+ */
+final class ReplicationProtocol {
+
+    static final byte HELLO = 'H';
+    static final byte ITEM = 'I';
+    static final byte SNAPSHOT_END = 'S';
+    static final byte CHANGE = 'C';
+    static final byte HEARTBEAT = 'B';
+
+    private ReplicationProtocol() {
+    }
+
+    static void writeItem(DataOutputStream out, Item item) throws IOException {
+        out.writeLong(item.getId());
+        if (item.getItemName() == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] name = item.getItemName().getBytes(StandardCharsets.UTF_8);
+            out.writeInt(name.length);
+            out.write(name);
+        }
+        writeInteger(out, item.getPrice());
+        writeInteger(out, item.getQuantity());
+    }
+
+    static Item readItem(DataInputStream in) throws IOException {
+        long id = in.readLong();
+        int length = in.readInt();
+        String itemName = null;
+        if (length >= 0) {
+            byte[] name = new byte[length];
+            in.readFully(name);
+            itemName = new String(name, StandardCharsets.UTF_8);
+        }
+        Item item = new Item(itemName, readInteger(in), readInteger(in));
+        item.setId(id);
+        return item;
+    }
+
+    private static void writeInteger(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        out.writeInt(value == null ? 0 : value);
+    }
+
+    private static Integer readInteger(DataInputStream in) throws IOException {
+        boolean present = in.readBoolean();
+        int value = in.readInt();
+        return present ? value : null;
+    }
+}
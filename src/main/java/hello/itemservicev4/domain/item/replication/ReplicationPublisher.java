@@ -0,0 +1,310 @@
+package hello.itemservicev4.domain.item.replication;
+
+import hello.itemservicev4.domain.item.Item;
+import hello.itemservicev4.domain.item.ItemChangeListener;
+import hello.itemservicev4.domain.item.ItemRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * primary 쪽. 저장소의 변경에 순번과 시각을 붙여 접속한 replica 들에게 TCP 로 보낸다.
+ * <p>
+ * replica 가 접속하면 먼저 저장소 전체(스냅샷)를 보내고, 접속한 시점 이후의 변경을 이어서 보낸다.
+ * 변경은 replica 별 큐에 넣기만 하므로 요청 스레드가 replica 를 기다리지 않는다.
+ * 순번은 AtomicLong 으로 붙이고 큐도 잠금 없이 넣으므로 서로 다른 상품의 변경끼리는 잠그지 않는다.
+ * 같은 상품의 변경은 상품 잠금 안에서 호출되므로 순번 순서대로 큐에 들어가지만,
+ * 다른 상품의 변경끼리는 큐에 들어가는 순서가 순번과 다를 수 있다. replica 는 받은 순번 중 가장 큰 값을 반영한 순번으로 본다.
+ * 큐가 maxPending 개를 넘을 만큼 느린 replica 는 연결을 끊는다. 다시 접속하면 스냅샷부터 받는다.
+ * <p>
+ * 데이터를 통째로 다시 만들면({@link ItemRepository#replaceAll}) storeCleared() 로 스냅샷부터 다시 받게 한다.
+ */
+@Slf4j
+public class ReplicationPublisher implements ItemChangeListener {
+
+    private static final int MAX_BATCH = 256;
+
+    private final String bindAddress;
+    private final int port;
+    private final int maxPending;
+    private final long heartbeatMillis;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile long epoch = newEpoch();
+
+    private ItemRepository repository;
+    private ServerSocket serverSocket;
+    private volatile boolean running = true;
+
+    ReplicationPublisher(String bindAddress, int port, int maxPending, long heartbeatMillis) {
+        this.bindAddress = bindAddress;
+        this.port = port;
+        this.maxPending = Math.max(1, maxPending);
+        this.heartbeatMillis = Math.max(10, heartbeatMillis);
+    }
+
+    /**
+     * replica 접속을 받기 시작한다.
+     */
+    @Override
+    public void attach(ItemRepository repository) {
+        this.repository = repository;
+        try {
+            serverSocket = new ServerSocket();
+            serverSocket.bind(new InetSocketAddress(bindAddress, port));
+        } catch (IOException e) {
+            throw new IllegalStateException("cannot listen for replicas on " + bindAddress + ":" + port, e);
+        }
+        Thread acceptor = new Thread(this::accept, "replication-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        log.info("replication primary listening on {}:{}", bindAddress, getPort());
+    }
+
+    /**
+     * 등록 전에 시작한 변경은 등록된 구독자에게 넣지 않을 수 있지만, 저장소에는 이미 반영되어 있으므로
+     * 등록 뒤에 읽는 스냅샷에 들어간다.
+     */
+    @Override
+    public void itemChanged(Item item) {
+        Change change = new Change(sequence.incrementAndGet(), System.currentTimeMillis(), item);
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.offer(change, maxPending)) {
+                drop(subscriber, "replica fell " + maxPending + " changes behind");
+            }
+        }
+    }
+
+    /**
+     * 저장소를 비우면 id 를 다시 쓰므로 replica 도 스냅샷부터 다시 받게 한다.
+     */
+    @Override
+    public void storeCleared() {
+        resync();
+    }
+
+    /**
+     * 모든 replica 의 연결을 끊어 스냅샷부터 다시 받게 한다. epoch 가 바뀌므로 replica 는 기존 상품을 지우고 받는다.
+     */
+    public void resync() {
+        // 등록은 구독자를 넣은 뒤 epoch 를 읽으므로, 여기서 놓친 구독자는 새 epoch 를 받는다.
+        epoch = newEpoch();
+        for (Subscriber subscriber : subscribers) {
+            subscribers.remove(subscriber);
+            subscriber.close();
+        }
+    }
+
+    /**
+     * 실제로 열린 포트 (port 를 0 으로 주면 임의로 정해진다.)
+     */
+    public int getPort() {
+        return serverSocket == null ? port : serverSocket.getLocalPort();
+    }
+
+    public Status status() {
+        return new Status("primary", epoch, sequence.get(), subscribers.size(), dropped.get());
+    }
+
+    @PreDestroy
+    public void close() {
+        running = false;
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException ignored) {
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+        }
+    }
+
+    private void accept() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Subscriber subscriber = new Subscriber(socket);
+                subscribers.add(subscriber);
+                long from = sequence.get();
+                long time = System.currentTimeMillis();
+                long currentEpoch = epoch;
+                Thread sender = new Thread(() -> send(subscriber, currentEpoch, from, time),
+                        "replication-sender-" + socket.getRemoteSocketAddress());
+                sender.setDaemon(true);
+                subscriber.sender = sender;
+                sender.start();
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("replication accept failed", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 스냅샷을 보내고, 그 뒤로는 큐의 변경을 보낸다. 보낼 변경이 없으면 heartbeat 를 보낸다.
+     * 스냅샷을 읽는 동안 바뀐 상품은 큐에 쌓인 변경으로 다시 덮어쓰므로 결국 primary 와 같아진다.
+     */
+    private void send(Subscriber subscriber, long epoch, long from, long time) {
+        log.info("replica connected {} (epoch={}, sequence={})", subscriber.socket.getRemoteSocketAddress(), epoch, from);
+        long start = System.nanoTime();
+        long items = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(subscriber.socket.getOutputStream(), 1 << 16))) {
+            out.writeByte(ReplicationProtocol.HELLO);
+            out.writeLong(epoch);
+            for (Item item : repository.iterateAll()) {
+                out.writeByte(ReplicationProtocol.ITEM);
+                ReplicationProtocol.writeItem(out, item);
+                items++;
+            }
+            out.writeByte(ReplicationProtocol.SNAPSHOT_END);
+            out.writeLong(from);
+            out.writeLong(time);
+            out.flush();
+            log.info("snapshot sent to {} items={} in {}ms",
+                    subscriber.socket.getRemoteSocketAddress(), items, (System.nanoTime() - start) / 1_000_000);
+
+            long sent = from;
+            while (running && !subscriber.closed) {
+                Change change = subscriber.poll(heartbeatMillis);
+                if (change == null) {
+                    // 시각을 먼저 읽고 큐가 비었는지 본다. 그 시각 전에 큐에 들어간 변경은 모두 보낸 것이다.
+                    // (순번을 받고 아직 큐에 넣지 못한 변경은 잠깐 빠질 수 있다.)
+                    long now = System.currentTimeMillis();
+                    if (!subscriber.queue.isEmpty()) {
+                        continue;
+                    }
+                    out.writeByte(ReplicationProtocol.HEARTBEAT);
+                    out.writeLong(sent);
+                    out.writeLong(now);
+                    out.flush();
+                    continue;
+                }
+                int batch = 0;
+                do {
+                    out.writeByte(ReplicationProtocol.CHANGE);
+                    out.writeLong(change.sequence());
+                    out.writeLong(change.time());
+                    ReplicationProtocol.writeItem(out, change.item());
+                    sent = Math.max(sent, change.sequence());
+                } while (++batch < MAX_BATCH && (change = subscriber.poll()) != null);
+                out.flush();
+            }
+        } catch (IOException e) {
+            if (!subscriber.closed) {
+                log.info("replica disconnected {}: {}", subscriber.socket.getRemoteSocketAddress(), e.toString());
+            }
+        } finally {
+            subscribers.remove(subscriber);
+            subscriber.close();
+        }
+    }
+
+    private void drop(Subscriber subscriber, String reason) {
+        if (subscribers.remove(subscriber)) {
+            dropped.incrementAndGet();
+            log.warn("replica dropped {}: {}", subscriber.socket.getRemoteSocketAddress(), reason);
+            subscriber.close();
+        }
+    }
+
+    private static long newEpoch() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+    private record Change(long sequence, long time, Item item) {
+    }
+
+    /**
+     * 큐는 여러 요청 스레드가 잠금 없이 넣고 보내는 스레드 하나가 꺼낸다.
+     * 보내는 스레드가 빈 큐를 기다리며 잠들어 있으면 넣는 쪽이 깨운다.
+     */
+    private static final class Subscriber {
+
+        private final Socket socket;
+        private final ConcurrentLinkedQueue<Change> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pending = new AtomicInteger();
+        private volatile Thread sender;
+        private volatile boolean sleeping;
+        private volatile boolean closed;
+
+        Subscriber(Socket socket) {
+            this.socket = socket;
+        }
+
+        /**
+         * @return 이미 max 개가 밀려 있으면 넣지 않고 false
+         */
+        boolean offer(Change change, int max) {
+            if (pending.incrementAndGet() > max) {
+                pending.decrementAndGet();
+                return false;
+            }
+            queue.offer(change);
+            if (sleeping) {
+                LockSupport.unpark(sender);
+            }
+            return true;
+        }
+
+        Change poll() {
+            Change change = queue.poll();
+            if (change != null) {
+                pending.decrementAndGet();
+            }
+            return change;
+        }
+
+        /**
+         * 큐가 비어 있으면 timeoutMillis 까지 기다린다.
+         */
+        Change poll(long timeoutMillis) {
+            Change change = poll();
+            if (change != null) {
+                return change;
+            }
+            sleeping = true;
+            // 잠들겠다고 알린 뒤 다시 확인해야 그 사이 들어온 변경을 놓치지 않는다.
+            if (queue.isEmpty()) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+            }
+            sleeping = false;
+            return poll();
+        }
+
+        void close() {
+            closed = true;
+            LockSupport.unpark(sender);
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * @param sequence 마지막 변경 순번
+     * @param replicas 접속해 있는 replica 수
+     * @param dropped  느려서 끊은 횟수
+     */
+    public record Status(String role, long epoch, long sequence, int replicas, long dropped) {
+    }
+}
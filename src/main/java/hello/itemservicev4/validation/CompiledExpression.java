@@ -0,0 +1,252 @@
+package hello.itemservicev4.validation;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 정수 비교식을 한 번 파싱해서, 필드 getter 를 직접 호출하는 평가기로 만든다.
+ * <pre>
+ * expression := sum ( '>=' | '>' | '<=' | '<' | '==' | '!=' ) sum
+ * sum        := product ( ('+' | '-') product )*
+ * product    := unary ( ('*' | '/') unary )*
+ * unary      := '-' unary | number | field | '(' sum ')'
+ * </pre>
+ * 계산은 long 으로 하므로 int 필드끼리 곱해도 넘치지 않는다.
+ */
+public final class CompiledExpression {
+
+    private static final Map<String, CompiledExpression> CACHE = new ConcurrentHashMap<>();
+
+    private final Class<?> type;
+    private final String operator;
+    private final Node left;
+    private final Node right;
+    private final Function<Object, Object>[] getters;
+
+    private CompiledExpression(Class<?> type, String operator, Node left, Node right, Function<Object, Object>[] getters) {
+        this.type = type;
+        this.operator = operator;
+        this.left = left;
+        this.right = right;
+        this.getters = getters;
+    }
+
+    public static CompiledExpression compile(String expression, Class<?> type) {
+        return CACHE.computeIfAbsent(type.getName() + ':' + expression, k -> new Parser(expression, type).parse());
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * @return 만족하면 null, 만족하지 않으면 {오른쪽 값, 왼쪽 값}
+     * 검증식에 쓰인 필드가 하나라도 null 이면 판단하지 않고 null 을 반환한다.
+     */
+    public Object[] check(Object target) {
+        long[] values = new long[getters.length];
+        for (int i = 0; i < getters.length; i++) {
+            Object value = getters[i].apply(target);
+            if (value == null) {
+                return null;
+            }
+            values[i] = ((Number) value).longValue();
+        }
+
+        long l = left.eval(values);
+        long r = right.eval(values);
+        boolean valid = switch (operator) {
+            case ">=" -> l >= r;
+            case ">" -> l > r;
+            case "<=" -> l <= r;
+            case "<" -> l < r;
+            case "==" -> l == r;
+            default -> l != r;
+        };
+        return valid ? null : new Object[]{narrow(r), narrow(l)};
+    }
+
+    private static Object narrow(long value) {
+        return value == (int) value ? (Object) (int) value : (Object) value;
+    }
+
+    @FunctionalInterface
+    private interface Node {
+        long eval(long[] values);
+    }
+
+    private static final class Parser {
+
+        private final String source;
+        private final Class<?> type;
+        private final List<String> fields = new ArrayList<>();
+        private int pos;
+
+        Parser(String source, Class<?> type) {
+            this.source = source;
+            this.type = type;
+        }
+
+        CompiledExpression parse() {
+            Node left = sum();
+            String operator = comparison();
+            Node right = sum();
+            skipSpaces();
+            if (pos != source.length()) {
+                throw error("unexpected '" + source.charAt(pos) + "'");
+            }
+            return new CompiledExpression(type, operator, left, right, getters());
+        }
+
+        private String comparison() {
+            skipSpaces();
+            for (String operator : new String[]{">=", "<=", "==", "!=", ">", "<"}) {
+                if (source.startsWith(operator, pos)) {
+                    pos += operator.length();
+                    return operator;
+                }
+            }
+            throw error("comparison operator expected");
+        }
+
+        private Node sum() {
+            Node node = product();
+            while (true) {
+                skipSpaces();
+                if (accept('+')) {
+                    Node l = node, r = product();
+                    node = v -> l.eval(v) + r.eval(v);
+                } else if (accept('-')) {
+                    Node l = node, r = product();
+                    node = v -> l.eval(v) - r.eval(v);
+                } else {
+                    return node;
+                }
+            }
+        }
+
+        private Node product() {
+            Node node = unary();
+            while (true) {
+                skipSpaces();
+                if (accept('*')) {
+                    Node l = node, r = unary();
+                    node = v -> l.eval(v) * r.eval(v);
+                } else if (accept('/')) {
+                    Node l = node, r = unary();
+                    node = v -> l.eval(v) / r.eval(v);
+                } else {
+                    return node;
+                }
+            }
+        }
+
+        private Node unary() {
+            skipSpaces();
+            if (accept('-')) {
+                Node operand = unary();
+                return v -> -operand.eval(v);
+            }
+            if (accept('(')) {
+                Node node = sum();
+                skipSpaces();
+                if (!accept(')')) {
+                    throw error("')' expected");
+                }
+                return node;
+            }
+            int start = pos;
+            if (pos < source.length() && Character.isDigit(source.charAt(pos))) {
+                while (pos < source.length() && Character.isDigit(source.charAt(pos))) {
+                    pos++;
+                }
+                long constant = Long.parseLong(source.substring(start, pos));
+                return v -> constant;
+            }
+            if (pos < source.length() && Character.isJavaIdentifierStart(source.charAt(pos))) {
+                while (pos < source.length() && Character.isJavaIdentifierPart(source.charAt(pos))) {
+                    pos++;
+                }
+                String field = source.substring(start, pos);
+                int index = fields.indexOf(field);
+                if (index < 0) {
+                    index = fields.size();
+                    fields.add(field);
+                }
+                int slot = index;
+                return v -> v[slot];
+            }
+            throw error("number or field expected");
+        }
+
+        private boolean accept(char c) {
+            if (pos < source.length() && source.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void skipSpaces() {
+            while (pos < source.length() && Character.isWhitespace(source.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at " + pos + " in [" + source + "]");
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private Function<Object, Object>[] getters() {
+            Function<Object, Object>[] getters = new Function[fields.size()];
+            for (int i = 0; i < getters.length; i++) {
+                getters[i] = getter(fields.get(i));
+            }
+            return getters;
+        }
+
+        private Function<Object, Object> getter(String field) {
+            return CompiledExpression.getter(type, field, Number.class);
+        }
+    }
+
+    /**
+     * getter 를 람다로 만들어 매번 리플렉션 없이 직접 호출되게 한다.
+     *
+     * @param returnType getter 가 반환해야 하는 타입
+     */
+    @SuppressWarnings("unchecked")
+    static Function<Object, Object> getter(Class<?> type, String field, Class<?> returnType) {
+        String name = "get" + Character.toUpperCase(field.charAt(0)) + field.substring(1);
+        try {
+            Method method = type.getMethod(name);
+            if (!returnType.isAssignableFrom(method.getReturnType())) {
+                throw new IllegalArgumentException(type.getName() + "." + name + "() must return a " + returnType.getSimpleName());
+            }
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            MethodHandle handle = lookup.unreflect(method);
+            CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    handle,
+                    MethodType.methodType(method.getReturnType(), type));
+            return (Function<Object, Object>) site.getTarget().invokeExact();
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("unknown field '" + field + "' in " + type.getName(), e);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("cannot compile getter " + name + " of " + type.getName(), e);
+        }
+    }
+}
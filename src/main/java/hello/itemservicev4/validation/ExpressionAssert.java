@@ -0,0 +1,43 @@
+package hello.itemservicev4.validation;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 여러 필드를 함께 보는 검증식 (예: price * quantity >= 10000)
+ * <p>
+ * 검증식은 한 번만 파싱해서 getter 를 직접 호출하는 평가기로 만든다. ({@link CompiledExpression})
+ * 실패하면 errorCode 로 글로벌 오류를 남기고, 인자는 {오른쪽 값, 왼쪽 값} 이다.
+ * 검증식에 쓰인 필드 중 하나라도 null 이면 검증하지 않는다.
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Constraint(validatedBy = ExpressionAssertValidator.class)
+@Repeatable(ExpressionAssert.List.class)
+public @interface ExpressionAssert {
+
+    String expression();
+
+    String errorCode();
+
+    String message() default "{expression}";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+
+    @Documented
+    @Target(ElementType.TYPE)
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface List {
+        ExpressionAssert[] value();
+    }
+}
@@ -0,0 +1,36 @@
+package hello.itemservicev4.validation;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import org.hibernate.validator.constraintvalidation.HibernateConstraintValidatorContext;
+
+public class ExpressionAssertValidator implements ConstraintValidator<ExpressionAssert, Object> {
+
+    private String expression;
+    private volatile CompiledExpression compiled;
+
+    @Override
+    public void initialize(ExpressionAssert constraintAnnotation) {
+        expression = constraintAnnotation.expression();
+    }
+
+    @Override
+    public boolean isValid(Object value, ConstraintValidatorContext context) {
+        if (value == null) {
+            return true;
+        }
+        CompiledExpression expression = compiled;
+        if (expression == null || expression.getType() != value.getClass()) {
+            expression = CompiledExpression.compile(this.expression, value.getClass());
+            compiled = expression;
+        }
+
+        Object[] arguments = expression.check(value);
+        if (arguments == null) {
+            return true;
+        }
+        // 오류 메시지 인자 {오른쪽 값, 왼쪽 값} 을 BindingResult 까지 전달
+        context.unwrap(HibernateConstraintValidatorContext.class).withDynamicPayload(arguments);
+        return false;
+    }
+}
@@ -0,0 +1,39 @@
+package hello.itemservicev4.validation;
+
+import jakarta.validation.ConstraintViolation;
+import org.hibernate.validator.engine.HibernateConstraintViolation;
+import org.springframework.validation.Errors;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * {@link ExpressionAssert} 위반은 애노테이션 이름 대신 errorCode 와 검증식 값으로 글로벌 오류를 남긴다.
+ * 예) bindingResult.reject("totalPriceMin", new Object[]{10000, resultPrice}, null) 과 같은 결과
+ */
+public class ExpressionAssertValidatorFactoryBean extends LocalValidatorFactoryBean {
+
+    @Override
+    protected void processConstraintViolations(Set<ConstraintViolation<Object>> violations, Errors errors) {
+        Set<ConstraintViolation<Object>> others = new LinkedHashSet<>();
+        for (ConstraintViolation<Object> violation : violations) {
+            if (violation.getConstraintDescriptor().getAnnotation() instanceof ExpressionAssert expressionAssert) {
+                HibernateConstraintViolation<?> hibernateViolation = violation.unwrap(HibernateConstraintViolation.class);
+                Object[] arguments = hibernateViolation.getDynamicPayload(Object[].class);
+                errors.reject(expressionAssert.errorCode(), arguments, violation.getMessage());
+            } else {
+                others.add(violation);
+            }
+        }
+        super.processConstraintViolations(others, errors);
+    }
+
+    /**
+     * target 의 field 에 붙은 제약만 검증해 errors 에 남긴다. 클래스에 붙은 복합 룰은 보지 않는다.
+     * 부분 수정처럼 요청에 들어온 필드만 검증할 때 쓴다.
+     */
+    public void validateField(Object target, String field, Errors errors, Class<?>... groups) {
+        processConstraintViolations(validateProperty(target, field, groups), errors);
+    }
+}
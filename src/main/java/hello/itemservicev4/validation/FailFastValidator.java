@@ -0,0 +1,50 @@
+package hello.itemservicev4.validation;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.validation.Errors;
+import org.springframework.validation.SmartValidator;
+
+/**
+ * 첫 위반에서 멈추는 검증기 (Hibernate Validator fail-fast). 오류 하나만 돌려주면 되는 JSON API 에서 쓴다.
+ * <p>
+ * 그룹 시퀀스(SaveCheck.FailFast 등)와 함께 쓰면 싼 단계의 제약부터 검사하므로, 엉터리 요청은 null, 공백 검사에서 바로 끝난다.
+ * jakarta.validation.Validator 빈이 둘이 되지 않도록 스프링 Validator 로만 감싸서 노출한다.
+ */
+public class FailFastValidator implements SmartValidator, DisposableBean {
+
+    private final ExpressionAssertValidatorFactoryBean delegate;
+
+    /**
+     * @param delegate fail-fast 로 설정하고 초기화한 검증기
+     */
+    public FailFastValidator(ExpressionAssertValidatorFactoryBean delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return delegate.supports(clazz);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        delegate.validate(target, errors);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors, Object... validationHints) {
+        delegate.validate(target, errors, validationHints);
+    }
+
+    /**
+     * target 의 field 에 붙은 제약만 검증한다. (부분 수정 요청)
+     */
+    public void validateField(Object target, String field, Errors errors, Class<?>... groups) {
+        delegate.validateField(target, field, errors, groups);
+    }
+
+    @Override
+    public void destroy() {
+        delegate.destroy();
+    }
+}
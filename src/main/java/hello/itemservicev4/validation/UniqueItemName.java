@@ -0,0 +1,35 @@
+package hello.itemservicev4.validation;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 상품명이 다른 상품과 겹치지 않아야 한다. (대소문자, 앞뒤 공백, 전각/반각 차이는 같은 이름으로 본다.)
+ * <p>
+ * 저장소의 이름 색인을 한 번 조회해서 확인한다. 오류는 field 에 대한 필드 오류로 남는다.
+ * 검증과 저장 사이에 같은 이름이 먼저 저장되는 경우는 저장소가 막는다.
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Constraint(validatedBy = UniqueItemNameValidator.class)
+public @interface UniqueItemName {
+
+    // 상품명 필드
+    String field() default "itemName";
+
+    // 수정 폼의 상품 id 필드. 자기 자신의 이름은 중복으로 보지 않는다. (비어 있으면 등록 폼)
+    String idField() default "";
+
+    String message() default "이미 등록된 상품 이름입니다.";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,64 @@
+package hello.itemservicev4.validation;
+
+import hello.itemservicev4.domain.item.ItemRepository;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.function.Function;
+
+/**
+ * 스프링이 만들 때 저장소를 주입받는다. (LocalValidatorFactoryBean 의 SpringConstraintValidatorFactory)
+ * 스프링 밖에서 기본 생성자로 만들면 저장소가 없으므로 검사하지 않는다.
+ */
+public class UniqueItemNameValidator implements ConstraintValidator<UniqueItemName, Object> {
+
+    private final ItemRepository itemRepository;
+
+    private String field;
+    private String idField;
+    private volatile Getters getters;
+
+    public UniqueItemNameValidator() {
+        this(null);
+    }
+
+    @Autowired
+    public UniqueItemNameValidator(ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    @Override
+    public void initialize(UniqueItemName constraintAnnotation) {
+        field = constraintAnnotation.field();
+        idField = constraintAnnotation.idField();
+    }
+
+    @Override
+    public boolean isValid(Object value, ConstraintValidatorContext context) {
+        if (value == null || itemRepository == null) {
+            return true;
+        }
+        Getters getters = this.getters;
+        if (getters == null || getters.type() != value.getClass()) {
+            getters = new Getters(value.getClass(),
+                    CompiledExpression.getter(value.getClass(), field, String.class),
+                    idField.isEmpty() ? null : CompiledExpression.getter(value.getClass(), idField, Long.class));
+            this.getters = getters;
+        }
+
+        Long owner = itemRepository.findIdByName((String) getters.name().apply(value));
+        if (owner == null || getters.id() != null && owner.equals(getters.id().apply(value))) {
+            return true;
+        }
+        // 글로벌 오류가 아니라 상품명 필드 오류로 남긴다.
+        context.disableDefaultConstraintViolation();
+        context.buildConstraintViolationWithTemplate(context.getDefaultConstraintMessageTemplate())
+                .addPropertyNode(field)
+                .addConstraintViolation();
+        return false;
+    }
+
+    private record Getters(Class<?> type, Function<Object, Object> name, Function<Object, Object> id) {
+    }
+}
@@ -0,0 +1,35 @@
+package hello.itemservicev4.validation;
+
+import org.hibernate.validator.HibernateValidatorConfiguration;
+import org.springframework.boot.validation.MessageInterpolatorFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+@Configuration
+public class ValidationConfig {
+
+    /**
+     * 스프링 부트 기본 검증기(defaultValidator)를 대신한다. MVC 의 @Validated 도 이 검증기를 사용한다.
+     */
+    @Bean
+    public static LocalValidatorFactoryBean defaultValidator(ApplicationContext applicationContext) {
+        ExpressionAssertValidatorFactoryBean factoryBean = new ExpressionAssertValidatorFactoryBean();
+        factoryBean.setMessageInterpolator(new MessageInterpolatorFactory(applicationContext).getObject());
+        return factoryBean;
+    }
+
+    /**
+     * 첫 위반에서 멈추는 API 용 검증기. 빈이 아닌 factoryBean 이라 애플리케이션 컨텍스트를 직접 넘긴다. (@UniqueItemName 주입)
+     */
+    @Bean
+    public static FailFastValidator failFastValidator(ApplicationContext applicationContext) {
+        ExpressionAssertValidatorFactoryBean factoryBean = new ExpressionAssertValidatorFactoryBean();
+        factoryBean.setApplicationContext(applicationContext);
+        factoryBean.setMessageInterpolator(new MessageInterpolatorFactory(applicationContext).getObject());
+        factoryBean.getValidationPropertyMap().put(HibernateValidatorConfiguration.FAIL_FAST, "true");
+        factoryBean.afterPropertiesSet();
+        return new FailFastValidator(factoryBean);
+    }
+}
@@ -0,0 +1,33 @@
+package hello.itemservicev4.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * 내부용 API(/internal/**)는 같은 서버(loopback)에서 온 요청만 받는다. 다른 곳에서 오면 없는 주소처럼 404 로 답한다.
+ */
+public class LoopbackOnlyInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (isLoopback(request)) {
+            return true;
+        }
+        response.setStatus(HttpStatus.NOT_FOUND.value());
+        return false;
+    }
+
+    static boolean isLoopback(HttpServletRequest request) {
+        try {
+            // remoteAddr 는 IP 문자열이므로 이름을 조회하지 않는다.
+            return InetAddress.getByName(request.getRemoteAddr()).isLoopbackAddress();
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package hello.itemservicev4.web.accounting;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 요청 스레드가 할당한 바이트 수와 사용한 CPU 시간을 핸들러 메서드별로 모은다.
+ * <p>
+ * JVM 의 스레드 단위 카운터(할당 바이트, 스레드 CPU 시간)를 요청 시작과 끝에 읽어 차이를 낸다.
+ * 요청 스레드에서 일어난 것만 잡히므로 GC, 로그 스레드 같은 다른 스레드의 비용은 들어가지 않는다.
+ * JVM 이 카운터를 지원하지 않으면 해당 값은 0 으로 남는다.
+ */
+public class RequestAccounting {
+
+    private final com.sun.management.ThreadMXBean threads;
+    private final boolean allocationSupported;
+    private final boolean cpuTimeSupported;
+
+    private final Map<String, HandlerStats> stats = new ConcurrentHashMap<>();
+
+    public RequestAccounting() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        this.threads = bean instanceof com.sun.management.ThreadMXBean sunBean ? sunBean : null;
+        this.allocationSupported = threads != null && threads.isThreadAllocatedMemorySupported();
+        if (allocationSupported && !threads.isThreadAllocatedMemoryEnabled()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+        }
+        this.cpuTimeSupported = bean.isCurrentThreadCpuTimeSupported();
+        if (cpuTimeSupported && !bean.isThreadCpuTimeEnabled()) {
+            bean.setThreadCpuTimeEnabled(true);
+        }
+    }
+
+    /**
+     * 현재 스레드의 카운터를 읽는다. 요청이 끝나면 같은 스레드에서 {@link #record} 에 넘긴다.
+     */
+    public Usage begin() {
+        long allocated = allocatedBytes();
+        long cpu = cpuNanos();
+        return new Usage(System.nanoTime(), cpu, allocated);
+    }
+
+    /**
+     * begin() 이후 현재 스레드가 쓴 만큼을 handler 에 더하고, 이번 요청의 사용량을 반환한다.
+     */
+    public Usage record(String handler, Usage start) {
+        long wall = System.nanoTime() - start.wallNanos();
+        long cpu = cpuNanos() - start.cpuNanos();
+        long allocated = allocatedBytes() - start.allocatedBytes();
+        Usage usage = new Usage(wall, cpu, allocated);
+        stats.computeIfAbsent(handler, k -> new HandlerStats()).add(usage);
+        return usage;
+    }
+
+    /**
+     * 핸들러별 누적값. 총 할당량이 큰 순서
+     */
+    public List<HandlerUsage> snapshot() {
+        List<HandlerUsage> result = new ArrayList<>(stats.size());
+        stats.forEach((handler, handlerStats) -> result.add(handlerStats.toUsage(handler)));
+        result.sort(Comparator.comparingLong(HandlerUsage::totalAllocatedBytes).reversed());
+        return result;
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    public boolean isAllocationSupported() {
+        return allocationSupported;
+    }
+
+    public boolean isCpuTimeSupported() {
+        return cpuTimeSupported;
+    }
+
+    private long allocatedBytes() {
+        return allocationSupported ? threads.getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    private long cpuNanos() {
+        return cpuTimeSupported ? threads.getCurrentThreadCpuTime() : 0;
+    }
+
+    /**
+     * 요청 하나의 경과 시간, CPU 시간, 할당 바이트 (begin() 이 반환한 값이면 시작 시점의 카운터)
+     */
+    public record Usage(long wallNanos, long cpuNanos, long allocatedBytes) {
+    }
+
+    /**
+     * 핸들러 하나의 누적 사용량
+     */
+    public record HandlerUsage(String handler, long count,
+                               long totalAllocatedBytes, long avgAllocatedBytes, long maxAllocatedBytes,
+                               long avgCpuMicros, long avgWallMicros) {
+    }
+
+    private static final class HandlerStats {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder wallNanos = new LongAdder();
+        private final LongAdder cpuNanos = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+        private final LongAccumulator maxAllocatedBytes = new LongAccumulator(Math::max, 0);
+
+        void add(Usage usage) {
+            count.increment();
+            wallNanos.add(usage.wallNanos());
+            cpuNanos.add(usage.cpuNanos());
+            allocatedBytes.add(usage.allocatedBytes());
+            maxAllocatedBytes.accumulate(usage.allocatedBytes());
+        }
+
+        HandlerUsage toUsage(String handler) {
+            long n = Math.max(1, count.sum());
+            long allocated = allocatedBytes.sum();
+            return new HandlerUsage(handler, count.sum(), allocated, allocated / n, maxAllocatedBytes.get(),
+                    cpuNanos.sum() / n / 1000, wallNanos.sum() / n / 1000);
+        }
+    }
+}
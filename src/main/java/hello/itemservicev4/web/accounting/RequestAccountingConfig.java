@@ -0,0 +1,34 @@
+package hello.itemservicev4.web.accounting;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * request.accounting.enabled=true 일 때만 요청별 할당량, CPU 시간을 잰다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "request.accounting.enabled", havingValue = "true")
+public class RequestAccountingConfig implements WebMvcConfigurer {
+
+    private final RequestAccounting requestAccounting = new RequestAccounting();
+    private final long slowThresholdMillis;
+
+    public RequestAccountingConfig(@Value("${request.accounting.slow-threshold-ms:500}") long slowThresholdMillis) {
+        this.slowThresholdMillis = slowThresholdMillis;
+    }
+
+    @Bean
+    public RequestAccounting requestAccounting() {
+        return requestAccounting;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RequestAccountingInterceptor(requestAccounting, slowThresholdMillis))
+                .excludePathPatterns("/internal/**");
+    }
+}
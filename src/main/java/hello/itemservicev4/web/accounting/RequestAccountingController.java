@@ -0,0 +1,34 @@
+package hello.itemservicev4.web.accounting;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 핸들러별 할당량, CPU 시간 조회.
+ */
+@RestController
+@RequestMapping("/internal/accounting")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "request.accounting.enabled", havingValue = "true")
+public class RequestAccountingController {
+
+    private final RequestAccounting requestAccounting;
+
+    @GetMapping
+    public ResponseEntity<List<RequestAccounting.HandlerUsage>> handlers() {
+        return ResponseEntity.ok(requestAccounting.snapshot());
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> reset() {
+        requestAccounting.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
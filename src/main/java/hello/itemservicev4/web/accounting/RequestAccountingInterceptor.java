@@ -0,0 +1,62 @@
+package hello.itemservicev4.web.accounting;
+
+import hello.itemservicev4.WarmUpRunner;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 컨트롤러 메서드로 가는 요청마다 {@link RequestAccounting} 에 사용량을 남긴다.
+ * 바인딩, 검증, 뷰 렌더링까지 포함한 값이고, request.accounting.slow-threshold-ms 보다 오래 걸린 요청은 로그로 남긴다.
+ * 기동할 때 보내는 워밍업 요청은 세지 않는다.
+ */
+@Slf4j
+public class RequestAccountingInterceptor implements HandlerInterceptor {
+
+    private static final String START = RequestAccountingInterceptor.class.getName() + ".START";
+
+    private final RequestAccounting accounting;
+    private final long slowThresholdNanos;
+    // 요청마다 "컨트롤러#메서드" 문자열을 새로 만들지 않는다.
+    private final Map<Method, String> handlerNames = new ConcurrentHashMap<>();
+
+    RequestAccountingInterceptor(RequestAccounting accounting, long slowThresholdMillis) {
+        this.accounting = accounting;
+        this.slowThresholdNanos = slowThresholdMillis * 1_000_000;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod && !WarmUpRunner.isWarmUp(request)) {
+            request.setAttribute(START, accounting.begin());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(request.getAttribute(START) instanceof RequestAccounting.Usage start)
+                || !(handler instanceof HandlerMethod handlerMethod)) {
+            return;
+        }
+        request.removeAttribute(START);
+        RequestAccounting.Usage usage = accounting.record(handlerName(handlerMethod), start);
+
+        if (usage.wallNanos() >= slowThresholdNanos) {
+            log.warn("slow request handler={} method={} uri={} status={} wall_ms={} cpu_ms={} allocated_kb={}",
+                    handlerName(handlerMethod), request.getMethod(), request.getRequestURI(), response.getStatus(),
+                    usage.wallNanos() / 1_000_000, usage.cpuNanos() / 1_000_000, usage.allocatedBytes() / 1024);
+        }
+    }
+
+    private String handlerName(HandlerMethod handlerMethod) {
+        return handlerNames.computeIfAbsent(handlerMethod.getMethod(),
+                method -> handlerMethod.getBeanType().getSimpleName() + "#" + method.getName());
+    }
+}
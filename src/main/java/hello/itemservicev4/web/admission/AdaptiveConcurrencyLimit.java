@@ -0,0 +1,111 @@
+package hello.itemservicev4.web.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 측정한 응답 시간으로 동시 처리 한도를 조절한다. (gradient 방식)
+ * <p>
+ * 최근 구간의 평균 응답 시간(short)이 기준 응답 시간(long)보다 느려지면 큐가 쌓이고 있는 것이므로 한도를 long / short 비율만큼 줄이고,
+ * 비슷하면 sqrt(한도) 만큼 여유를 두고 늘린다. 요청이 예외로 끝나면 한도를 바로 10% 줄인다.
+ * 한도를 넘는 요청은 기다리게 하지 않고 즉시 거절한다.
+ */
+class AdaptiveConcurrencyLimit {
+
+    // 한 구간에 모을 최소 표본 수
+    private static final int WINDOW_SAMPLES = 10;
+    // 기준 응답 시간을 올릴 때 반영하는 비율 (1 / LONG_WINDOW)
+    private static final int LONG_WINDOW = 100;
+    // short 가 long 의 이 배수까지는 느려져도 정상으로 본다.
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    // 아래 값들은 this 로 동기화
+    private double estimatedLimit;
+    private double longRtt;
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInFlight;
+
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.estimatedLimit = Math.min(Math.max(initialLimit, this.minLimit), this.maxLimit);
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * 한도 안이면 자리를 잡고 true, 아니면 false
+     */
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * tryAcquire() 로 잡은 자리를 돌려주면서 응답 시간을 반영한다.
+     *
+     * @param dropped 요청이 예외로 끝났으면 true
+     */
+    void release(long rttNanos, boolean dropped) {
+        int current = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (dropped) {
+                update(estimatedLimit * 0.9);
+                return;
+            }
+            windowRttSum += rttNanos;
+            windowMaxInFlight = Math.max(windowMaxInFlight, current);
+            if (++windowSamples < WINDOW_SAMPLES) {
+                return;
+            }
+
+            double shortRtt = (double) windowRttSum / windowSamples;
+            boolean appLimited = windowMaxInFlight * 2 < estimatedLimit;
+            windowRttSum = 0;
+            windowSamples = 0;
+            windowMaxInFlight = 0;
+
+            // 기준 응답 시간(long)은 큐가 쌓이지 않은 구간(한도의 절반도 안 쓴 구간)에서만 올린다.
+            // 포화 상태의 응답 시간까지 따라가면 기준이 같이 느려져 한도가 계속 늘어난다.
+            if (longRtt == 0 || shortRtt < longRtt) {
+                longRtt = shortRtt;
+            } else if (appLimited) {
+                longRtt += (shortRtt - longRtt) / LONG_WINDOW;
+            }
+
+            double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+            double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+            // 한도까지 쓰지도 않는데 늘리면 나중에 한 번에 몰릴 수 있다.
+            if (appLimited) {
+                newLimit = Math.min(newLimit, estimatedLimit);
+            }
+            update(estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING);
+        }
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void update(double newLimit) {
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+}
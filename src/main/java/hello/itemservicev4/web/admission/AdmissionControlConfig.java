@@ -0,0 +1,33 @@
+package hello.itemservicev4.web.admission;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * 상품 등록 요청에만 {@link AdmissionControlFilter} 를 건다.
+ * admission.enabled=false 면 제한하지 않는다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlConfig {
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(
+            @Value("${admission.initial-limit:20}") int initialLimit,
+            @Value("${admission.min-limit:4}") int minLimit,
+            @Value("${admission.max-limit:200}") int maxLimit,
+            @Value("${admission.retry-after-seconds:1}") int retryAfterSeconds) {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit);
+
+        FilterRegistrationBean<AdmissionControlFilter> registration =
+                new FilterRegistrationBean<>(new AdmissionControlFilter(limit, retryAfterSeconds));
+        registration.addUrlPatterns("/validation/v4/items/add", "/validation/api/items/add");
+        // 다른 필터가 일을 하기 전에 거절한다. (replica 의 ReplicaRequestFilter, IdempotencyFilter 다음)
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+}
@@ -0,0 +1,68 @@
+package hello.itemservicev4.web.admission;
+
+import hello.itemservicev4.WarmUpRunner;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 등록 요청(POST)의 동시 처리 수를 {@link AdaptiveConcurrencyLimit} 로 제한한다.
+ * 한도를 넘으면 요청 본문을 읽지 않고 바로 503 과 Retry-After 로 응답한다. 조회(GET)와 워밍업 요청은 제한하지 않는다.
+ */
+@Slf4j
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private final AdaptiveConcurrencyLimit limit;
+    private final String retryAfterSeconds;
+    private final AtomicLong rejected = new AtomicLong();
+
+    AdmissionControlFilter(AdaptiveConcurrencyLimit limit, int retryAfterSeconds) {
+        this.limit = limit;
+        this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod()) || WarmUpRunner.isWarmUp(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!limit.tryAcquire()) {
+            long count = rejected.incrementAndGet();
+            if ((count & (count - 1)) == 0) {
+                // 1, 2, 4, 8 ... 번째마다 한 번씩만 남긴다.
+                log.warn("admission rejected uri={} limit={} rejected={}", request.getRequestURI(), limit.getLimit(), count);
+            }
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean dropped = true;
+        try {
+            filterChain.doFilter(request, response);
+            dropped = false;
+        } finally {
+            limit.release(System.nanoTime() - start, dropped);
+        }
+    }
+
+    /**
+     * 지금까지 거절한 요청 수
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+}
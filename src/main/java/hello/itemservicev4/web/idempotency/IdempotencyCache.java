@@ -0,0 +1,221 @@
+package hello.itemservicev4.web.idempotency;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Idempotency-Key 별로 처리한 응답을 보관한다.
+ * <p>
+ * 같은 키로 처음 들어온 요청만 처리하고(owner), 그 사이 들어온 같은 키의 요청은 처리 결과를 기다렸다 같은 응답을 받는다.
+ * 항목은 처음 들어온 뒤 ttl 이 지나면 만료되고, 개수(maxEntries)나 응답 크기 합(maxBytes)을 넘으면 오래된 것부터 지운다.
+ * 5xx 응답이나 예외로 끝난 처리는 보관하지 않으므로 다시 보내면 다시 처리한다.
+ */
+public class IdempotencyCache {
+
+    // 키 문자열, 해시, Entry, CompletableFuture 등 응답 본문 외에 항목마다 드는 대략의 크기
+    static final int ENTRY_OVERHEAD_BYTES = 256;
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long ttlNanos;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    // 만든 순서 (ttl 이 같으므로 만료 순서이기도 하다.)
+    private final ConcurrentLinkedQueue<Entry> order = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock evictLock = new ReentrantLock();
+    private final AtomicLong bytes = new AtomicLong();
+
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder joins = new LongAdder();
+    private final LongAdder mismatches = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    IdempotencyCache(int maxEntries, long maxBytes, long ttlMillis) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.maxBytes = Math.max(1, maxBytes);
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    /**
+     * 키에 해당하는 항목을 찾고, 없으면 만들어 호출한 쪽을 owner 로 정한다.
+     * owner 는 요청을 처리한 뒤 반드시 {@link #complete} 나 {@link #fail} 을 호출해야 한다.
+     *
+     * @param fingerprint 요청 본문의 해시. 같은 키로 다른 본문이 오면 {@link Lookup#matches()} 가 false
+     */
+    Lookup lookup(String key, byte[] fingerprint) {
+        long now = System.nanoTime();
+        while (true) {
+            Entry existing = entries.get(key);
+            if (existing != null && existing.isExpired(now, ttlNanos)) {
+                if (entries.remove(key, existing)) {
+                    release(existing);
+                    expirations.increment();
+                }
+                continue;
+            }
+            if (existing != null) {
+                boolean matches = Arrays.equals(existing.fingerprint, fingerprint);
+                if (!matches) {
+                    mismatches.increment();
+                }
+                return new Lookup(existing, false, matches);
+            }
+            Entry created = new Entry(key, fingerprint, now);
+            if (entries.putIfAbsent(key, created) == null) {
+                order.add(created);
+                misses.increment();
+                evict(now);
+                return new Lookup(created, true, true);
+            }
+        }
+    }
+
+    /**
+     * owner 가 아닌 요청이 처리 결과를 기다린다. 이미 끝났으면 바로 반환한다.
+     *
+     * @throws ExecutionException owner 의 처리가 실패했다. (항목은 지워졌으므로 다시 lookup 하면 된다.)
+     * @throws TimeoutException   timeoutMillis 안에 끝나지 않았다.
+     */
+    CachedResponse await(Entry entry, long timeoutMillis)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        if (entry.response.isDone()) {
+            hits.increment();
+            return entry.response.get();
+        }
+        joins.increment();
+        return entry.response.get(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 처리 결과를 보관하고 기다리던 요청에 넘긴다. 5xx 는 넘기기만 하고 보관하지 않는다.
+     */
+    void complete(Entry entry, CachedResponse response) {
+        if (response.status() >= 500) {
+            discard(entry);
+            entry.response.complete(response);
+            return;
+        }
+        long size = response.body().length + 2L * (entry.key.length() + length(response.contentType())) + ENTRY_OVERHEAD_BYTES;
+        entry.accounted.set(size);
+        bytes.addAndGet(size);
+        entry.response.complete(response);
+        // 처리하는 사이 밀려나 지워졌으면 더한 크기를 다시 뺀다.
+        if (entries.get(entry.key) != entry) {
+            release(entry);
+        }
+        evict(System.nanoTime());
+    }
+
+    /**
+     * 처리가 예외로 끝났다. 항목을 지우고 기다리던 요청은 다시 시도하게 한다.
+     */
+    void fail(Entry entry, Throwable cause) {
+        discard(entry);
+        entry.response.completeExceptionally(cause);
+    }
+
+    public Stats stats() {
+        long hit = hits.sum();
+        long join = joins.sum();
+        long miss = misses.sum();
+        long total = hit + join + miss;
+        return new Stats(entries.size(), Math.max(0, bytes.get()), miss, hit, join, mismatches.sum(),
+                evictions.sum(), expirations.sum(), total == 0 ? 0 : (double) (hit + join) / total);
+    }
+
+    private void discard(Entry entry) {
+        if (entries.remove(entry.key, entry)) {
+            release(entry);
+        }
+    }
+
+    private void release(Entry entry) {
+        bytes.addAndGet(-entry.accounted.getAndSet(0));
+    }
+
+    /**
+     * 만료된 항목, 한도를 넘긴 만큼의 오래된 항목을 지운다. 다른 스레드가 지우는 중이면 맡긴다.
+     */
+    private void evict(long now) {
+        if (!evictLock.tryLock()) {
+            return;
+        }
+        try {
+            Entry head;
+            while ((head = order.peek()) != null) {
+                boolean removed = entries.get(head.key) != head;
+                boolean expired = head.isExpired(now, ttlNanos);
+                boolean over = entries.size() > maxEntries || bytes.get() > maxBytes;
+                if (!removed && !expired && !over) {
+                    return;
+                }
+                order.poll();
+                if (!removed && entries.remove(head.key, head)) {
+                    release(head);
+                    if (expired) {
+                        expirations.increment();
+                    } else {
+                        evictions.increment();
+                    }
+                }
+            }
+        } finally {
+            evictLock.unlock();
+        }
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    static final class Entry {
+
+        private final String key;
+        private final byte[] fingerprint;
+        private final long createdNanos;
+        private final CompletableFuture<CachedResponse> response = new CompletableFuture<>();
+        // 보관 크기에 더한 값. 지울 때 한 번만 빼도록 0 으로 바꾼다.
+        private final AtomicLong accounted = new AtomicLong();
+
+        Entry(String key, byte[] fingerprint, long createdNanos) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+            this.createdNanos = createdNanos;
+        }
+
+        boolean isExpired(long now, long ttlNanos) {
+            return now - createdNanos > ttlNanos;
+        }
+    }
+
+    /**
+     * @param owner   처음 들어온 요청이라 직접 처리해야 하는지
+     * @param matches 먼저 들어온 요청과 본문이 같은지
+     */
+    record Lookup(Entry entry, boolean owner, boolean matches) {
+    }
+
+    record CachedResponse(int status, String contentType, byte[] body) {
+    }
+
+    /**
+     * @param bytes   보관 중인 응답의 대략적인 크기 합
+     * @param misses  처음 들어와 처리한 요청
+     * @param hits    끝난 응답을 다시 보낸 요청
+     * @param joins   처리 중인 요청을 기다렸다 같은 응답을 받은 요청
+     * @param hitRate (hits + joins) / 전체
+     */
+    public record Stats(int entries, long bytes, long misses, long hits, long joins, long mismatches,
+                        long evictions, long expirations, double hitRate) {
+    }
+}
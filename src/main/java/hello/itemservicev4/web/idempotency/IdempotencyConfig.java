@@ -0,0 +1,39 @@
+package hello.itemservicev4.web.idempotency;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * 상품 등록 API 에 {@link IdempotencyFilter} 를 건다.
+ * idempotency.enabled=false 면 Idempotency-Key 헤더를 무시한다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "idempotency.enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyConfig {
+
+    @Bean
+    public IdempotencyCache idempotencyCache(@Value("${idempotency.max-entries:10000}") int maxEntries,
+                                             @Value("${idempotency.max-bytes:16777216}") long maxBytes,
+                                             @Value("${idempotency.ttl-seconds:3600}") long ttlSeconds) {
+        return new IdempotencyCache(maxEntries, maxBytes, ttlSeconds * 1000);
+    }
+
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(
+            IdempotencyCache idempotencyCache,
+            @Value("${idempotency.max-body-bytes:65536}") int maxBodyBytes,
+            @Value("${idempotency.wait-timeout-ms:10000}") long waitTimeoutMillis) {
+        FilterRegistrationBean<IdempotencyFilter> registration =
+                new FilterRegistrationBean<>(new IdempotencyFilter(idempotencyCache, maxBodyBytes, waitTimeoutMillis));
+        registration.addUrlPatterns("/validation/api/items/add");
+        // 다시 보낸 요청은 등록 요청 제한에 들어가기 전에 보관한 응답으로 돌려준다.
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        // 비동기로 넘어가면 응답이 끝나기 전에 filterChain 이 돌아오므로, 컨테이너가 startAsync 를 거절하게 한다.
+        registration.setAsyncSupported(false);
+        return registration;
+    }
+}
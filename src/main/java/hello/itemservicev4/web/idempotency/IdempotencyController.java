@@ -0,0 +1,25 @@
+package hello.itemservicev4.web.idempotency;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Idempotency-Key 응답 보관 현황 (항목 수, 크기, 적중률).
+ */
+@RestController
+@RequestMapping("/internal/idempotency")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "idempotency.enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyController {
+
+    private final IdempotencyCache idempotencyCache;
+
+    @GetMapping
+    public ResponseEntity<IdempotencyCache.Stats> stats() {
+        return ResponseEntity.ok(idempotencyCache.stats());
+    }
+}
@@ -0,0 +1,218 @@
+package hello.itemservicev4.web.idempotency;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Idempotency-Key 헤더가 있는 POST 요청을 키별로 한 번만 처리한다.
+ * <ul>
+ *     <li>처음 온 요청은 그대로 처리하고 응답(상태, Content-Type, 본문)을 {@link IdempotencyCache} 에 보관한다.</li>
+ *     <li>같은 키로 다시 오면 바인딩, 검증을 거치지 않고 보관한 응답을 Idempotent-Replayed: true 와 함께 보낸다.</li>
+ *     <li>처음 요청이 아직 처리 중이면 끝날 때까지 기다렸다 같은 응답을 보낸다. waitTimeout 을 넘기면 409</li>
+ *     <li>같은 키로 다른 본문이 오면 422</li>
+ * </ul>
+ * 키는 요청 URI 별로 따로 관리한다. 헤더가 없는 요청은 그대로 통과한다.
+ * <p>
+ * 응답은 filterChain 이 돌아올 때 다 만들어져 있어야 보관할 수 있으므로 비동기 처리는 지원하지 않는다. (IdempotencyConfig)
+ */
+@Slf4j
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    static final String KEY_HEADER = "Idempotency-Key";
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyCache cache;
+    private final int maxBodyBytes;
+    private final long waitTimeoutMillis;
+
+    IdempotencyFilter(IdempotencyCache cache, int maxBodyBytes, long waitTimeoutMillis) {
+        this.cache = cache;
+        this.maxBodyBytes = maxBodyBytes;
+        this.waitTimeoutMillis = waitTimeoutMillis;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod()) || request.getHeader(KEY_HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = request.getHeader(KEY_HEADER).strip();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "invalid " + KEY_HEADER);
+            return;
+        }
+        byte[] body = request.getInputStream().readNBytes(maxBodyBytes + 1);
+        if (body.length > maxBodyBytes) {
+            response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+            return;
+        }
+        byte[] fingerprint = fingerprint(request.getContentType(), body);
+        String cacheKey = request.getRequestURI() + " " + key;
+
+        while (true) {
+            IdempotencyCache.Lookup lookup = cache.lookup(cacheKey, fingerprint);
+            if (lookup.owner()) {
+                execute(lookup.entry(), new CachedBodyRequest(request, body), response, filterChain);
+                return;
+            }
+            if (!lookup.matches()) {
+                response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(), KEY_HEADER + " reused with a different request");
+                return;
+            }
+            try {
+                replay(cache.await(lookup.entry(), waitTimeoutMillis), response);
+                return;
+            } catch (ExecutionException e) {
+                // 먼저 온 요청이 실패했다. 다시 찾으면 이 요청이 처리한다.
+                log.debug("idempotent request failed, retrying key={}", key);
+            } catch (TimeoutException e) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                response.sendError(HttpStatus.CONFLICT.value(), "request with the same " + KEY_HEADER + " is in progress");
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException("interrupted while waiting for idempotent request", e);
+            }
+        }
+    }
+
+    private void execute(IdempotencyCache.Entry entry, HttpServletRequest request, HttpServletResponse response,
+                         FilterChain filterChain) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        Throwable failure = null;
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, wrapper);
+            cache.complete(entry, new IdempotencyCache.CachedResponse(
+                    wrapper.getStatus(), wrapper.getContentType(), wrapper.getContentAsByteArray()));
+            completed = true;
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            // Error 로 끝나도 항목을 남겨 두면 같은 키의 요청이 TTL 까지 409 를 받으므로 반드시 끝낸다.
+            if (!completed) {
+                cache.fail(entry, failure != null ? failure : new IllegalStateException("idempotent request not completed"));
+            }
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private static void replay(IdempotencyCache.CachedResponse cached, HttpServletResponse response) throws IOException {
+        response.setStatus(cached.status());
+        if (cached.contentType() != null) {
+            response.setContentType(cached.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(cached.body().length);
+        response.getOutputStream().write(cached.body());
+    }
+
+    static byte[] fingerprint(String contentType, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            if (contentType != null) {
+                digest.update(contentType.getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) 0);
+            return digest.digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 해시를 구하려고 먼저 읽은 본문을 컨트롤러가 다시 읽을 수 있게 한다.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                /**
+                 * 본문은 이미 메모리에 있으므로 바로 읽을 수 있다고 알린다.
+                 */
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        readListener.onDataAvailable();
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package hello.itemservicev4.web.replication;
+
+import hello.itemservicev4.domain.item.replication.ReplicaSubscriber;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * replica 에서 조회(GET, HEAD)만 처리한다. 모든 응답에 지연을 X-Replication-Lag-Ms 로 알려 준다.
+ * <ul>
+ *     <li>변경 요청은 primary 주소가 있으면 307 로 primary 에 다시 보내게 하고, 없으면 405 로 거절한다.</li>
+ *     <li>지연이 maxLagMillis 를 넘거나 아직 스냅샷을 다 받지 못했으면 조회도 primary 로 보내거나 503 으로 거절한다.</li>
+ * </ul>
+ */
+@Slf4j
+public class ReplicaRequestFilter extends OncePerRequestFilter {
+
+    static final String LAG_HEADER = "X-Replication-Lag-Ms";
+
+    private final ReplicaSubscriber subscriber;
+    private final String primaryUrl;
+    private final long maxLagMillis;
+    private final AtomicLong forwarded = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    ReplicaRequestFilter(ReplicaSubscriber subscriber, String primaryUrl, long maxLagMillis) {
+        this.subscriber = subscriber;
+        this.primaryUrl = StringUtils.hasText(primaryUrl) ? StringUtils.trimTrailingCharacter(primaryUrl, '/') : null;
+        this.maxLagMillis = maxLagMillis;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long lag = subscriber.lagMillis();
+        response.setHeader(LAG_HEADER, String.valueOf(lag));
+
+        boolean read = HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+        if (!read) {
+            if (!forward(request, response)) {
+                response.setStatus(HttpStatus.METHOD_NOT_ALLOWED.value());
+                response.setHeader(HttpHeaders.ALLOW, "GET, HEAD");
+                count(rejected, "write rejected on replica", request);
+            }
+            return;
+        }
+        if (lag < 0 || lag > maxLagMillis) {
+            if (!forward(request, response)) {
+                response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                count(rejected, "stale read rejected on replica lag=" + lag + "ms", request);
+            }
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * 같은 메서드, 본문으로 primary 에 다시 보내게 한다. (307)
+     */
+    private boolean forward(HttpServletRequest request, HttpServletResponse response) {
+        if (primaryUrl == null) {
+            return false;
+        }
+        String query = request.getQueryString();
+        response.setStatus(HttpStatus.TEMPORARY_REDIRECT.value());
+        response.setHeader(HttpHeaders.LOCATION, primaryUrl + request.getRequestURI() + (query == null ? "" : "?" + query));
+        forwarded.incrementAndGet();
+        return true;
+    }
+
+    private static void count(AtomicLong counter, String message, HttpServletRequest request) {
+        long count = counter.incrementAndGet();
+        if ((count & (count - 1)) == 0) {
+            // 1, 2, 4, 8 ... 번째마다 한 번씩만 남긴다.
+            log.warn("{} uri={} count={}", message, request.getRequestURI(), count);
+        }
+    }
+
+    public long getForwardedCount() {
+        return forwarded.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+}
@@ -0,0 +1,30 @@
+package hello.itemservicev4.web.replication;
+
+import hello.itemservicev4.domain.item.replication.ReplicaSubscriber;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * replica 로 띄우면 상품 화면, API 와 데이터 생성, 일괄 조정에 {@link ReplicaRequestFilter} 를 건다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "replication.role", havingValue = "replica")
+public class ReplicaRequestFilterConfig {
+
+    @Bean
+    public FilterRegistrationBean<ReplicaRequestFilter> replicaRequestFilter(
+            ReplicaSubscriber replicaSubscriber,
+            @Value("${replication.primary-url:}") String primaryUrl,
+            @Value("${replication.max-lag-ms:2000}") long maxLagMillis) {
+        FilterRegistrationBean<ReplicaRequestFilter> registration =
+                new FilterRegistrationBean<>(new ReplicaRequestFilter(replicaSubscriber, primaryUrl, maxLagMillis));
+        registration.addUrlPatterns("/validation/*", "/internal/dataset", "/internal/bulk-adjustments/*");
+        // 등록 요청 제한보다 먼저 primary 로 돌려보낸다.
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,36 @@
+package hello.itemservicev4.web.replication;
+
+import hello.itemservicev4.domain.item.replication.ReplicaSubscriber;
+import hello.itemservicev4.domain.item.replication.ReplicationPublisher;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 복제 상태 조회 (primary 면 순번과 접속한 replica 수, replica 면 반영한 순번과 지연).
+ *
+ */
+@RestController
+@RequestMapping("/internal/replication")
+@RequiredArgsConstructor
+public class ReplicationController {
+
+    private final ObjectProvider<ReplicationPublisher> replicationPublisher;
+    private final ObjectProvider<ReplicaSubscriber> replicaSubscriber;
+
+    @GetMapping
+    public ResponseEntity<Object> status() {
+        ReplicationPublisher publisher = replicationPublisher.getIfAvailable();
+        if (publisher != null) {
+            return ResponseEntity.ok(publisher.status());
+        }
+        ReplicaSubscriber subscriber = replicaSubscriber.getIfAvailable();
+        if (subscriber != null) {
+            return ResponseEntity.ok(subscriber.status());
+        }
+        return ResponseEntity.notFound().build();
+    }
+}
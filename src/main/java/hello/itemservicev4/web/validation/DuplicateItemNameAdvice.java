@@ -0,0 +1,25 @@
+package hello.itemservicev4.web.validation;
+
+import hello.itemservicev4.domain.item.DuplicateItemNameException;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+import java.io.IOException;
+
+/**
+ * 상품명 중복 검증이 없는 V1 ~ V3 에서 같은 이름으로 저장하면 409 오류 페이지로 응답한다.
+ * V4 와 API 는 @UniqueItemName 검증과 저장 결과를 필드 오류로 보여준다.
+ */
+@Slf4j
+@ControllerAdvice
+public class DuplicateItemNameAdvice {
+
+    @ExceptionHandler(DuplicateItemNameException.class)
+    public void duplicateItemName(DuplicateItemNameException e, HttpServletResponse response) throws IOException {
+        log.info("duplicate item name={}", e.getItemName());
+        response.sendError(HttpStatus.CONFLICT.value(), e.getMessage());
+    }
+}
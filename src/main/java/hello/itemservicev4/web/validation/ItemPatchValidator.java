@@ -0,0 +1,159 @@
+package hello.itemservicev4.web.validation;
+
+import hello.itemservicev4.domain.item.Item;
+import hello.itemservicev4.domain.item.ItemPatch;
+import hello.itemservicev4.domain.item.UpdateCheck;
+import hello.itemservicev4.validation.CompiledExpression;
+import hello.itemservicev4.validation.ExpressionAssert;
+import hello.itemservicev4.validation.FailFastValidator;
+import hello.itemservicev4.web.validation.form.ItemPatchForm;
+import hello.itemservicev4.web.validation.form.ItemUpdateForm;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.ObjectError;
+import org.springframework.validation.SmartValidator;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 부분 수정 요청을 {@link ItemUpdateForm} 의 규칙으로 검증한다.
+ * <p>
+ * 필드 규칙은 요청에 들어온 필드에만 적용하고, 여러 필드를 함께 보는 규칙(@ExpressionAssert)은
+ * 저장된 상품과 합친 상태로 {@link #validateMerged(Item, Errors)} 에서 검증한다.
+ * {@link UpdateCheck.FailFast} 로 검증하면 들어온 필드를 값이 있는지 → 범위 순으로 보고, 처음 오류가 난 필드에서 멈춘다.
+ */
+@Component
+public class ItemPatchValidator implements SmartValidator {
+
+    private static final List<MergedRule> MERGED_RULES = Arrays.stream(ItemUpdateForm.class.getAnnotationsByType(ExpressionAssert.class))
+            .map(rule -> new MergedRule(CompiledExpression.compile(rule.expression(), Item.class), rule.errorCode()))
+            .toList();
+    private static final List<String> FIELDS = List.of(ItemPatch.ITEM_NAME, ItemPatch.PRICE, ItemPatch.QUANTITY);
+
+    private final LocalValidatorFactoryBean validator;
+    // 없으면 UpdateCheck.FailFast 로 검증해도 모든 오류를 모은다.
+    private final FailFastValidator failFastValidator;
+
+    public ItemPatchValidator(LocalValidatorFactoryBean validator) {
+        this(validator, null);
+    }
+
+    @Autowired
+    public ItemPatchValidator(LocalValidatorFactoryBean validator, FailFastValidator failFastValidator) {
+        this.validator = validator;
+        this.failFastValidator = failFastValidator;
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return ItemPatchForm.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        ItemPatchForm form = (ItemPatchForm) target;
+        ItemUpdateForm updateForm = toUpdateForm(form);
+
+        // 들어오지 않은 필드의 @NotNull 등은 무시한다.
+        BeanPropertyBindingResult result = new BeanPropertyBindingResult(updateForm, errors.getObjectName());
+        validator.validate(updateForm, result);
+        copyFieldErrors(form, result, errors);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors, Object... validationHints) {
+        if (failFastValidator == null || !Arrays.asList(validationHints).contains(UpdateCheck.FailFast.class)) {
+            validate(target, errors);
+            return;
+        }
+        ItemPatchForm form = (ItemPatchForm) target;
+        ItemUpdateForm updateForm = toUpdateForm(form);
+
+        // 들어온 필드의 제약만 본다. 복합 룰, 상품명 중복은 여기서 보지 않으므로 저장소를 조회하지 않는다.
+        BeanPropertyBindingResult result = new BeanPropertyBindingResult(updateForm, errors.getObjectName());
+        for (String field : FIELDS) {
+            if (form.isPresent(field)) {
+                failFastValidator.validateField(updateForm, field, result, UpdateCheck.FailFast.class);
+                if (result.hasErrors()) {
+                    break;
+                }
+            }
+        }
+        copyFieldErrors(form, result, errors);
+    }
+
+    private static ItemUpdateForm toUpdateForm(ItemPatchForm form) {
+        ItemUpdateForm updateForm = new ItemUpdateForm();
+        updateForm.setItemName(form.getItemName());
+        updateForm.setPrice(form.getPrice());
+        updateForm.setQuantity(form.getQuantity());
+        return updateForm;
+    }
+
+    private static void copyFieldErrors(ItemPatchForm form, BeanPropertyBindingResult result, Errors errors) {
+        for (FieldError error : result.getFieldErrors()) {
+            // 상품명 중복은 id 를 아는 저장소가 patch() 안에서 확인한다. (DUPLICATE_NAME)
+            if ("UniqueItemName".equals(error.getCode())) {
+                continue;
+            }
+            if (form.isPresent(error.getField())) {
+                errors.rejectValue(error.getField(), error.getCode(), error.getArguments(), error.getDefaultMessage());
+            }
+        }
+    }
+
+    /**
+     * 저장된 상품에 요청을 합친 상태로 복합 룰을 검증한다.
+     *
+     * @return 통과하면 true
+     */
+    public boolean validateMerged(Item merged, Errors errors) {
+        boolean valid = true;
+        for (MergedRule rule : MERGED_RULES) {
+            Object[] arguments = rule.expression().check(merged);
+            if (arguments != null) {
+                errors.reject(rule.errorCode(), arguments, null);
+                valid = false;
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * 바꾼 결과 전체를 수정 폼({@link ItemUpdateForm})의 필드 규칙과 복합 룰로 검증한다.
+     * 일괄 조정처럼 폼 없이 값을 바꿀 때 사용한다. 상품명 중복은 저장소가 확인하므로 보지 않는다.
+     *
+     * @return 통과하면 true
+     */
+    public boolean validateUpdate(Item item, Errors errors) {
+        ItemUpdateForm updateForm = new ItemUpdateForm();
+        updateForm.setId(item.getId());
+        updateForm.setItemName(item.getItemName());
+        updateForm.setPrice(item.getPrice());
+        updateForm.setQuantity(item.getQuantity());
+
+        BeanPropertyBindingResult result = new BeanPropertyBindingResult(updateForm, errors.getObjectName());
+        validator.validate(updateForm, result);
+        boolean valid = true;
+        for (ObjectError error : result.getAllErrors()) {
+            if ("UniqueItemName".equals(error.getCode())) {
+                continue;
+            }
+            if (error instanceof FieldError fieldError) {
+                errors.rejectValue(fieldError.getField(), fieldError.getCode(), fieldError.getArguments(), fieldError.getDefaultMessage());
+            } else {
+                errors.reject(error.getCode(), error.getArguments(), error.getDefaultMessage());
+            }
+            valid = false;
+        }
+        return valid;
+    }
+
+    private record MergedRule(CompiledExpression expression, String errorCode) {
+    }
+}
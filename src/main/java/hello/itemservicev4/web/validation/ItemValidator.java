@@ -1,6 +1,7 @@
 package hello.itemservicev4.web.validation;
 
 import hello.itemservicev4.domain.item.Item;
+import hello.itemservicev4.validation.CompiledExpression;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.validation.Errors;
@@ -9,6 +10,8 @@ import org.springframework.validation.Validator;
 @Component
 public class ItemValidator implements Validator {
 
+    private static final CompiledExpression TOTAL_PRICE_MIN = CompiledExpression.compile("price * quantity >= 10000", Item.class);
+
     @Override
     public boolean supports(Class<?> clazz) {
         // 자식 클래스도 매칭 가능
@@ -36,15 +39,12 @@ public class ItemValidator implements Validator {
             errors.rejectValue("quantity", "max", new Object[]{9999}, null);
         }
 
-        // 특정 필드가 아닌 복합 룰 검증
-        // 가격이 있으면서 수량도 있으면
-        if (item.getPrice() != null && item.getQuantity() != null) {
-            int resultPrice = item.getPrice() * item.getQuantity();
-            // 가격 * 수량이 10,000 보다 작으면
-            if (resultPrice < 10000) {
-                // 특정 필드랑 비교하기 어려움 -> global 오류
-                errors.reject("totalPriceMin", new Object[]{10000, resultPrice}, null);
-            }
+        // 특정 필드가 아닌 복합 룰 검증 (가격, 수량 중 하나라도 없으면 검증하지 않음)
+        // 가격 * 수량이 10,000 보다 작으면 {10000, 가격 * 수량} 이 반환된다.
+        Object[] totalPrice = TOTAL_PRICE_MIN.check(item);
+        if (totalPrice != null) {
+            // 특정 필드랑 비교하기 어려움 -> global 오류
+            errors.reject("totalPriceMin", totalPrice, null);
         }
 
     }
@@ -1,30 +1,138 @@
 package hello.itemservicev4.web.validation;
 
+import hello.itemservicev4.domain.item.Item;
+import hello.itemservicev4.domain.item.ItemPatchResult;
+import hello.itemservicev4.domain.item.ItemRepository;
+import hello.itemservicev4.domain.item.SaveCheck;
+import hello.itemservicev4.domain.item.StockResult;
+import hello.itemservicev4.domain.item.UpdateCheck;
+import hello.itemservicev4.validation.FailFastValidator;
+import hello.itemservicev4.web.validation.error.ValidationErrors;
+import hello.itemservicev4.web.validation.form.ItemPatchForm;
 import hello.itemservicev4.web.validation.form.ItemSaveForm;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.MessageSource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.WebDataBinder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.InitBinder;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+import java.util.Locale;
+
 @Slf4j
 @RestController
 @RequestMapping("/validation/api/items")
+@RequiredArgsConstructor
 public class ValidationApiController {
 
+    private final ItemRepository itemRepository;
+    private final MessageSource messageSource;
+    private final ItemPatchValidator itemPatchValidator;
+    private final FailFastValidator failFastValidator;
+
+    @InitBinder("itemPatchForm")
+    public void initPatch(WebDataBinder dataBinder) {
+        dataBinder.addValidators(itemPatchValidator);
+    }
+
+    /**
+     * API 는 첫 오류만 돌려주면 되므로 첫 위반에서 멈춘다. (HTML 폼은 Default 로 모든 오류를 모은다.)
+     */
+    @InitBinder("itemSaveForm")
+    public void initSave(WebDataBinder dataBinder) {
+        dataBinder.replaceValidators(failFastValidator);
+    }
+
+    /**
+     * 값이 있는지 → 범위 → 가격 * 수량, 상품명 중복 순으로 검사하고 처음 걸린 오류 하나만 응답한다.
+     */
     @PostMapping("/add")
-    public Object addItem(@Validated @RequestBody ItemSaveForm form, BindingResult bindingResult) {
+    public Object addItem(@Validated(SaveCheck.FailFast.class) @RequestBody ItemSaveForm form, BindingResult bindingResult, Locale locale) {
 
         log.info("API 컨트롤러 호출");
 
         if (bindingResult.hasErrors()) {
             log.info("검증 오류 발생 errors={}", bindingResult);
-            return bindingResult.getAllErrors();
+            // 필드, 코드, 메시지, 거절된 값만 응답 (JSON, Smile, CBOR)
+            return ValidationErrors.of(bindingResult, messageSource, locale);
         }
 
         log.info("성공 로직 실행");
         return form;
     }
+
+    /**
+     * 요청에 들어온 필드만 검증하고 반영한다. 가격 * 수량 규칙은 저장된 값과 합친 상태로 검증한다.
+     * 필드는 값이 있는지 → 범위 순으로 보고 처음 걸린 필드의 오류만 응답한다. (UpdateCheck.FailFast)
+     * 바뀐 값이 없으면 저장하지 않는다. (status = UNCHANGED)
+     */
+    @PatchMapping("/{itemId}")
+    public ResponseEntity<Object> patchItem(@PathVariable Long itemId, @Validated(UpdateCheck.FailFast.class) @RequestBody ItemPatchForm form,
+                                            BindingResult bindingResult, Locale locale) {
+        if (bindingResult.hasErrors()) {
+            return ResponseEntity.ok(ValidationErrors.of(bindingResult, messageSource, locale));
+        }
+
+        ItemPatchResult result = itemRepository.patch(itemId, form.toPatch(),
+                merged -> itemPatchValidator.validateMerged(merged, bindingResult));
+        return switch (result.status()) {
+            case NOT_FOUND -> ResponseEntity.notFound().build();
+            case REJECTED -> ResponseEntity.ok(ValidationErrors.of(bindingResult, messageSource, locale));
+            case DUPLICATE_NAME -> {
+                bindingResult.rejectValue("itemName", "UniqueItemName");
+                yield ResponseEntity.ok(ValidationErrors.of(bindingResult, messageSource, locale));
+            }
+            default -> ResponseEntity.ok(result);
+        };
+    }
+
+    /**
+     * 재고 예약. 재고가 모자라면 409
+     */
+    @PostMapping("/{itemId}/reserve")
+    public ResponseEntity<StockResult> reserve(@PathVariable Long itemId, @RequestParam(defaultValue = "1") int quantity) {
+        if (quantity <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return toResponse(itemRepository.reserve(itemId, quantity));
+    }
+
+    /**
+     * 예약한 재고 반환. 예약된 수량보다 많으면 409
+     */
+    @PostMapping("/{itemId}/release")
+    public ResponseEntity<StockResult> release(@PathVariable Long itemId, @RequestParam(defaultValue = "1") int quantity) {
+        if (quantity <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return toResponse(itemRepository.release(itemId, quantity));
+    }
+
+    /**
+     * 상품명 부분 검색 (순위순)
+     */
+    @GetMapping("/search")
+    public List<Item> search(@RequestParam String q, @RequestParam(defaultValue = "20") int limit) {
+        return itemRepository.search(q, Math.min(limit, 100));
+    }
+
+    private static ResponseEntity<StockResult> toResponse(StockResult result) {
+        return switch (result.status()) {
+            case OK -> ResponseEntity.ok(result);
+            case INSUFFICIENT, NOT_RESERVED -> ResponseEntity.status(HttpStatus.CONFLICT).body(result);
+            case NOT_FOUND -> ResponseEntity.notFound().build();
+        };
+    }
 }
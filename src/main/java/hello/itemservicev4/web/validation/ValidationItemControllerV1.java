@@ -11,7 +11,6 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @Slf4j
@@ -24,7 +23,8 @@ public class ValidationItemControllerV1 {
 
     @GetMapping
     public String items(Model model) {
-        List<Item> items = itemRepository.findAll();
+        // 렌더링하면서 한 건씩 읽는다. (전체 목록을 미리 만들지 않음)
+        Iterable<Item> items = itemRepository.iterateAll();
         model.addAttribute("items", items);
         return "validation/v1/items";
     }
@@ -2,6 +2,7 @@ package hello.itemservicev4.web.validation;
 
 import hello.itemservicev4.domain.item.Item;
 import hello.itemservicev4.domain.item.ItemRepository;
+import hello.itemservicev4.web.validation.event.ValidationEventLogger;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Controller;
@@ -16,7 +17,6 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @Slf4j
@@ -26,6 +26,7 @@ import java.util.Map;
 public class ValidationItemControllerV2 {
 
     private final ItemRepository itemRepository;
+    private final ValidationEventLogger validationEventLogger;
     private final ItemValidator itemValidator;
 
     // 컨트롤러가 호출될 때마다 검증기를 넣음.
@@ -36,7 +37,8 @@ public class ValidationItemControllerV2 {
 
     @GetMapping
     public String items(Model model) {
-        List<Item> items = itemRepository.findAll();
+        // 렌더링하면서 한 건씩 읽는다. (전체 목록을 미리 만들지 않음)
+        Iterable<Item> items = itemRepository.iterateAll();
         model.addAttribute("items", items);
         return "validation/v2/items";
     }
@@ -89,7 +91,7 @@ public class ValidationItemControllerV2 {
         // 검증에 실패하면 다시 입력 폼으로
         // errors 가 있으면
         if (bindingResult.hasErrors()) {
-            log.info("errors = {} ", bindingResult);
+            validationEventLogger.log("v2.addItemV1", bindingResult);
             // bindingResult 는 자동으로 view 에 넘어감.
 //            model.addAttribute("errors", errors);
             return "validation/v2/addForm";
@@ -138,7 +140,7 @@ public class ValidationItemControllerV2 {
         // 검증에 실패하면 다시 입력 폼으로
         // errors 가 있으면
         if (bindingResult.hasErrors()) {
-            log.info("errors = {} ", bindingResult);
+            validationEventLogger.log("v2.addItemV2", bindingResult);
             // bindingResult 는 자동으로 view 에 넘어감.
 //            model.addAttribute("errors", errors);
             return "validation/v2/addForm";
@@ -187,7 +189,7 @@ public class ValidationItemControllerV2 {
         // 검증에 실패하면 다시 입력 폼으로
         // errors 가 있으면
         if (bindingResult.hasErrors()) {
-            log.info("errors = {} ", bindingResult);
+            validationEventLogger.log("v2.addItemV3", bindingResult);
             // bindingResult 는 자동으로 view 에 넘어감.
 //            model.addAttribute("errors", errors);
             return "validation/v2/addForm";
@@ -236,7 +238,7 @@ public class ValidationItemControllerV2 {
         // 검증에 실패하면 다시 입력 폼으로
         // errors 가 있으면
         if (bindingResult.hasErrors()) {
-            log.info("errors = {} ", bindingResult);
+            validationEventLogger.log("v2.addItemV4", bindingResult);
             // bindingResult 는 자동으로 view 에 넘어감.
 //            model.addAttribute("errors", errors);
             return "validation/v2/addForm";
@@ -261,7 +263,7 @@ public class ValidationItemControllerV2 {
         // 검증에 실패하면 다시 입력 폼으로
         // errors 가 있으면
         if (bindingResult.hasErrors()) {
-            log.info("errors = {} ", bindingResult);
+            validationEventLogger.log("v2.addItemV5", bindingResult);
             // bindingResult 는 자동으로 view 에 넘어감.
 //            model.addAttribute("errors", errors);
             return "validation/v2/addForm";
@@ -285,7 +287,7 @@ public class ValidationItemControllerV2 {
         // 검증에 실패하면 다시 입력 폼으로
         // errors 가 있으면
         if (bindingResult.hasErrors()) {
-            log.info("errors = {} ", bindingResult);
+            validationEventLogger.log("v2.addItemV6", bindingResult);
             // bindingResult 는 자동으로 view 에 넘어감.
 //            model.addAttribute("errors", errors);
             return "validation/v2/addForm";
@@ -4,6 +4,7 @@ import hello.itemservicev4.domain.item.Item;
 import hello.itemservicev4.domain.item.ItemRepository;
 import hello.itemservicev4.domain.item.SaveCheck;
 import hello.itemservicev4.domain.item.UpdateCheck;
+import hello.itemservicev4.web.validation.event.ValidationEventLogger;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Controller;
@@ -17,8 +18,6 @@ import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.util.List;
-
 @Slf4j
 @Controller
 @RequestMapping("/validation/v3/items")
@@ -26,10 +25,12 @@ import java.util.List;
 public class ValidationItemControllerV3 {
 
     private final ItemRepository itemRepository;
+    private final ValidationEventLogger validationEventLogger;
 
     @GetMapping
     public String items(Model model) {
-        List<Item> items = itemRepository.findAll();
+        // 렌더링하면서 한 건씩 읽는다. (전체 목록을 미리 만들지 않음)
+        Iterable<Item> items = itemRepository.iterateAll();
         model.addAttribute("items", items);
         return "validation/v3/items";
     }
@@ -68,7 +69,7 @@ public class ValidationItemControllerV3 {
         // 검증에 실패하면 다시 입력 폼으로
         // errors 가 있으면
         if (bindingResult.hasErrors()) {
-            log.info("errors = {} ", bindingResult);
+            validationEventLogger.log("v3.addItem", bindingResult);
             // bindingResult 는 자동으로 view 에 넘어감.
 //            model.addAttribute("errors", errors);
             return "validation/v3/addForm";
@@ -89,21 +90,12 @@ public class ValidationItemControllerV3 {
         // @Validated 는 Item 에 대해서 검증을 수행한다.
         // 검증을 하고 bindResult 에 결과 값이 담긴다.
 
-        // 특정 필드가 아닌 복합 룰 검증
-        // 가격이 있으면서 수량도 있으면
-        if (item.getPrice() != null && item.getQuantity() != null) {
-            int resultPrice = item.getPrice() * item.getQuantity();
-            // 가격 * 수량이 10,000 보다 작으면
-            if (resultPrice < 10000) {
-                // 특정 필드랑 비교하기 어려움 -> global 오류
-                bindingResult.reject("totalPriceMin", new Object[]{10000, resultPrice}, null);
-            }
-        }
+        // 가격 * 수량 복합 룰은 @ExpressionAssert 로 검증한다.
 
         // 검증에 실패하면 다시 입력 폼으로
         // errors 가 있으면
         if (bindingResult.hasErrors()) {
-            log.info("errors = {} ", bindingResult);
+            validationEventLogger.log("v3.addItemV2", bindingResult);
             // bindingResult 는 자동으로 view 에 넘어감.
 //            model.addAttribute("errors", errors);
             return "validation/v3/addForm";
@@ -141,7 +133,7 @@ public class ValidationItemControllerV3 {
         // 검증에 실패하면 다시 입력 폼으로
         // errors 가 있으면
         if (bindingResult.hasErrors()) {
-            log.info("errors = {} ", bindingResult);
+            validationEventLogger.log("v3.edit", bindingResult);
             // bindingResult 는 자동으로 view 에 넘어감.
 //            model.addAttribute("errors", errors);
             return "validation/v3/editForm";
@@ -154,21 +146,12 @@ public class ValidationItemControllerV3 {
     @PostMapping("/{itemId}/edit")
     public String editV2(@PathVariable Long itemId, @Validated(UpdateCheck.class) @ModelAttribute Item item, BindingResult bindingResult) {
 
-        // 특정 필드가 아닌 복합 룰 검증
-        // 가격이 있으면서 수량도 있으면
-        if (item.getPrice() != null && item.getQuantity() != null) {
-            int resultPrice = item.getPrice() * item.getQuantity();
-            // 가격 * 수량이 10,000 보다 작으면
-            if (resultPrice < 10000) {
-                // 특정 필드랑 비교하기 어려움 -> global 오류
-                bindingResult.reject("totalPriceMin", new Object[]{10000, resultPrice}, null);
-            }
-        }
+        // 가격 * 수량 복합 룰은 @ExpressionAssert 로 검증한다.
 
         // 검증에 실패하면 다시 입력 폼으로
         // errors 가 있으면
         if (bindingResult.hasErrors()) {
-            log.info("errors = {} ", bindingResult);
+            validationEventLogger.log("v3.editV2", bindingResult);
             // bindingResult 는 자동으로 view 에 넘어감.
 //            model.addAttribute("errors", errors);
             return "validation/v3/editForm";
@@ -1,22 +1,27 @@
 package hello.itemservicev4.web.validation;
 
+import hello.itemservicev4.domain.item.DuplicateItemNameException;
 import hello.itemservicev4.domain.item.Item;
+import hello.itemservicev4.domain.item.ItemPatch;
+import hello.itemservicev4.domain.item.ItemPatchResult;
 import hello.itemservicev4.domain.item.ItemRepository;
 import hello.itemservicev4.domain.item.SaveCheck;
 import hello.itemservicev4.domain.item.UpdateCheck;
+import hello.itemservicev4.web.validation.event.ValidationEventLogger;
 import hello.itemservicev4.web.validation.form.ItemSaveForm;
 import hello.itemservicev4.web.validation.form.ItemUpdateForm;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.util.StringUtils;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.util.List;
-
 @Slf4j
 @Controller
 @RequestMapping("/validation/v4/items")
@@ -24,11 +29,15 @@ import java.util.List;
 public class ValidationItemControllerV4 {
 
     private final ItemRepository itemRepository;
+    private final ValidationEventLogger validationEventLogger;
 
     @GetMapping
-    public String items(Model model) {
-        List<Item> items = itemRepository.findAll();
+    public String items(@RequestParam(required = false) String q, Model model) {
+        // 검색어가 있으면 상품명 색인으로 검색
+        // 검색어가 없으면 렌더링하면서 한 건씩 읽는다. (전체 목록을 미리 만들지 않음)
+        Iterable<Item> items = StringUtils.hasText(q) ? itemRepository.search(q, 100) : itemRepository.iterateAll();
         model.addAttribute("items", items);
+        model.addAttribute("q", q);
         return "validation/v4/items";
     }
 
@@ -52,21 +61,12 @@ public class ValidationItemControllerV4 {
         // @Validated 는 Item 에 대해서 검증을 수행한다.
         // 검증을 하고 bindResult 에 결과 값이 담긴다.
 
-        // 특정 필드가 아닌 복합 룰 검증
-        // 가격이 있으면서 수량도 있으면
-        if (form.getPrice() != null && form.getQuantity() != null) {
-            int resultPrice = form.getPrice() * form.getQuantity();
-            // 가격 * 수량이 10,000 보다 작으면
-            if (resultPrice < 10000) {
-                // 특정 필드랑 비교하기 어려움 -> global 오류
-                bindingResult.reject("totalPriceMin", new Object[]{10000, resultPrice}, null);
-            }
-        }
+        // 가격 * 수량 복합 룰은 @ExpressionAssert 로 검증한다.
 
         // 검증에 실패하면 다시 입력 폼으로
         // errors 가 있으면
         if (bindingResult.hasErrors()) {
-            log.info("errors = {} ", bindingResult);
+            validationEventLogger.log("v4.addItem", bindingResult);
             // bindingResult 는 자동으로 view 에 넘어감.
 //            model.addAttribute("errors", errors);
             return "validation/v4/addForm";
@@ -78,7 +78,14 @@ public class ValidationItemControllerV4 {
         item.setPrice(form.getPrice());
         item.setQuantity(form.getQuantity());
 
-        Item savedItem = itemRepository.save(item);
+        Item savedItem;
+        try {
+            savedItem = itemRepository.save(item);
+        } catch (DuplicateItemNameException e) {
+            // 검증을 통과한 뒤 같은 이름이 먼저 저장된 경우
+            bindingResult.rejectValue("itemName", "UniqueItemName");
+            return "validation/v4/addForm";
+        }
         redirectAttributes.addAttribute("itemId", savedItem.getId());
         redirectAttributes.addAttribute("status", true);
         return "redirect:/validation/v4/items/{itemId}";
@@ -87,28 +94,19 @@ public class ValidationItemControllerV4 {
     @GetMapping("/{itemId}/edit")
     public String editForm(@PathVariable Long itemId, Model model) {
         Item item = itemRepository.findById(itemId);
-        model.addAttribute("item", item);
+        model.addAttribute("item", item == null ? null : toUpdateForm(item));
         return "validation/v4/editForm";
     }
 
     @PostMapping("/{itemId}/edit")
     public String edit(@PathVariable Long itemId, @Validated @ModelAttribute("item") ItemUpdateForm form, BindingResult bindingResult) {
 
-        // 특정 필드가 아닌 복합 룰 검증
-        // 가격이 있으면서 수량도 있으면
-        if (form.getPrice() != null && form.getQuantity() != null) {
-            int resultPrice = form.getPrice() * form.getQuantity();
-            // 가격 * 수량이 10,000 보다 작으면
-            if (resultPrice < 10000) {
-                // 특정 필드랑 비교하기 어려움 -> global 오류
-                bindingResult.reject("totalPriceMin", new Object[]{10000, resultPrice}, null);
-            }
-        }
+        // 가격 * 수량 복합 룰은 @ExpressionAssert 로 검증한다.
 
         // 검증에 실패하면 다시 입력 폼으로
         // errors 가 있으면
         if (bindingResult.hasErrors()) {
-            log.info("errors = {} ", bindingResult);
+            validationEventLogger.log("v4.edit", bindingResult);
             // bindingResult 는 자동으로 view 에 넘어감.
 //            model.addAttribute("errors", errors);
             return "validation/v4/editForm";
@@ -119,8 +117,28 @@ public class ValidationItemControllerV4 {
         itemParam.setPrice(form.getPrice());
         itemParam.setQuantity(form.getQuantity());
 
-        itemRepository.update(itemId, itemParam);
-        return "redirect:/validation/v4/items/{itemId}";
+        // 바뀐 필드만 반영하고, 바뀐 값이 없으면 저장하지 않는다.
+        // 수량은 폼을 연 뒤 예약된 재고를 덮지 않도록 폼에서 바꾼 만큼만 반영한다.
+        ItemPatch patch = ItemPatch.of(itemParam).quantity(form.getQuantity(), form.getOriginalQuantity());
+        ItemPatchResult result = itemRepository.patch(itemId, patch, null);
+        return switch (result.status()) {
+            // 폼을 연 사이 상품이 지워진 경우
+            case NOT_FOUND -> throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+            case DUPLICATE_NAME -> {
+                bindingResult.rejectValue("itemName", "UniqueItemName");
+                yield "validation/v4/editForm";
+            }
+            default -> "redirect:/validation/v4/items/{itemId}";
+        };
     }
-}
 
+    private static ItemUpdateForm toUpdateForm(Item item) {
+        ItemUpdateForm form = new ItemUpdateForm();
+        form.setId(item.getId());
+        form.setItemName(item.getItemName());
+        form.setPrice(item.getPrice());
+        form.setQuantity(item.getQuantity());
+        form.setOriginalQuantity(item.getQuantity());
+        return form;
+    }
+}
@@ -0,0 +1,36 @@
+package hello.itemservicev4.web.validation.binder;
+
+import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.util.NumberUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.validation.FieldError;
+
+/**
+ * 타입 변환과 typeMismatch 오류 생성은 스프링 DataBinder 와 같은 규칙을 따른다.
+ * - 빈 문자열, 공백뿐인 문자열은 null (CustomNumberEditor), 나머지는 StringToNumberConverterFactory 처럼 {@link NumberUtils#parseNumber} 로 변환
+ *   (앞뒤 공백 제거, "0x"/"#" 로 시작하면 16진수)
+ * - 변환 실패 시 typeMismatch 코드, 입력값은 rejectedValue 로 보관 (bindingFailure = true)
+ */
+public abstract class AbstractFormBinder<T> implements FormBinder<T> {
+
+    protected static Integer toInteger(String text) {
+        return !StringUtils.hasText(text) ? null : NumberUtils.parseNumber(text, Integer.class);
+    }
+
+    protected static Long toLong(String text) {
+        return !StringUtils.hasText(text) ? null : NumberUtils.parseNumber(text, Long.class);
+    }
+
+    protected static void rejectTypeMismatch(FormBindingResult<?> bindingResult, String field, String value,
+                                             Class<?> requiredType, NumberFormatException cause) {
+        String objectName = bindingResult.getObjectName();
+        String[] codes = bindingResult.resolveMessageCodes("typeMismatch", field);
+        Object[] arguments = {new DefaultMessageSourceResolvable(new String[]{objectName + "." + field, field}, field)};
+        String defaultMessage = "Failed to convert property value of type 'java.lang.String' to required type '"
+                + requiredType.getName() + "' for property '" + field + "'; " + cause.getMessage();
+
+        FieldError error = new FieldError(objectName, field, value, true, codes, arguments, defaultMessage);
+        error.wrap(cause);
+        bindingResult.addError(error);
+    }
+}
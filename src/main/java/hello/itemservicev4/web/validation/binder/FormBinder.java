@@ -0,0 +1,23 @@
+package hello.itemservicev4.web.validation.binder;
+
+/**
+ * 리플렉션 없이 요청 파라미터를 폼 객체에 바인딩한다.
+ * 폼 클래스마다 setter/getter 를 직접 호출하는 구현을 하나씩 둔다.
+ */
+public interface FormBinder<T> {
+
+    Class<T> getType();
+
+    T newInstance();
+
+    void bind(T target, ParameterSource parameters, FormBindingResult<T> bindingResult);
+
+    Object getFieldValue(T target, String field);
+
+    Class<?> getFieldType(String field);
+
+    @FunctionalInterface
+    interface ParameterSource {
+        String getParameter(String name);
+    }
+}
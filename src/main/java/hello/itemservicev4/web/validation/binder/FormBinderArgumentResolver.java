@@ -0,0 +1,94 @@
+package hello.itemservicev4.web.validation.binder;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.Errors;
+import org.springframework.validation.SmartValidator;
+import org.springframework.validation.Validator;
+import org.springframework.validation.annotation.ValidationAnnotationUtils;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.WebDataBinder;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.annotation.ModelFactory;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.lang.annotation.Annotation;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link FormBinder} 가 있는 타입의 @ModelAttribute 를 처리한다.
+ * 바인딩은 FormBinder 로 직접 하고, 검증은 WebDataBinder 에 등록된 검증기(@InitBinder, Bean Validation)를 그대로 사용한다.
+ */
+@Component
+public class FormBinderArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final Map<Class<?>, FormBinder<?>> binders = new HashMap<>();
+
+    public FormBinderArgumentResolver(List<FormBinder<?>> binders) {
+        for (FormBinder<?> binder : binders) {
+            this.binders.put(binder.getType(), binder);
+        }
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(ModelAttribute.class)
+                && binders.containsKey(parameter.getParameterType());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) throws Exception {
+        FormBinder<Object> formBinder = (FormBinder<Object>) binders.get(parameter.getParameterType());
+        String name = ModelFactory.getNameForParameter(parameter);
+
+        Object target = mavContainer.containsAttribute(name) ? mavContainer.getModel().get(name) : formBinder.newInstance();
+        FormBindingResult<Object> bindingResult = new FormBindingResult<>(target, name, formBinder);
+        formBinder.bind(target, webRequest::getParameter, bindingResult);
+
+        validateIfApplicable(binderFactory.createBinder(webRequest, target, name), parameter, bindingResult);
+        if (bindingResult.hasErrors() && isBindExceptionRequired(parameter)) {
+            throw new MethodArgumentNotValidException(parameter, bindingResult);
+        }
+
+        // BindingResult 파라미터와 뷰에서 찾을 수 있도록 모델에 등록
+        Map<String, Object> bindingResultModel = bindingResult.getModel();
+        mavContainer.removeAttributes(bindingResultModel);
+        mavContainer.addAllAttributes(bindingResultModel);
+        return target;
+    }
+
+    private void validateIfApplicable(WebDataBinder binder, MethodParameter parameter, FormBindingResult<Object> bindingResult) {
+        Object target = bindingResult.getTarget();
+        for (Annotation annotation : parameter.getParameterAnnotations()) {
+            Object[] hints = ValidationAnnotationUtils.determineValidationHints(annotation);
+            if (hints == null) {
+                continue;
+            }
+            for (Validator validator : binder.getValidators()) {
+                if (!validator.supports(target.getClass())) {
+                    continue;
+                }
+                if (hints.length > 0 && validator instanceof SmartValidator smartValidator) {
+                    smartValidator.validate(target, bindingResult, hints);
+                } else {
+                    validator.validate(target, bindingResult);
+                }
+            }
+            return;
+        }
+    }
+
+    private boolean isBindExceptionRequired(MethodParameter parameter) {
+        int i = parameter.getParameterIndex();
+        Class<?>[] paramTypes = parameter.getExecutable().getParameterTypes();
+        boolean hasBindingResult = paramTypes.length > i + 1 && Errors.class.isAssignableFrom(paramTypes[i + 1]);
+        return !hasBindingResult;
+    }
+}
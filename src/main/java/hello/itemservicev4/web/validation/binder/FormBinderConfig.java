@@ -0,0 +1,32 @@
+package hello.itemservicev4.web.validation.binder;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 기본 @ModelAttribute 처리기보다 먼저 동작하도록 {@link FormBinderArgumentResolver} 를 맨 앞에 등록한다.
+ * form.binder.enabled=false 면 스프링 기본 바인딩을 사용한다.
+ */
+@Configuration
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "form.binder.enabled", havingValue = "true", matchIfMissing = true)
+public class FormBinderConfig implements SmartInitializingSingleton {
+
+    private final RequestMappingHandlerAdapter handlerAdapter;
+    private final FormBinderArgumentResolver formBinderArgumentResolver;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<HandlerMethodArgumentResolver> resolvers = new ArrayList<>();
+        resolvers.add(formBinderArgumentResolver);
+        resolvers.addAll(handlerAdapter.getArgumentResolvers());
+        handlerAdapter.setArgumentResolvers(resolvers);
+    }
+}
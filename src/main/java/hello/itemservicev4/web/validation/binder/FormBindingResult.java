@@ -0,0 +1,34 @@
+package hello.itemservicev4.web.validation.binder;
+
+import org.springframework.validation.AbstractBindingResult;
+
+/**
+ * BeanWrapper 대신 {@link FormBinder} 로 필드 값과 타입을 조회하는 BindingResult
+ */
+public class FormBindingResult<T> extends AbstractBindingResult {
+
+    private final T target;
+    private final transient FormBinder<T> binder;
+
+    public FormBindingResult(T target, String objectName, FormBinder<T> binder) {
+        super(objectName);
+        this.target = target;
+        this.binder = binder;
+    }
+
+    @Override
+    public T getTarget() {
+        return target;
+    }
+
+    @Override
+    protected Object getActualFieldValue(String field) {
+        return binder.getFieldValue(target, field);
+    }
+
+    @Override
+    public Class<?> getFieldType(String field) {
+        Class<?> type = binder.getFieldType(field);
+        return type != null ? type : super.getFieldType(field);
+    }
+}
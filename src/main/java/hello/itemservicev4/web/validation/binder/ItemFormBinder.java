@@ -0,0 +1,71 @@
+package hello.itemservicev4.web.validation.binder;
+
+import hello.itemservicev4.domain.item.Item;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ItemFormBinder extends AbstractFormBinder<Item> {
+
+    @Override
+    public Class<Item> getType() {
+        return Item.class;
+    }
+
+    @Override
+    public Item newInstance() {
+        return new Item();
+    }
+
+    @Override
+    public void bind(Item target, ParameterSource parameters, FormBindingResult<Item> bindingResult) {
+        String id = parameters.getParameter("id");
+        if (id != null) {
+            try {
+                target.setId(toLong(id));
+            } catch (NumberFormatException e) {
+                rejectTypeMismatch(bindingResult, "id", id, Long.class, e);
+            }
+        }
+        String itemName = parameters.getParameter("itemName");
+        if (itemName != null) {
+            target.setItemName(itemName);
+        }
+        String price = parameters.getParameter("price");
+        if (price != null) {
+            try {
+                target.setPrice(toInteger(price));
+            } catch (NumberFormatException e) {
+                rejectTypeMismatch(bindingResult, "price", price, Integer.class, e);
+            }
+        }
+        String quantity = parameters.getParameter("quantity");
+        if (quantity != null) {
+            try {
+                target.setQuantity(toInteger(quantity));
+            } catch (NumberFormatException e) {
+                rejectTypeMismatch(bindingResult, "quantity", quantity, Integer.class, e);
+            }
+        }
+    }
+
+    @Override
+    public Object getFieldValue(Item target, String field) {
+        return switch (field) {
+            case "id" -> target.getId();
+            case "itemName" -> target.getItemName();
+            case "price" -> target.getPrice();
+            case "quantity" -> target.getQuantity();
+            default -> null;
+        };
+    }
+
+    @Override
+    public Class<?> getFieldType(String field) {
+        return switch (field) {
+            case "id" -> Long.class;
+            case "itemName" -> String.class;
+            case "price", "quantity" -> Integer.class;
+            default -> null;
+        };
+    }
+}
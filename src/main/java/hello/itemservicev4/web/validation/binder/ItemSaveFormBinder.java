@@ -0,0 +1,61 @@
+package hello.itemservicev4.web.validation.binder;
+
+import hello.itemservicev4.web.validation.form.ItemSaveForm;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ItemSaveFormBinder extends AbstractFormBinder<ItemSaveForm> {
+
+    @Override
+    public Class<ItemSaveForm> getType() {
+        return ItemSaveForm.class;
+    }
+
+    @Override
+    public ItemSaveForm newInstance() {
+        return new ItemSaveForm();
+    }
+
+    @Override
+    public void bind(ItemSaveForm target, ParameterSource parameters, FormBindingResult<ItemSaveForm> bindingResult) {
+        String itemName = parameters.getParameter("itemName");
+        if (itemName != null) {
+            target.setItemName(itemName);
+        }
+        String price = parameters.getParameter("price");
+        if (price != null) {
+            try {
+                target.setPrice(toInteger(price));
+            } catch (NumberFormatException e) {
+                rejectTypeMismatch(bindingResult, "price", price, Integer.class, e);
+            }
+        }
+        String quantity = parameters.getParameter("quantity");
+        if (quantity != null) {
+            try {
+                target.setQuantity(toInteger(quantity));
+            } catch (NumberFormatException e) {
+                rejectTypeMismatch(bindingResult, "quantity", quantity, Integer.class, e);
+            }
+        }
+    }
+
+    @Override
+    public Object getFieldValue(ItemSaveForm target, String field) {
+        return switch (field) {
+            case "itemName" -> target.getItemName();
+            case "price" -> target.getPrice();
+            case "quantity" -> target.getQuantity();
+            default -> null;
+        };
+    }
+
+    @Override
+    public Class<?> getFieldType(String field) {
+        return switch (field) {
+            case "itemName" -> String.class;
+            case "price", "quantity" -> Integer.class;
+            default -> null;
+        };
+    }
+}
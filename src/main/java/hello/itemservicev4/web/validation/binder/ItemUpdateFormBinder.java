@@ -0,0 +1,80 @@
+package hello.itemservicev4.web.validation.binder;
+
+import hello.itemservicev4.web.validation.form.ItemUpdateForm;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ItemUpdateFormBinder extends AbstractFormBinder<ItemUpdateForm> {
+
+    @Override
+    public Class<ItemUpdateForm> getType() {
+        return ItemUpdateForm.class;
+    }
+
+    @Override
+    public ItemUpdateForm newInstance() {
+        return new ItemUpdateForm();
+    }
+
+    @Override
+    public void bind(ItemUpdateForm target, ParameterSource parameters, FormBindingResult<ItemUpdateForm> bindingResult) {
+        String id = parameters.getParameter("id");
+        if (id != null) {
+            try {
+                target.setId(toLong(id));
+            } catch (NumberFormatException e) {
+                rejectTypeMismatch(bindingResult, "id", id, Long.class, e);
+            }
+        }
+        String itemName = parameters.getParameter("itemName");
+        if (itemName != null) {
+            target.setItemName(itemName);
+        }
+        String price = parameters.getParameter("price");
+        if (price != null) {
+            try {
+                target.setPrice(toInteger(price));
+            } catch (NumberFormatException e) {
+                rejectTypeMismatch(bindingResult, "price", price, Integer.class, e);
+            }
+        }
+        String quantity = parameters.getParameter("quantity");
+        if (quantity != null) {
+            try {
+                target.setQuantity(toInteger(quantity));
+            } catch (NumberFormatException e) {
+                rejectTypeMismatch(bindingResult, "quantity", quantity, Integer.class, e);
+            }
+        }
+        String originalQuantity = parameters.getParameter("originalQuantity");
+        if (originalQuantity != null) {
+            try {
+                target.setOriginalQuantity(toInteger(originalQuantity));
+            } catch (NumberFormatException e) {
+                rejectTypeMismatch(bindingResult, "originalQuantity", originalQuantity, Integer.class, e);
+            }
+        }
+    }
+
+    @Override
+    public Object getFieldValue(ItemUpdateForm target, String field) {
+        return switch (field) {
+            case "id" -> target.getId();
+            case "itemName" -> target.getItemName();
+            case "price" -> target.getPrice();
+            case "quantity" -> target.getQuantity();
+            case "originalQuantity" -> target.getOriginalQuantity();
+            default -> null;
+        };
+    }
+
+    @Override
+    public Class<?> getFieldType(String field) {
+        return switch (field) {
+            case "id" -> Long.class;
+            case "itemName" -> String.class;
+            case "price", "quantity", "originalQuantity" -> Integer.class;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,12 @@
+package hello.itemservicev4.web.validation.error;
+
+/**
+ * API 검증 오류 한 건
+ *
+ * @param field         오류가 난 필드, 글로벌 오류면 null
+ * @param code          오류 코드 (NotBlank, Range, typeMismatch, totalPriceMin ...)
+ * @param message       메시지 소스로 미리 해석한 메시지
+ * @param rejectedValue 거절된 값, 글로벌 오류면 null
+ */
+public record ValidationError(String field, String code, String message, Object rejectedValue) {
+}
@@ -0,0 +1,31 @@
+package hello.itemservicev4.web.validation.error;
+
+import org.springframework.context.MessageSource;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.ObjectError;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * BindingResult 를 API 응답용으로 줄인 형태
+ * FieldError/ObjectError 를 그대로 직렬화하면 codes, arguments 등이 모두 들어가 응답이 커진다.
+ */
+public record ValidationErrors(List<ValidationError> errors) {
+
+    public static ValidationErrors of(BindingResult bindingResult, MessageSource messageSource, Locale locale) {
+        List<ObjectError> allErrors = bindingResult.getAllErrors();
+        List<ValidationError> errors = new ArrayList<>(allErrors.size());
+        for (ObjectError error : allErrors) {
+            String message = messageSource.getMessage(error, locale);
+            if (error instanceof FieldError fieldError) {
+                errors.add(new ValidationError(fieldError.getField(), fieldError.getCode(), message, fieldError.getRejectedValue()));
+            } else {
+                errors.add(new ValidationError(null, error.getCode(), message, null));
+            }
+        }
+        return new ValidationErrors(errors);
+    }
+}
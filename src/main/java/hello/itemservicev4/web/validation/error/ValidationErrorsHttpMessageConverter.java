@@ -0,0 +1,106 @@
+package hello.itemservicev4.web.validation.error;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * {@link ValidationErrors} 를 리플렉션 없이 Jackson 스트리밍 API 로 직접 쓴다.
+ * Accept 헤더에 따라 JSON, Smile, CBOR 중 하나로 응답한다.
+ */
+public class ValidationErrorsHttpMessageConverter extends AbstractHttpMessageConverter<ValidationErrors> {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final JsonFactory smileFactory = new SmileFactory();
+    private final JsonFactory cborFactory = new CBORFactory();
+
+    public ValidationErrorsHttpMessageConverter() {
+        super(MediaType.APPLICATION_JSON, APPLICATION_SMILE, MediaType.APPLICATION_CBOR);
+        // 응답 스트림은 컨테이너가 닫는다.
+        jsonFactory.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        smileFactory.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        cborFactory.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ValidationErrors.class == clazz;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected ValidationErrors readInternal(Class<? extends ValidationErrors> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("ValidationErrors is write-only", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(ValidationErrors validationErrors, HttpOutputMessage outputMessage) throws IOException {
+        writeTo(validationErrors, outputMessage.getHeaders().getContentType(), outputMessage.getBody());
+    }
+
+    public void writeTo(ValidationErrors validationErrors, MediaType contentType, OutputStream out) throws IOException {
+        try (JsonGenerator generator = factory(contentType).createGenerator(out, JsonEncoding.UTF8)) {
+            write(generator, validationErrors);
+        }
+    }
+
+    private JsonFactory factory(MediaType contentType) {
+        if (APPLICATION_SMILE.isCompatibleWith(contentType)) {
+            return smileFactory;
+        }
+        if (MediaType.APPLICATION_CBOR.isCompatibleWith(contentType)) {
+            return cborFactory;
+        }
+        return jsonFactory;
+    }
+
+    private static void write(JsonGenerator generator, ValidationErrors validationErrors) throws IOException {
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("errors");
+        for (ValidationError error : validationErrors.errors()) {
+            generator.writeStartObject();
+            if (error.field() != null) {
+                generator.writeStringField("field", error.field());
+            }
+            generator.writeStringField("code", error.code());
+            generator.writeStringField("message", error.message());
+            if (error.field() != null) {
+                generator.writeFieldName("rejectedValue");
+                writeValue(generator, error.rejectedValue());
+            }
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    private static void writeValue(JsonGenerator generator, Object value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof Integer i) {
+            generator.writeNumber(i);
+        } else if (value instanceof Long l) {
+            generator.writeNumber(l);
+        } else if (value instanceof Boolean b) {
+            generator.writeBoolean(b);
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+}
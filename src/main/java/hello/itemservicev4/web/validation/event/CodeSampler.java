@@ -0,0 +1,51 @@
+package hello.itemservicev4.web.validation.event;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 오류 코드 하나에 대한 샘플링(N 건 중 1 건)과 초당 최대 건수 제한
+ */
+final class CodeSampler {
+
+    private final int sampleRate;
+    private final int maxPerSecond;
+
+    private final AtomicLong seen = new AtomicLong();
+    private final AtomicLong suppressed = new AtomicLong();
+    // (현재 초 << 32 | 이번 초에 기록한 건수)
+    private final AtomicLong window = new AtomicLong();
+
+    CodeSampler(int sampleRate, int maxPerSecond) {
+        this.sampleRate = Math.max(1, sampleRate);
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    boolean tryAcquire(long nowMillis) {
+        if (seen.getAndIncrement() % sampleRate != 0 || !withinRate(nowMillis / 1000)) {
+            suppressed.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 마지막으로 호출한 뒤 버려진 건수
+     */
+    long drainSuppressed() {
+        return suppressed.getAndSet(0);
+    }
+
+    private boolean withinRate(long second) {
+        while (true) {
+            long current = window.get();
+            long count = current >>> 32 == (second & 0xFFFFFFFFL) ? current & 0xFFFFFFFFL : 0;
+            if (count >= maxPerSecond) {
+                return false;
+            }
+            long next = (second & 0xFFFFFFFFL) << 32 | (count + 1);
+            if (window.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package hello.itemservicev4.web.validation.event;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 여러 요청 스레드가 넣고, 하나의 스레드만 꺼내는 고정 크기 링 버퍼
+ * 가득 차면 기다리지 않고 버린다.
+ */
+final class EventRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    EventRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    boolean offer(E element) {
+        while (true) {
+            long t = tail.get();
+            if (t - head >= slots.length()) {
+                return false;
+            }
+            if (tail.compareAndSet(t, t + 1)) {
+                slots.set((int) t & mask, element);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 다음에 꺼낼 칸이 비었는지. 소비 스레드에서만 호출한다.
+     */
+    boolean isEmpty() {
+        return slots.get((int) head & mask) == null;
+    }
+
+    /**
+     * 소비 스레드 하나에서만 호출한다.
+     */
+    E poll() {
+        int index = (int) head & mask;
+        E element = slots.get(index);
+        if (element == null) {
+            return null;
+        }
+        slots.set(index, null);
+        head = head + 1;
+        return element;
+    }
+}
@@ -0,0 +1,13 @@
+package hello.itemservicev4.web.validation.event;
+
+/**
+ * 검증 실패 한 건의 구조화된 로그 이벤트
+ *
+ * @param handler    검증에 실패한 핸들러 (예: v4.addItem)
+ * @param objectName 검증 대상 이름 (예: item)
+ * @param fields     오류 필드, 글로벌 오류는 null
+ * @param codes      오류 코드
+ * @param timestamp  발생 시각 (epoch millis)
+ */
+public record ValidationEvent(String handler, String objectName, String[] fields, String[] codes, long timestamp) {
+}
@@ -0,0 +1,156 @@
+package hello.itemservicev4.web.validation.event;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.ObjectError;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 검증 실패 로그를 요청 스레드에서 직접 쓰지 않고 링 버퍼에 넣어 별도 스레드가 기록한다.
+ * 요청 스레드는 필드와 오류 코드만 꺼내고, BindingResult 전체를 문자열로 만들지 않는다.
+ * <p>
+ * 오류 코드마다 validation.log.sample-rate 건 중 1 건, 초당 validation.log.max-per-second 건까지만 기록한다.
+ * <p>
+ * 기록 스레드는 버퍼가 비면 잠들고, 요청 스레드가 이벤트를 넣을 때 깨운다. (비어 있는 동안 주기적으로 깨어나지 않는다)
+ */
+@Slf4j
+@Component
+public class ValidationEventLogger {
+
+    private final int sampleRate;
+    private final int maxPerSecond;
+    private final EventRingBuffer<ValidationEvent> buffer;
+    private final Map<String, CodeSampler> samplers = new ConcurrentHashMap<>();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private static final long REPORT_INTERVAL_MILLIS = 10_000;
+
+    private Thread drainer;
+    private volatile boolean running = true;
+    // 기록 스레드가 잠들기 직전에 true 로 바꾼다. 요청 스레드는 true 일 때만 깨운다.
+    private volatile boolean sleeping;
+
+    public ValidationEventLogger(@Value("${validation.log.sample-rate:1}") int sampleRate,
+                                 @Value("${validation.log.max-per-second:100}") int maxPerSecond,
+                                 @Value("${validation.log.buffer-size:4096}") int bufferSize) {
+        this.sampleRate = sampleRate;
+        this.maxPerSecond = maxPerSecond;
+        this.buffer = new EventRingBuffer<>(bufferSize);
+    }
+
+    @PostConstruct
+    public void start() {
+        drainer = new Thread(this::drain, "validation-event-logger");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    public void log(String handler, BindingResult bindingResult) {
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<ObjectError> errors = bindingResult.getAllErrors();
+        String[] fields = new String[errors.size()];
+        String[] codes = new String[errors.size()];
+        int sampled = 0;
+        for (ObjectError error : errors) {
+            // 코드 없이 메시지만 넣은 오류 (new FieldError(objectName, field, defaultMessage))
+            String code = error.getCode() != null ? error.getCode() : "defaultMessage";
+            if (!samplers.computeIfAbsent(code, k -> new CodeSampler(sampleRate, maxPerSecond)).tryAcquire(now)) {
+                continue;
+            }
+            fields[sampled] = error instanceof FieldError fieldError ? fieldError.getField() : null;
+            codes[sampled] = code;
+            sampled++;
+        }
+        if (sampled == 0) {
+            return;
+        }
+        if (sampled < errors.size()) {
+            fields = Arrays.copyOf(fields, sampled);
+            codes = Arrays.copyOf(codes, sampled);
+        }
+        if (!buffer.offer(new ValidationEvent(handler, bindingResult.getObjectName(), fields, codes, now))) {
+            dropped.incrementAndGet();
+        }
+        if (sleeping) {
+            LockSupport.unpark(drainer);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        running = false;
+        if (drainer != null) {
+            LockSupport.unpark(drainer);
+            drainer.join(1000);
+        }
+    }
+
+    private void drain() {
+        long lastReport = System.currentTimeMillis();
+        while (running) {
+            ValidationEvent event = buffer.poll();
+            if (event != null) {
+                write(event);
+            } else {
+                // sleeping 을 켠 뒤 한 번 더 확인해야, 그 사이 넣고 깨우지 않은 이벤트를 놓치지 않는다.
+                sleeping = true;
+                if (buffer.isEmpty() && running) {
+                    long untilReport = lastReport + REPORT_INTERVAL_MILLIS - System.currentTimeMillis();
+                    LockSupport.parkNanos(Math.max(1, untilReport) * 1_000_000);
+                }
+                sleeping = false;
+            }
+
+            long now = System.currentTimeMillis();
+            if (now - lastReport >= REPORT_INTERVAL_MILLIS) {
+                reportSuppressed();
+                lastReport = now;
+            }
+        }
+        ValidationEvent event;
+        while ((event = buffer.poll()) != null) {
+            write(event);
+        }
+        reportSuppressed();
+    }
+
+    private void write(ValidationEvent event) {
+        StringBuilder errors = new StringBuilder();
+        for (int i = 0; i < event.codes().length; i++) {
+            if (i > 0) {
+                errors.append(',');
+            }
+            errors.append(event.fields()[i] == null ? "global" : event.fields()[i]).append(':').append(event.codes()[i]);
+        }
+        log.info("event=validation_failed handler={} object={} errors=[{}] ts={}",
+                event.handler(), event.objectName(), errors, event.timestamp());
+    }
+
+    private void reportSuppressed() {
+        long droppedEvents = dropped.getAndSet(0);
+        StringBuilder suppressed = new StringBuilder();
+        samplers.forEach((code, sampler) -> {
+            long count = sampler.drainSuppressed();
+            if (count > 0) {
+                suppressed.append(suppressed.length() == 0 ? "" : ",").append(code).append(':').append(count);
+            }
+        });
+        if (droppedEvents > 0 || suppressed.length() > 0) {
+            log.info("event=validation_suppressed dropped={} sampled_out=[{}]", droppedEvents, suppressed);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package hello.itemservicev4.web.validation.form;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import hello.itemservicev4.domain.item.ItemPatch;
+import lombok.Data;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 상품 부분 수정 (PATCH) 요청
+ * JSON 에 들어온 필드만 기억해 두고, 그 필드만 검증하고 반영한다. 검증 규칙은 {@link ItemUpdateForm} 을 따른다.
+ */
+@Data
+public class ItemPatchForm {
+
+    private String itemName;
+    private Integer price;
+    private Integer quantity;
+
+    @JsonIgnore
+    private final Set<String> present = new HashSet<>();
+
+    public void setItemName(String itemName) {
+        this.itemName = itemName;
+        present.add(ItemPatch.ITEM_NAME);
+    }
+
+    public void setPrice(Integer price) {
+        this.price = price;
+        present.add(ItemPatch.PRICE);
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+        present.add(ItemPatch.QUANTITY);
+    }
+
+    public boolean isPresent(String field) {
+        return present.contains(field);
+    }
+
+    public ItemPatch toPatch() {
+        ItemPatch patch = new ItemPatch();
+        if (isPresent(ItemPatch.ITEM_NAME)) {
+            patch.itemName(itemName);
+        }
+        if (isPresent(ItemPatch.PRICE)) {
+            patch.price(price);
+        }
+        if (isPresent(ItemPatch.QUANTITY)) {
+            patch.quantity(quantity);
+        }
+        return patch;
+    }
+}
@@ -1,22 +1,32 @@
 package hello.itemservicev4.web.validation.form;
 
+import hello.itemservicev4.domain.item.CheckTier;
+import hello.itemservicev4.validation.ExpressionAssert;
+import hello.itemservicev4.validation.UniqueItemName;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.groups.Default;
 import lombok.Data;
 import org.hibernate.validator.constraints.Range;
 
+/**
+ * 제약마다 검증 단계({@link CheckTier})를 함께 적는다. HTML 폼은 Default 로 모든 오류를,
+ * API 는 SaveCheck.FailFast 로 첫 실패 단계의 오류만 받는다.
+ */
 @Data
+@ExpressionAssert(expression = "price * quantity >= 10000", errorCode = "totalPriceMin", groups = {Default.class, CheckTier.CrossField.class})
+@UniqueItemName(groups = {Default.class, CheckTier.CrossField.class})
 public class ItemSaveForm {
 
-    @NotBlank
+    @NotBlank(groups = {Default.class, CheckTier.Presence.class})
     private String itemName;
 
-    @NotNull
-    @Range(min = 1000, max = 1000000)
+    @NotNull(groups = {Default.class, CheckTier.Presence.class})
+    @Range(min = 1000, max = 1000000, groups = {Default.class, CheckTier.Range.class})
     private Integer price;
 
-    @NotNull
-    @Max(9999)
+    @NotNull(groups = {Default.class, CheckTier.Presence.class})
+    @Max(value = 9999, groups = {Default.class, CheckTier.Range.class})
     private Integer quantity;
 }
@@ -1,24 +1,35 @@
 package hello.itemservicev4.web.validation.form;
 
-import jakarta.validation.constraints.Max;
+import hello.itemservicev4.domain.item.CheckTier;
+import hello.itemservicev4.validation.ExpressionAssert;
+import hello.itemservicev4.validation.UniqueItemName;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.groups.Default;
 import lombok.Data;
 import org.hibernate.validator.constraints.Range;
 
+/**
+ * 검증 단계는 {@link ItemSaveForm} 과 같다.
+ */
 @Data
+@ExpressionAssert(expression = "price * quantity >= 10000", errorCode = "totalPriceMin", groups = {Default.class, CheckTier.CrossField.class})
+@UniqueItemName(idField = "id", groups = {Default.class, CheckTier.CrossField.class})
 public class ItemUpdateForm {
 
-    @NotNull
+    @NotNull(groups = {Default.class, CheckTier.Presence.class})
     private Long id;
 
-    @NotBlank
+    @NotBlank(groups = {Default.class, CheckTier.Presence.class})
     private String itemName;
 
-    @NotNull
-    @Range(min = 1000, max = 1000000)
+    @NotNull(groups = {Default.class, CheckTier.Presence.class})
+    @Range(min = 1000, max = 1000000, groups = {Default.class, CheckTier.Range.class})
     private Integer price;
 
     // 수정에서는 수량은 자유롭게 변경할 수 있다.
     private Integer quantity;
+
+    // 폼을 열 때의 수량. 그 사이 예약된 재고가 있으면 바꾼 만큼만 반영한다.
+    private Integer originalQuantity;
 }
@@ -0,0 +1,177 @@
+package hello.itemservicev4.bulk;
+
+import hello.itemservicev4.dataset.DatasetSpec;
+import hello.itemservicev4.dataset.ItemDatasetGenerator;
+import hello.itemservicev4.domain.item.Item;
+import hello.itemservicev4.domain.item.ItemPatch;
+import hello.itemservicev4.domain.item.ItemPatchResult;
+import hello.itemservicev4.domain.item.ItemRepository;
+import hello.itemservicev4.validation.ExpressionAssertValidatorFactoryBean;
+import hello.itemservicev4.web.validation.ItemPatchValidator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BulkAdjustmentServiceTest {
+
+    ItemRepository itemRepository = new ItemRepository();
+    ExpressionAssertValidatorFactoryBean validator = new ExpressionAssertValidatorFactoryBean();
+    BulkAdjustmentService service;
+
+    @BeforeEach
+    void setUp() {
+        validator.afterPropertiesSet();
+        service = new BulkAdjustmentService(itemRepository, new ItemPatchValidator(validator), 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.close();
+    }
+
+    @Test
+    void repriceCheapItems() throws InterruptedException {
+        new ItemDatasetGenerator(2).generate(itemRepository, new DatasetSpec(50_000, 1, 1.0));
+        Map<Long, Integer> before = new HashMap<>();
+        for (Item item : itemRepository.iterateAll()) {
+            before.put(item.getId(), item.getPrice());
+        }
+
+        // 10,000 미만 상품 5% 인상, 100원 단위 반올림
+        BulkAdjustmentJob.Status status = await(service.submit(new BulkAdjustmentSpec(
+                null, 10000, null, null, null, 5.0, null, 100, null)));
+
+        long cheap = before.values().stream().filter(price -> price < 10000).count();
+        assertThat(status.state()).isEqualTo(BulkAdjustmentJob.State.COMPLETED);
+        assertThat(status.scanned()).isEqualTo(50_000L);
+        assertThat(status.progress()).isEqualTo(1.0);
+        assertThat(status.matched()).isEqualTo(cheap);
+        assertThat(status.updated() + status.unchanged() + status.rejected()).isEqualTo(cheap);
+        for (Item item : itemRepository.iterateAll()) {
+            int price = before.get(item.getId());
+            if (price >= 10000) {
+                assertThat(item.getPrice()).isEqualTo(price);
+            } else if (item.getPrice() != price) {
+                assertThat(item.getPrice()).isEqualTo((int) (Math.round(price * 1.05 / 100) * 100));
+            }
+        }
+    }
+
+    @Test
+    void resultsAreValidatedWithUpdateRules() throws InterruptedException {
+        Item low = itemRepository.save(new Item("low", 1000, 100));
+        Item total = itemRepository.save(new Item("total", 2000, 5));
+        Item ok = itemRepository.save(new Item("ok", 100000, 1));
+
+        // 20% 인하: 800 원은 가격 범위, 1600 * 5 는 가격 * 수량 규칙에 걸린다.
+        BulkAdjustmentJob.Status status = await(service.submit(new BulkAdjustmentSpec(
+                null, null, null, null, null, -20.0, null, null, null)));
+
+        assertThat(status.updated()).isEqualTo(1L);
+        assertThat(status.rejected()).isEqualTo(2L);
+        assertThat(itemRepository.findById(low.getId()).getPrice()).isEqualTo(1000);
+        assertThat(itemRepository.findById(total.getId()).getPrice()).isEqualTo(2000);
+        assertThat(itemRepository.findById(ok.getId()).getPrice()).isEqualTo(80000);
+
+        Map<Long, List<String>> codes = new HashMap<>();
+        for (BulkAdjustmentJob.Rejection rejection : status.rejections()) {
+            codes.put(rejection.itemId(), rejection.codes());
+        }
+        assertThat(codes.get(low.getId())).containsExactly("Range");
+        assertThat(codes.get(total.getId())).containsExactly("totalPriceMin");
+    }
+
+    @Test
+    void concurrentJobsDoNotLoseUpdates() throws InterruptedException {
+        for (int i = 0; i < 20_000; i++) {
+            itemRepository.save(new Item("item" + i, 10000, 1));
+        }
+        BulkAdjustmentSpec plusOne = new BulkAdjustmentSpec(null, null, null, null, null, null, null, null, 1);
+
+        // 같은 상품을 두 작업이 동시에 읽고 바꿔도 각 상품의 읽기-계산-저장은 한 번에 하나씩 이루어진다.
+        BulkAdjustmentJob first = service.submit(plusOne);
+        BulkAdjustmentJob second = service.submit(plusOne);
+        await(first);
+        await(second);
+
+        for (Item item : itemRepository.iterateAll()) {
+            assertThat(item.getQuantity()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void runningJobIsNotEvicted() throws InterruptedException {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean blockNext = new AtomicBoolean(true);
+        // 첫 작업은 상품을 바꾸기 전(잠금 밖)에서 멈춰 끝나지 않는다.
+        ItemRepository blocking = new ItemRepository() {
+            @Override
+            public ItemPatchResult patch(Long itemId, Function<Item, ItemPatch> patcher, Predicate<Item> check) {
+                if (blockNext.getAndSet(false)) {
+                    entered.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.patch(itemId, patcher, check);
+            }
+        };
+        blocking.save(new Item("item", 10000, 1));
+        service.close();
+        service = new BulkAdjustmentService(blocking, new ItemPatchValidator(validator), 4);
+        BulkAdjustmentSpec plusOne = new BulkAdjustmentSpec(null, null, null, null, null, null, null, null, 1);
+
+        BulkAdjustmentJob running = service.submit(plusOne);
+        entered.await();
+        BulkAdjustmentJob oldestFinished = service.submit(plusOne);
+        await(oldestFinished);
+        for (int i = 0; i < BulkAdjustmentService.MAX_JOBS + 5; i++) {
+            await(service.submit(plusOne));
+        }
+
+        assertThat(service.find(running.getId())).isSameAs(running);
+        assertThat(service.find(oldestFinished.getId())).isNull();
+        assertThat(service.statuses()).hasSize(BulkAdjustmentService.MAX_JOBS);
+
+        release.countDown();
+        assertThat(await(running).state()).isEqualTo(BulkAdjustmentJob.State.COMPLETED);
+    }
+
+    @Test
+    void invalidSpec() {
+        assertThat(catchIllegalArgument(() -> new BulkAdjustmentSpec(null, null, null, null, null, null, null, null, null))).isTrue();
+        assertThat(catchIllegalArgument(() -> new BulkAdjustmentSpec(null, null, null, null, null, -100.0, null, null, null))).isTrue();
+        assertThat(catchIllegalArgument(() -> new BulkAdjustmentSpec(null, null, null, null, null, 5.0, null, 0, null))).isTrue();
+    }
+
+    private static boolean catchIllegalArgument(Runnable runnable) {
+        try {
+            runnable.run();
+            return false;
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+    }
+
+    private static BulkAdjustmentJob.Status await(BulkAdjustmentJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + 30_000_000_000L;
+        while (job.status().state() == BulkAdjustmentJob.State.RUNNING) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+        return job.status();
+    }
+}
@@ -0,0 +1,114 @@
+package hello.itemservicev4.dataset;
+
+import hello.itemservicev4.domain.item.Item;
+import hello.itemservicev4.domain.item.ItemRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemDatasetGeneratorTest {
+
+    @Test
+    void sameSpecSameItems() {
+        DatasetSpec spec = new DatasetSpec(50_000, 7, 1.0);
+        ItemRepository single = new ItemRepository();
+        ItemRepository parallel = new ItemRepository();
+
+        long firstId = new ItemDatasetGenerator(1).generate(single, spec);
+        new ItemDatasetGenerator(4).generate(parallel, spec);
+
+        assertThat(firstId).isEqualTo(1L);
+        assertThat(single.count()).isEqualTo(50_000L);
+        for (long id = 1; id <= 50_000; id++) {
+            assertThat(parallel.findById(id)).isEqualTo(single.findById(id));
+        }
+        // 다른 시드면 다른 데이터
+        ItemRepository other = new ItemRepository();
+        new ItemDatasetGenerator(1).generate(other, new DatasetSpec(1000, 8, 1.0));
+        assertThat(other.findById(1L)).isNotEqualTo(single.findById(1L));
+    }
+
+    @Test
+    void itemsPassValidationRulesAndNamesAreUnique() {
+        ItemRepository itemRepository = new ItemRepository();
+        new ItemDatasetGenerator(2).generate(itemRepository, new DatasetSpec(100_000, 42, 2.0));
+
+        Set<String> names = new HashSet<>();
+        for (Item item : itemRepository.iterateAll()) {
+            assertThat(item.getPrice()).isBetween(1000, 1_000_000);
+            assertThat(item.getQuantity()).isBetween(1, 9998);
+            assertThat((long) item.getPrice() * item.getQuantity()).isGreaterThanOrEqualTo(10000L);
+            names.add(item.getItemName());
+        }
+        assertThat(names.size()).isEqualTo(100_000);
+    }
+
+    @Test
+    void skewMovesPricesDown() {
+        long uniformCheap = countCheap(0.0);
+        long skewedCheap = countCheap(2.0);
+
+        // 로그 스케일로 고르면 1/3 정도가 10,000 미만
+        assertThat(uniformCheap).isBetween(2800L, 3900L);
+        assertThat(skewedCheap).isGreaterThan(uniformCheap * 3 / 2);
+    }
+
+    @Test
+    void appendsAfterExistingItems() {
+        ItemRepository itemRepository = new ItemRepository();
+        itemRepository.save(new Item("itemA", 10000, 10));
+
+        long firstId = new ItemDatasetGenerator(2).generate(itemRepository, new DatasetSpec(100, 1, 1.0));
+        Item saved = itemRepository.save(new Item("itemB", 20000, 20));
+
+        assertThat(firstId).isEqualTo(2L);
+        assertThat(saved.getId()).isEqualTo(102L);
+        assertThat(itemRepository.count()).isEqualTo(102L);
+        List<Item> found = itemRepository.search("itemB", 10);
+        assertThat(found).hasSize(1);
+    }
+
+    @Test
+    void replaceStartsFromFirstId() {
+        ItemRepository itemRepository = new ItemRepository();
+        itemRepository.save(new Item("itemA", 10000, 10));
+
+        long firstId = new ItemDatasetGenerator(2).replace(itemRepository, new DatasetSpec(100, 1, 1.0));
+        Item saved = itemRepository.save(new Item("itemB", 20000, 20));
+
+        // 기존 상품은 남지 않는다.
+        assertThat(firstId).isEqualTo(1L);
+        assertThat(itemRepository.findIdByName("itemA")).isNull();
+        assertThat(saved.getId()).isEqualTo(101L);
+        assertThat(itemRepository.count()).isEqualTo(101L);
+    }
+
+    @Test
+    void generateTwiceKeepsNamesUnique() {
+        ItemRepository itemRepository = new ItemRepository();
+        DatasetSpec spec = new DatasetSpec(100, 1, 1.0);
+
+        new ItemDatasetGenerator(1).generate(itemRepository, spec);
+        long secondId = new ItemDatasetGenerator(1).generate(itemRepository, spec);
+
+        // 이름에 id 를 붙이므로 같은 spec 으로 다시 만들어도 이름이 겹치지 않는다.
+        assertThat(itemRepository.count()).isEqualTo(200L);
+        assertThat(itemRepository.findIdByName(itemRepository.findById(secondId).getItemName())).isEqualTo(secondId);
+    }
+
+    private static long countCheap(double skew) {
+        ItemRepository itemRepository = new ItemRepository();
+        new ItemDatasetGenerator(1).generate(itemRepository, new DatasetSpec(10_000, 42, skew));
+        long cheap = 0;
+        for (Item item : itemRepository.iterateAll()) {
+            if (item.getPrice() < 10000) {
+                cheap++;
+            }
+        }
+        return cheap;
+    }
+}
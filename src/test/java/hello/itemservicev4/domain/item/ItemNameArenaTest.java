@@ -0,0 +1,169 @@
+package hello.itemservicev4.domain.item;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemNameArenaTest {
+
+    ItemNameArena arena = new ItemNameArena();
+
+    @Test
+    void internAndDecode() {
+        long a = arena.intern("itemA");
+        long b = arena.intern("상품B");
+        long nullHandle = arena.intern(null);
+
+        assertThat(arena.decode(a)).isEqualTo("itemA");
+        assertThat(arena.decode(b)).isEqualTo("상품B");
+        assertThat(nullHandle).isEqualTo(ItemNameArena.NULL_HANDLE);
+        assertThat(arena.decode(nullHandle)).isNull();
+    }
+
+    @Test
+    void deduplicate() {
+        long first = arena.intern("사과 주스 1L");
+        long second = arena.intern(new String("사과 주스 1L"));
+
+        assertThat(first).isEqualTo(second);
+        assertThat(arena.distinctCount()).isEqualTo(1);
+    }
+
+    @Test
+    void longNameAndRehash() {
+        String longName = "상품".repeat(200);
+        long handle = arena.intern(longName);
+        for (int i = 0; i < 10_000; i++) {
+            arena.intern("item-" + i);
+        }
+
+        assertThat(arena.decode(handle)).isEqualTo(longName);
+        assertThat(arena.intern("item-9999")).isEqualTo(arena.intern("item-9999"));
+        assertThat(arena.distinctCount()).isEqualTo(10_001);
+    }
+
+    @Test
+    void releaseAndCompact() {
+        long kept = arena.intern("kept");
+        long shared = arena.intern("shared");
+        arena.intern("shared");
+
+        // 참조가 남아 있으면 지우지 않는다.
+        arena.release(shared);
+        assertThat(arena.decode(shared)).isEqualTo("shared");
+        arena.release(shared);
+        assertThat(arena.decode(shared)).isNull();
+        assertThat(arena.intern("shared")).isNotEqualTo(shared);
+
+        // 이름을 계속 바꿔도 (새 이름 intern, 예전 이름 release) 지운 바이트를 돌려받아 크기가 일정 수준을 넘지 않는다.
+        long current = arena.intern("name-0");
+        long maxFootprint = 0;
+        for (int i = 1; i <= 200_000; i++) {
+            long next = arena.intern("name-" + i);
+            arena.release(current);
+            current = next;
+            maxFootprint = Math.max(maxFootprint, arena.footprint());
+        }
+        assertThat(maxFootprint).isLessThan(512 * 1024);
+        assertThat(arena.distinctCount()).isEqualTo(3);
+        assertThat(arena.decode(kept)).isEqualTo("kept");
+        assertThat(arena.decode(current)).isEqualTo("name-200000");
+        assertThat(arena.intern("name-200000")).isEqualTo(current);
+    }
+
+    @Test
+    void staleHandleAfterReuse() {
+        long stale = arena.intern("stale");
+        arena.release(stale);
+        long reused = reuseSlot(stale, "reused");
+
+        assertThat(reused).isNotEqualTo(stale);
+        assertThat(arena.decode(stale)).isNull();
+        assertThat(arena.byteLength(stale)).isEqualTo(-1);
+        assertThat(arena.decode(reused)).startsWith("reused-");
+    }
+
+    @Test
+    void generationDoesNotWrapAround() {
+        long first = arena.intern("first");
+        arena.release(first);
+        // 같은 칸을 100 번 다시 써도 (예전에는 64 번이면 세대가 한 바퀴 돌았다) 처음 handle 은 지운 이름으로 남는다.
+        long handle = first;
+        for (int round = 0; round < 100; round++) {
+            handle = reuseSlot(handle, "round-" + round);
+            assertThat(arena.decode(first)).isNull();
+            arena.release(handle);
+        }
+    }
+
+    /**
+     * 지운 handle 의 칸이 compaction 뒤 다시 쓰일 때까지 이름을 넣고, 그 칸에 들어간 handle 을 반환한다.
+     */
+    private long reuseSlot(long released, String prefix) {
+        for (int i = 0; arena.garbageBytes() > 0; i++) {
+            arena.release(arena.intern("garbage-" + i));
+        }
+        List<Long> others = new ArrayList<>();
+        long reused;
+        int i = 0;
+        while ((int) (reused = arena.intern(prefix + "-" + i++)) != (int) released) {
+            others.add(reused);
+        }
+        others.forEach(arena::release);
+        return reused;
+    }
+
+    /**
+     * 한글/영문 상품명을 섞어 String 으로 들고 있을 때와 arena 에 저장할 때의 힙 크기 (이름 하나당 byte)
+     * String 크기는 compressed oops 기준 (String 24 byte + byte[] 16 byte + 내용) 으로 추정한다.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void footprintReport() {
+        String[] korean = {"사과", "배", "포도", "수박", "딸기", "감귤", "바나나", "우유", "주스", "생수"};
+        String[] english = {"Apple", "Pear", "Grape", "Melon", "Berry", "Orange", "Banana", "Milk", "Juice", "Water"};
+        String[] sizes = {"500ml", "1L", "1.5L", "2kg", "5kg", "10개입", "선물세트", "Premium", "Organic", "Mini"};
+
+        Random random = new Random(42);
+        int total = 200_000;
+        long stringBytes = 0;
+        Set<String> distinct = new HashSet<>();
+
+        for (int i = 0; i < total; i++) {
+            // 상위 몇 개 조합에 몰리도록 치우친 분포
+            int k = (int) Math.min(9, Math.abs(random.nextGaussian()) * 3);
+            int s = random.nextInt(sizes.length);
+            String name = random.nextBoolean()
+                    ? korean[k] + " " + english[random.nextInt(english.length)] + " " + sizes[s]
+                    : english[k] + " " + sizes[s] + " #" + random.nextInt(500);
+            arena.intern(name);
+            distinct.add(name);
+            stringBytes += stringFootprint(name);
+        }
+
+        long arenaBytes = arena.footprint();
+        System.out.println(total + " names (" + distinct.size() + " distinct)");
+        System.out.println("String = " + stringBytes + " bytes (" + stringBytes / total + " bytes/name)");
+        System.out.println("arena  = " + arenaBytes + " bytes (" + arenaBytes / total + " bytes/name, "
+                + arenaBytes * 100 / stringBytes + "% of String)");
+        assertThat(arena.distinctCount()).isEqualTo(distinct.size());
+        assertThat(arenaBytes).isLessThan(stringBytes);
+    }
+
+    private static long stringFootprint(String s) {
+        boolean latin1 = s.chars().allMatch(c -> c < 256);
+        long content = latin1 ? s.length() : 2L * s.length();
+        return 24 + align(16 + content);
+    }
+
+    private static long align(long size) {
+        return (size + 7) / 8 * 8;
+    }
+}
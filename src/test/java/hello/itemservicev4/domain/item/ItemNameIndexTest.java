@@ -0,0 +1,147 @@
+package hello.itemservicev4.domain.item;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemNameIndexTest {
+
+    ItemRepository itemRepository = new ItemRepository();
+
+    @AfterEach
+    void afterEach() {
+        itemRepository.clearStore();
+    }
+
+    @Test
+    void searchKoreanAndEnglish() {
+        //given
+        Item juice = itemRepository.save(new Item("사과 주스", 10000, 10));
+        Item apple = itemRepository.save(new Item("Green Apple", 10000, 10));
+        itemRepository.save(new Item("포도", 10000, 10));
+
+        //then
+        assertThat(itemRepository.search("사과", 10)).containsExactly(juice);
+        assertThat(itemRepository.search("apple", 10)).containsExactly(apple);
+        assertThat(itemRepository.search("과", 10)).containsExactly(juice);
+        assertThat(itemRepository.search("수박", 10)).isEmpty();
+        assertThat(itemRepository.search(" ", 10)).isEmpty();
+    }
+
+    @Test
+    void ranking() {
+        Item contains = itemRepository.save(new Item("청송 사과", 10000, 10));
+        Item prefixLong = itemRepository.save(new Item("사과 선물세트", 10000, 10));
+        Item prefixShort = itemRepository.save(new Item("사과즙", 10000, 10));
+        Item exact = itemRepository.save(new Item("사과", 10000, 10));
+
+        List<Item> result = itemRepository.search("사과", 10);
+
+        assertThat(result).containsExactly(exact, prefixShort, prefixLong, contains);
+        assertThat(itemRepository.search("사과", 2)).containsExactly(exact, prefixShort);
+    }
+
+    @Test
+    void updateReindexes() {
+        Item item = itemRepository.save(new Item("itemA", 10000, 10));
+
+        itemRepository.update(item.getId(), new Item("itemB", 10000, 10));
+
+        assertThat(itemRepository.search("itemA", 10)).isEmpty();
+        assertThat(itemRepository.search("itemb", 10)).hasSize(1);
+    }
+
+    @Test
+    void ignoreCaseBeyondAscii() {
+        Item cafe = itemRepository.save(new Item("Café Latte", 10000, 10));
+
+        assertThat(itemRepository.search("CAFÉ", 10)).containsExactly(cafe);
+        assertThat(itemRepository.search("café latte", 10)).containsExactly(cafe);
+    }
+
+    @Test
+    void rankingSeesEveryCandidate() {
+        //given 앞에 저장된 긴 이름이 많아도
+        for (int i = 0; i < 5000; i++) {
+            itemRepository.save(new Item("item " + i, 10000, 10));
+        }
+        Item exact = itemRepository.save(new Item("item", 10000, 10));
+
+        //then 마지막에 저장된 정확히 일치하는 상품이 먼저 나온다
+        assertThat(itemRepository.search("item", 1)).containsExactly(exact);
+    }
+
+    @Test
+    void concurrentRenamesLeaveCurrentName() throws InterruptedException {
+        Item item = itemRepository.save(new Item("alpha", 10000, 10));
+        Long id = item.getId();
+
+        // 같은 상품을 두 스레드가 서로 반대로 바꾼다. (patch, update)
+        Thread toBeta = new Thread(() -> {
+            for (int i = 0; i < 20_000; i++) {
+                itemRepository.patch(id, new ItemPatch().itemName("beta"), null);
+            }
+        });
+        Thread toAlpha = new Thread(() -> {
+            for (int i = 0; i < 20_000; i++) {
+                itemRepository.update(id, new Item("alpha", 10000, 10));
+            }
+        });
+        toBeta.start();
+        toAlpha.start();
+        toBeta.join();
+        toAlpha.join();
+
+        String current = itemRepository.findById(id).getItemName();
+        String other = current.equals("alpha") ? "beta" : "alpha";
+        assertThat(itemRepository.search(current, 10)).extracting(Item::getId).containsExactly(id);
+        assertThat(itemRepository.search(other, 10)).isEmpty();
+    }
+
+    /**
+     * 1,000,000 개 상품에서 검색 지연 시간
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void searchLatencyReport() {
+        String[] words = {"사과", "배", "포도", "수박", "딸기", "우유", "주스", "apple", "grape", "milk", "juice", "water"};
+        Random random = new Random(7);
+        int total = 1_000_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            // 상품명은 겹칠 수 없으므로 끝에 순번을 붙인다.
+            String name = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)] + " " + i;
+            itemRepository.save(new Item(name, 10000, 10));
+        }
+        System.out.println("index build = " + (System.nanoTime() - start) / 1_000_000 + "ms for " + total + " items");
+
+        String[] queries = {"사과 주스", "grape", "우유 12", "milk 9999", "딸기", "water apple 1"};
+        for (int i = 0; i < 30_000; i++) {
+            itemRepository.search(queries[i % queries.length], 20);
+        }
+        long[] all = new long[queries.length * 2000];
+        for (int q = 0; q < queries.length; q++) {
+            long[] latencies = new long[2000];
+            for (int i = 0; i < latencies.length; i++) {
+                long begin = System.nanoTime();
+                itemRepository.search(queries[q], 20);
+                latencies[i] = System.nanoTime() - begin;
+            }
+            System.arraycopy(latencies, 0, all, q * latencies.length, latencies.length);
+            System.out.println(String.format("%-14s", queries[q]) + percentiles(latencies));
+        }
+        System.out.println("all queries    " + percentiles(all));
+    }
+
+    private static String percentiles(long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        return "p50 = " + sorted[sorted.length / 2] / 1000 + "us, p99 = " + sorted[sorted.length * 99 / 100] / 1000 + "us";
+    }
+}
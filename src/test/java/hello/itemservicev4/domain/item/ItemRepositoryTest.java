@@ -3,7 +3,11 @@ package hello.itemservicev4.domain.item;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -47,6 +51,21 @@ class ItemRepositoryTest {
         assertThat(result).contains(item1, item2);
     }
 
+    @Test
+    void iterateAll() {
+        //given
+        Item item1 = itemRepository.save(new Item("item1", 10000, 10));
+        Item item2 = itemRepository.save(new Item("item2", 20000, 20));
+
+        //when
+        List<Item> result = new ArrayList<>();
+        itemRepository.iterateAll().forEach(result::add);
+
+        //then
+        assertThat(result.size()).isEqualTo(2);
+        assertThat(result).containsOnly(item1, item2);
+    }
+
     @Test
     void updateItem() {
         //given
@@ -66,4 +85,238 @@ class ItemRepositoryTest {
         assertThat(findItem.getPrice()).isEqualTo(updateParam.getPrice());
         assertThat(findItem.getQuantity()).isEqualTo(updateParam.getQuantity());
     }
+
+    @Test
+    void patchItem() {
+        //given
+        Item savedItem = itemRepository.save(new Item("item1", 10000, 10));
+        Long itemId = savedItem.getId();
+        List<Item> changes = new ArrayList<>();
+        itemRepository.addChangeListener(changes::add);
+
+        //when
+        ItemPatchResult result = itemRepository.patch(itemId, new ItemPatch().price(20000), null);
+
+        //then
+        assertThat(result.status()).isEqualTo(ItemPatchResult.Status.UPDATED);
+        assertThat(result.changedFields()).containsExactly(ItemPatch.PRICE);
+        Item findItem = itemRepository.findById(itemId);
+        assertThat(findItem.getItemName()).isEqualTo("item1");
+        assertThat(findItem.getPrice()).isEqualTo(20000);
+        assertThat(findItem.getQuantity()).isEqualTo(10);
+        assertThat(changes).hasSize(1);
+    }
+
+    @Test
+    void patchUnchanged() {
+        //given
+        Item savedItem = itemRepository.save(new Item("item1", 10000, 10));
+        List<Item> changes = new ArrayList<>();
+        itemRepository.addChangeListener(changes::add);
+
+        //when
+        ItemPatchResult result = itemRepository.patch(savedItem.getId(), ItemPatch.of(new Item("item1", 10000, 10)), null);
+
+        //then
+        assertThat(result.status()).isEqualTo(ItemPatchResult.Status.UNCHANGED);
+        assertThat(changes).isEmpty();
+    }
+
+    @Test
+    void patchRejectedByMergedState() {
+        //given
+        Item savedItem = itemRepository.save(new Item("item1", 10000, 10));
+
+        //when : 수량만 보내도 저장된 가격과 합쳐서 검증한다.
+        ItemPatchResult result = itemRepository.patch(savedItem.getId(), new ItemPatch().quantity(0),
+                merged -> merged.getPrice() * merged.getQuantity() >= 10000);
+
+        //then
+        assertThat(result.status()).isEqualTo(ItemPatchResult.Status.REJECTED);
+        assertThat(itemRepository.findById(savedItem.getId()).getQuantity()).isEqualTo(10);
+    }
+
+    @Test
+    void patchNameUpdatesSearch() {
+        //given
+        Item savedItem = itemRepository.save(new Item("apple", 10000, 10));
+
+        //when
+        itemRepository.patch(savedItem.getId(), new ItemPatch().itemName("banana"), null);
+
+        //then
+        assertThat(itemRepository.search("apple", 10)).isEmpty();
+        assertThat(itemRepository.search("banana", 10)).hasSize(1);
+        assertThat(itemRepository.patch(999L, new ItemPatch().price(1), null).status())
+                .isEqualTo(ItemPatchResult.Status.NOT_FOUND);
+    }
+
+    @Test
+    void duplicateItemName() {
+        //given
+        Item savedItem = itemRepository.save(new Item("Apple", 10000, 10));
+        Item other = itemRepository.save(new Item("banana", 10000, 10));
+
+        //then : 대소문자, 앞뒤 공백은 무시하고 같은 이름으로 본다.
+        assertThatThrownBy(() -> itemRepository.save(new Item(" apple ", 20000, 20)))
+                .isInstanceOf(DuplicateItemNameException.class);
+        assertThatThrownBy(() -> itemRepository.update(other.getId(), new Item("APPLE", 10000, 10)))
+                .isInstanceOf(DuplicateItemNameException.class);
+        assertThat(itemRepository.patch(other.getId(), new ItemPatch().itemName("apple"), null).status())
+                .isEqualTo(ItemPatchResult.Status.DUPLICATE_NAME);
+        assertThat(itemRepository.findById(other.getId()).getItemName()).isEqualTo("banana");
+        assertThat(itemRepository.findIdByName("APPLE")).isEqualTo(savedItem.getId());
+        assertThat(itemRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void restoreRejectsNameOfAnotherItem() {
+        //given
+        Item savedItem = itemRepository.save(new Item("apple", 10000, 10));
+        Item restored = new Item("Apple", 20000, 20);
+        restored.setId(7L);
+
+        //then : 다른 상품의 이름은 가져가지 않고 아무것도 바꾸지 않는다.
+        assertThatThrownBy(() -> itemRepository.restore(restored))
+                .isInstanceOf(DuplicateItemNameException.class);
+        assertThat(itemRepository.findById(7L)).isNull();
+        assertThat(itemRepository.findIdByName("apple")).isEqualTo(savedItem.getId());
+        assertThat(itemRepository.maxId()).isEqualTo(savedItem.getId());
+
+        // 같은 상품은 자기 이름으로 다시 올릴 수 있다.
+        Item same = new Item("apple", 30000, 30);
+        same.setId(savedItem.getId());
+        itemRepository.restore(same);
+        assertThat(itemRepository.findById(savedItem.getId()).getPrice()).isEqualTo(30000);
+    }
+
+    @Test
+    void failedSaveReleasesName() {
+        //given 첫 저장에서 실패하는 저장소
+        AtomicInteger failures = new AtomicInteger(1);
+        ItemRepository repository = new ItemRepository(new HeapItemRecordStore() {
+            @Override
+            public void put(ItemRecord record) {
+                if (failures.getAndDecrement() > 0) {
+                    throw new IllegalStateException("disk full");
+                }
+                super.put(record);
+            }
+        });
+        Item failed = new Item("apple", 10000, 10);
+        assertThatThrownBy(() -> repository.save(failed)).isInstanceOf(IllegalStateException.class);
+
+        //then 이름이 남아 있지 않아 다시 저장할 수 있다
+        assertThat(failed.getId()).isNull();
+        assertThat(repository.findIdByName("apple")).isNull();
+        assertThat(repository.save(new Item("apple", 10000, 10)).getItemName()).isEqualTo("apple");
+    }
+
+    @Test
+    void renameReleasesOldName() {
+        //given
+        Item savedItem = itemRepository.save(new Item("apple", 10000, 10));
+
+        //when
+        itemRepository.update(savedItem.getId(), new Item("Apple", 10000, 10));
+        itemRepository.patch(savedItem.getId(), new ItemPatch().itemName("green apple"), null);
+
+        //then
+        assertThat(itemRepository.findIdByName("apple")).isNull();
+        assertThat(itemRepository.findIdByName("green apple")).isEqualTo(savedItem.getId());
+        assertThat(itemRepository.save(new Item("apple", 10000, 10)).getId()).isNotEqualTo(savedItem.getId());
+    }
+
+    @Test
+    void concurrentSaveWithSameName() throws InterruptedException {
+        //given
+        int threads = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger saved = new AtomicInteger();
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    itemRepository.save(new Item("limited", 10000, 10));
+                    saved.incrementAndGet();
+                } catch (DuplicateItemNameException | InterruptedException e) {
+                    // 한 건만 저장된다.
+                }
+            });
+            workers.add(thread);
+            thread.start();
+        }
+
+        //when
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        //then
+        assertThat(saved.get()).isEqualTo(1);
+        assertThat(itemRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void savesDuringReplaceNeverOverwriteLoadedItems() throws InterruptedException {
+        //given 저장이 계속 들어오는 중에
+        AtomicBoolean stopped = new AtomicBoolean();
+        Thread saver = new Thread(() -> {
+            for (int i = 0; !stopped.get(); i++) {
+                itemRepository.save(new Item("saved-" + i, 10000, 10));
+            }
+        });
+        saver.start();
+
+        //when 따로 채운 저장소로 여러 번 바꾼다
+        for (int round = 0; round < 50; round++) {
+            ItemRepository loaded = itemRepository.createEmpty();
+            for (long id = 1; id <= 1000; id++) {
+                Item item = new Item("loaded-" + id, 10000, 10);
+                item.setId(id);
+                loaded.restore(item);
+            }
+            itemRepository.replaceWith(loaded);
+        }
+        stopped.set(true);
+        saver.join();
+
+        //then 바꾼 뒤의 저장은 채운 상품 뒤의 id 를 받는다
+        for (Item item : itemRepository.iterateAll()) {
+            String expected = item.getId() <= 1000 ? "loaded-" + item.getId() : "saved-";
+            assertThat(item.getItemName()).startsWith(expected);
+            assertThat(itemRepository.findIdByName(item.getItemName())).isEqualTo(item.getId());
+        }
+        assertThat(itemRepository.findById(1000L).getItemName()).isEqualTo("loaded-1000");
+    }
+
+    @Test
+    void readsDuringRenamesNeverSeeReclaimedName() throws InterruptedException {
+        //given
+        Item item = itemRepository.save(new Item("rename-0", 10000, 10));
+        AtomicInteger broken = new AtomicInteger();
+        Thread reader = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                String name = itemRepository.findById(item.getId()).getItemName();
+                if (name == null || !name.startsWith("rename-")) {
+                    broken.incrementAndGet();
+                }
+            }
+        });
+        reader.start();
+
+        //when 이름을 바꿀 때마다 예전 이름은 지워지고, 그 자리는 compaction 뒤에 다른 이름이 쓴다.
+        for (int i = 1; i <= 100_000; i++) {
+            itemRepository.update(item.getId(), new Item("rename-" + i, 10000, 10));
+        }
+        reader.interrupt();
+        reader.join();
+
+        //then
+        assertThat(broken.get()).isZero();
+        assertThat(itemRepository.findById(item.getId()).getItemName()).isEqualTo("rename-100000");
+        assertThat(itemRepository.search("rename-100000", 10)).hasSize(1);
+    }
 }
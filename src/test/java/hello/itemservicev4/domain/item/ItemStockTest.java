@@ -0,0 +1,224 @@
+package hello.itemservicev4.domain.item;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemStockTest {
+
+    private static final int THREADS = 64;
+
+    @Test
+    void reserveAndRelease() {
+        ItemStock stock = new ItemStock(10);
+
+        assertThat(stock.reserve(7)).isTrue();
+        assertThat(stock.reserve(4)).isFalse();
+        assertThat(stock.available()).isEqualTo(3);
+        assertThat(stock.reserved()).isEqualTo(7);
+
+        assertThat(stock.release(2)).isTrue();
+        assertThat(stock.reserve(5)).isTrue();
+        assertThat(stock.available()).isZero();
+
+        assertThat(stock.adjust(100)).isEqualTo(100);
+        // 남은 재고보다 많이 빼도 예약된 재고는 그대로다.
+        assertThat(stock.adjust(-150)).isZero();
+        assertThat(stock.reserved()).isEqualTo(10);
+    }
+
+    @Test
+    void releaseOnlyWhatWasReserved() {
+        ItemStock stock = new ItemStock(Integer.MAX_VALUE);
+
+        // 예약하지 않은 재고는 되돌릴 수 없으므로 합이 처음 재고를 넘지 않는다.
+        assertThat(stock.release(1)).isFalse();
+        assertThat(stock.reserve(3)).isTrue();
+        assertThat(stock.release(4)).isFalse();
+        assertThat(stock.release(3)).isTrue();
+        assertThat(stock.release(1)).isFalse();
+        assertThat(stock.available()).isEqualTo(Integer.MAX_VALUE);
+
+        // 재고를 고쳐도 그 전의 예약은 그대로 되돌릴 수 있고, 합은 int 를 넘지 않는다.
+        stock.reserve(5);
+        assertThat(stock.adjust(10)).isEqualTo(Integer.MAX_VALUE - 5);
+        assertThat(stock.release(5)).isTrue();
+        assertThat(stock.available()).isEqualTo(Integer.MAX_VALUE);
+    }
+
+    @Test
+    void repositoryRejectsUnreservedRelease() {
+        ItemRepository itemRepository = new ItemRepository();
+        Long itemId = itemRepository.save(new Item("hot", 10000, 10)).getId();
+
+        assertThat(itemRepository.release(itemId, 1).status()).isEqualTo(StockResult.Status.NOT_RESERVED);
+        itemRepository.reserve(itemId, 4);
+        assertThat(itemRepository.release(itemId, 5).status()).isEqualTo(StockResult.Status.NOT_RESERVED);
+        assertThat(itemRepository.release(itemId, 4).status()).isEqualTo(StockResult.Status.OK);
+        assertThat(itemRepository.findById(itemId).getQuantity()).isEqualTo(10);
+    }
+
+    @Test
+    void neverOversell() throws InterruptedException {
+        ItemRepository itemRepository = new ItemRepository();
+        Long itemId = itemRepository.save(new Item("hot", 10000, 100_000)).getId();
+        List<Item> changes = new ArrayList<>();
+        itemRepository.addChangeListener(item -> {
+            synchronized (changes) {
+                changes.add(item);
+            }
+        });
+
+        AtomicLong reserved = new AtomicLong();
+        run(() -> {
+            // 1개 또는 3개씩 예약
+            int quantity = (int) (Thread.currentThread().getId() % 2) * 2 + 1;
+            boolean ok = itemRepository.reserve(itemId, quantity).status() == StockResult.Status.OK;
+            if (ok) {
+                reserved.addAndGet(quantity);
+            }
+            return ok;
+        });
+
+        assertThat(reserved.get()).isLessThanOrEqualTo(100_000);
+        // 3개씩 예약하는 스레드가 남은 1~2개를 못 가져가는 경우만 남는다.
+        assertThat(reserved.get()).isGreaterThan(100_000 - 3);
+        assertThat(itemRepository.findById(itemId).getQuantity()).isEqualTo(100_000 - reserved.get());
+        // 저장소와 리스너에는 마지막 재고가 반영된다.
+        synchronized (changes) {
+            assertThat(changes.get(changes.size() - 1).getQuantity()).isEqualTo(100_000 - reserved.get());
+        }
+    }
+
+    @Test
+    void quantityEditKeepsReservations() {
+        ItemRepository itemRepository = new ItemRepository();
+        Long itemId = itemRepository.save(new Item("hot", 10000, 10)).getId();
+
+        itemRepository.reserve(itemId, 4);
+        itemRepository.patch(itemId, new ItemPatch().quantity(50), null);
+
+        assertThat(itemRepository.reserve(itemId, 50).status()).isEqualTo(StockResult.Status.OK);
+        assertThat(itemRepository.reserve(itemId, 1).status()).isEqualTo(StockResult.Status.INSUFFICIENT);
+        assertThat(itemRepository.reserve(999L, 1).status()).isEqualTo(StockResult.Status.NOT_FOUND);
+        // 수정 전의 예약도 되돌릴 수 있다.
+        assertThat(itemRepository.release(itemId, 54).status()).isEqualTo(StockResult.Status.OK);
+        assertThat(itemRepository.findById(itemId).getQuantity()).isEqualTo(54);
+
+        // update 도 예약된 재고를 덮지 않는다.
+        itemRepository.reserve(itemId, 4);
+        itemRepository.update(itemId, new Item("hot", 10000, 10));
+        assertThat(itemRepository.findById(itemId).getQuantity()).isEqualTo(10);
+        assertThat(itemRepository.release(itemId, 4).status()).isEqualTo(StockResult.Status.OK);
+        assertThat(itemRepository.findById(itemId).getQuantity()).isEqualTo(14);
+    }
+
+    @Test
+    void staleFormDoesNotRestoreReservedStock() {
+        ItemRepository itemRepository = new ItemRepository();
+        Long itemId = itemRepository.save(new Item("hot", 10000, 10)).getId();
+        itemRepository.reserve(itemId, 1);
+
+        //given 수량 9 를 보고 폼을 연 사이 3 개가 더 예약된다
+        Item form = itemRepository.findById(itemId);
+        itemRepository.reserve(itemId, 3);
+
+        //when 수량은 그대로 두고 가격만 바꾼다 / 수량을 2 늘린다
+        form.setPrice(20000);
+        ItemPatchResult priceOnly = itemRepository.patch(itemId, ItemPatch.of(form).quantity(9, 9), null);
+        ItemPatchResult plusTwo = itemRepository.patch(itemId, new ItemPatch().quantity(11, 9), null);
+
+        //then 폼의 예전 수량으로 예약된 재고를 되살리지 않는다
+        assertThat(priceOnly.changedFields()).containsExactly(ItemPatch.PRICE);
+        assertThat(priceOnly.item().getQuantity()).isEqualTo(6);
+        assertThat(plusTwo.item().getQuantity()).isEqualTo(8);
+        assertThat(itemRepository.findById(itemId).getQuantity()).isEqualTo(8);
+        assertThat(itemRepository.release(itemId, 4).status()).isEqualTo(StockResult.Status.OK);
+    }
+
+    /**
+     * 64 스레드가 같은 상품을 1개씩 예약할 때의 처리량
+     * synchronized 로 조회 후 수정 vs AtomicLong 하나에 CAS vs 저장소 reserve (저장소 반영 포함)
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark() throws InterruptedException {
+        long stock = 20_000_000;
+
+        Object lock = new Object();
+        ItemRepository lockedRepository = new ItemRepository();
+        Long lockedId = lockedRepository.save(new Item("hot", 10000, (int) stock)).getId();
+        double locked = run(() -> {
+            synchronized (lock) {
+                Item item = lockedRepository.findById(lockedId);
+                if (item.getQuantity() <= 0) {
+                    return false;
+                }
+                item.setQuantity(item.getQuantity() - 1);
+                lockedRepository.update(lockedId, item);
+                return true;
+            }
+        });
+
+        AtomicLong counter = new AtomicLong(stock);
+        double cas = run(() -> {
+            while (true) {
+                long current = counter.get();
+                if (current <= 0) {
+                    return false;
+                }
+                if (counter.compareAndSet(current, current - 1)) {
+                    return true;
+                }
+            }
+        });
+
+        ItemRepository itemRepository = new ItemRepository();
+        Long itemId = itemRepository.save(new Item("hot", 10000, (int) stock)).getId();
+        double reserve = run(() -> itemRepository.reserve(itemId, 1).status() == StockResult.Status.OK);
+
+        System.out.printf("%d threads, same item: synchronized update %.1f M ops/s, single CAS %.1f M ops/s, repository reserve %.1f M ops/s%n",
+                THREADS, locked, cas, reserve);
+    }
+
+    /**
+     * THREADS 개 스레드가 operation 을 최대 1초 동안 false 가 나올 때까지 반복하고 초당 처리 건수(백만)를 반환한다.
+     */
+    private static double run(BooleanSupplier operation) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicLong count = new AtomicLong();
+        long[] elapsed = new long[1];
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long deadline = System.nanoTime() + 1_000_000_000L;
+                long mine = 0;
+                while (System.nanoTime() < deadline && operation.getAsBoolean()) {
+                    mine++;
+                }
+                count.addAndGet(mine);
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        elapsed[0] = System.nanoTime() - begin;
+        return count.get() * 1000.0 / elapsed[0];
+    }
+}
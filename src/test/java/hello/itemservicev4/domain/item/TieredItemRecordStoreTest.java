@@ -0,0 +1,164 @@
+package hello.itemservicev4.domain.item;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TieredItemRecordStoreTest {
+
+    TieredItemRecordStore store = new TieredItemRecordStore(tempFile(), 100);
+    ItemRepository itemRepository = new ItemRepository(store);
+
+    @AfterEach
+    void afterEach() {
+        store.close();
+    }
+
+    @Test
+    void coldItemIsFaultedBackIn() {
+        //given
+        for (int i = 0; i < 1000; i++) {
+            itemRepository.save(new Item("item" + i, 10000 + i, i));
+        }
+
+        //when
+        Item first = itemRepository.findById(1L);
+
+        //then
+        assertThat(first.getItemName()).isEqualTo("item0");
+        assertThat(first.getPrice()).isEqualTo(10000);
+        assertThat(itemRepository.findAll().size()).isEqualTo(1000);
+        assertThat(store.size()).isEqualTo(1000);
+        int count = 0;
+        for (Item item : itemRepository.iterateAll()) {
+            assertThat(item.getItemName()).isEqualTo("item" + count++);
+        }
+        assertThat(count).isEqualTo(1000);
+    }
+
+    @Test
+    void nullFields() {
+        Item item = itemRepository.save(new Item(null, null, null));
+
+        Item findItem = itemRepository.findById(item.getId());
+
+        assertThat(findItem).isEqualTo(item);
+    }
+
+    @Test
+    void updateOverwritesColdRecord() {
+        for (int i = 0; i < 500; i++) {
+            itemRepository.save(new Item("item" + i, 10000, 10));
+        }
+
+        itemRepository.update(3L, new Item("changed", 20000, 20));
+
+        assertThat(itemRepository.findById(3L).getItemName()).isEqualTo("changed");
+        assertThat(itemRepository.findById(3L).getQuantity()).isEqualTo(20);
+    }
+
+    @Test
+    void putDuringMissFillIsNotOverwritten() throws InterruptedException {
+        //given 파일에서 예전 레코드를 읽는 사이 새 레코드가 put 된다
+        WindowTinyLfuCache cache = new WindowTinyLfuCache(100);
+        Thread writer = new Thread(() -> cache.put(new ItemRecord(1L, ItemNameArena.NULL_HANDLE, 2, 0)));
+
+        //when
+        cache.getOrLoad(1L, id -> {
+            writer.start();
+            while (writer.getState() != Thread.State.BLOCKED) {
+                Thread.onSpinWait();
+            }
+            return new ItemRecord(1L, ItemNameArena.NULL_HANDLE, 1, 0);
+        });
+        writer.join();
+
+        //then
+        assertThat(cache.get(1L).price).isEqualTo(2);
+    }
+
+    @Test
+    void frequentlyReadRecordSurvivesScan() {
+        //given 잠그지 않는 조회로만 자주 읽은 레코드
+        WindowTinyLfuCache cache = new WindowTinyLfuCache(100);
+        cache.put(new ItemRecord(1L, ItemNameArena.NULL_HANDLE, 1, 0));
+        for (int i = 0; i < 200; i++) {
+            cache.get(1L);
+        }
+
+        //when 한 번씩만 읽히는 레코드가 잔뜩 들어온다
+        for (long id = 2; id <= 1000; id++) {
+            cache.put(new ItemRecord(id, ItemNameArena.NULL_HANDLE, 1, 0));
+        }
+
+        //then
+        assertThat(cache.get(1L)).isNotNull();
+        assertThat(cache.size()).isLessThanOrEqualTo(100);
+    }
+
+    /**
+     * Zipfian(s=0.99) 분포로 조회할 때 hot 적중률과 findById p99 지연 시간
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void zipfianReport() {
+        int items = 200_000;
+        int capacity = 10_000;
+        int lookups = 1_000_000;
+
+        TieredItemRecordStore zipfStore = new TieredItemRecordStore(tempFile(), capacity);
+        ItemRepository repository = new ItemRepository(zipfStore);
+        for (int i = 0; i < items; i++) {
+            repository.save(new Item("item" + i, 10000, 10));
+        }
+
+        double[] cdf = zipfCdf(items, 0.99);
+        Random random = new Random(1);
+        long[] latencies = new long[lookups];
+        for (int i = 0; i < lookups; i++) {
+            int rank = Arrays.binarySearch(cdf, random.nextDouble());
+            long id = (rank < 0 ? -rank - 1 : rank) + 1;
+            long start = System.nanoTime();
+            repository.findById(id);
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+
+        double hitRatio = (double) zipfStore.hitCount() / (zipfStore.hitCount() + zipfStore.missCount());
+        System.out.println("items = " + items + ", hot capacity = " + capacity);
+        System.out.println("hit ratio = " + String.format("%.3f", hitRatio));
+        System.out.println("findById p50 = " + latencies[lookups / 2] + "ns, p99 = " + latencies[lookups * 99 / 100] + "ns");
+        zipfStore.close();
+
+        assertThat(hitRatio).isGreaterThan(0.5);
+    }
+
+    private static double[] zipfCdf(int n, double s) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1 / Math.pow(i + 1, s);
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cdf[i] /= sum;
+        }
+        return cdf;
+    }
+
+    private static Path tempFile() {
+        try {
+            return Files.createTempFile("items-test", ".dat");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package hello.itemservicev4.domain.item.jdbc;
+
+import hello.itemservicev4.dataset.DatasetSpec;
+import hello.itemservicev4.dataset.ItemDatasetGenerator;
+import hello.itemservicev4.domain.item.Item;
+import hello.itemservicev4.domain.item.ItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WriteBehindItemWriterTest {
+
+    @Test
+    void coalesce() throws InterruptedException {
+        CoalescingWriteQueue<String> queue = new CoalescingWriteQueue<>(10);
+        queue.put(1, "a1");
+        queue.put(2, "b1");
+        queue.put(1, "a2");
+
+        List<Long> ids = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        queue.drainTo(ids, values, 10);
+
+        // 같은 id 는 처음 들어온 자리에 마지막 값 하나만 남는다.
+        assertThat(ids).containsExactly(1L, 2L);
+        assertThat(values).containsExactly("a2", "b1");
+    }
+
+    @Test
+    void backpressure() throws InterruptedException {
+        CoalescingWriteQueue<String> queue = new CoalescingWriteQueue<>(2);
+        queue.put(1, "a");
+        queue.put(2, "b");
+        // 이미 있는 id 는 덮어쓰므로 자리를 더 차지하지 않는다.
+        queue.put(1, "a2");
+        assertThat(queue.awaitCapacity()).isTrue();
+
+        // 넣기는 기다리지 않고, 넘친 만큼 awaitCapacity 에서 기다린다.
+        queue.put(3, "c");
+        CountDownLatch done = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            try {
+                queue.awaitCapacity();
+                done.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        assertThat(done.await(100, TimeUnit.MILLISECONDS)).isFalse();
+
+        queue.drainTo(new ArrayList<>(), new ArrayList<>(), 1);
+        assertThat(done.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(queue.size()).isEqualTo(2);
+    }
+
+    @Test
+    void waitingForWriterDoesNotHoldItemLock() throws InterruptedException {
+        //given DB 기록이 멈춰 큐가 가득 찬 상태
+        FakeItemDao dao = new FakeItemDao();
+        WriteBehindItemWriter writer = new WriteBehindItemWriter(dao, 1, 1, 10);
+        ItemRepository repository = new ItemRepository();
+        repository.addChangeListener(writer);
+        dao.blocked = new CountDownLatch(1);
+        repository.save(new Item("item1", 1000, 1));
+        dao.entered.await();
+        repository.save(new Item("item2", 1000, 1));
+
+        //when 큐를 기다리는 저장 요청이 있어도
+        Thread saving = new Thread(() -> repository.save(new Item("item3", 1000, 1)));
+        saving.start();
+        waitUntil(() -> repository.findById(3L) != null);
+        Thread updating = new Thread(() -> repository.update(3L, new Item("changed", 1000, 1)));
+        updating.start();
+
+        //then 같은 상품의 수정은 잠금에서 막히지 않고 저장소에 반영된다
+        waitUntil(() -> "changed".equals(repository.findById(3L).getItemName()));
+        assertThat(repository.findById(3L).getItemName()).isEqualTo("changed");
+        dao.blocked.countDown();
+        saving.join();
+        updating.join();
+        writer.close();
+        assertThat(dao.rows.get(3L).getItemName()).isEqualTo("changed");
+    }
+
+    @Test
+    void writeBehindAndReload() throws InterruptedException {
+        FakeItemDao dao = new FakeItemDao();
+        WriteBehindItemWriter writer = new WriteBehindItemWriter(dao, 100, 1000, 10);
+        ItemRepository repository = new ItemRepository();
+        repository.addChangeListener(writer);
+
+        for (int i = 0; i < 5000; i++) {
+            repository.save(new Item("item" + i, 1000, i));
+        }
+        for (long id = 1; id <= 5000; id += 2) {
+            repository.update(id, new Item("updated" + id, 2000, 1));
+        }
+        writer.close();
+
+        assertThat(dao.rows).hasSize(5000);
+        assertThat(dao.rows.get(1L).getItemName()).isEqualTo("updated1");
+        assertThat(dao.rows.get(2L).getItemName()).isEqualTo("item1");
+        // 기록 전에 다시 바뀐 상품은 한 번만 기록된다.
+        assertThat(writer.writtenCount()).isLessThanOrEqualTo(7500);
+
+        // 다시 기동하면 id 를 유지한 채로 올라오고, 새 상품은 이어지는 id 를 받는다.
+        WriteBehindItemWriter reloaded = new WriteBehindItemWriter(dao, 100, 1000, 10);
+        ItemRepository restarted = new ItemRepository();
+        restarted.addChangeListener(reloaded);
+
+        assertThat(restarted.count()).isEqualTo(5000);
+        assertThat(restarted.findById(3L).getItemName()).isEqualTo("updated3");
+        assertThat(restarted.search("updated4999", 10)).hasSize(1);
+        assertThat(restarted.save(new Item("new", 1000, 1)).getId()).isEqualTo(5001L);
+        reloaded.close();
+        assertThat(dao.rows).hasSize(5001);
+    }
+
+    @Test
+    void generatedItemsAreWrittenAndReloaded() throws InterruptedException {
+        FakeItemDao dao = new FakeItemDao();
+        WriteBehindItemWriter writer = new WriteBehindItemWriter(dao, 100, 1000, 10);
+        ItemRepository repository = new ItemRepository();
+        repository.addChangeListener(writer);
+        repository.save(new Item("old", 1000, 1));
+
+        //when 데이터를 통째로 다시 만들고 종료한다
+        new ItemDatasetGenerator(2).replace(repository, new DatasetSpec(5000, 1, 1.0));
+        writer.close();
+
+        //then 만든 상품이 모두 기록되어 다시 기동해도 그대로 올라온다
+        assertThat(dao.rows).hasSize(5000);
+        ItemRepository restarted = new ItemRepository();
+        WriteBehindItemWriter reloaded = new WriteBehindItemWriter(dao, 100, 1000, 10);
+        restarted.addChangeListener(reloaded);
+        assertThat(restarted.count()).isEqualTo(5000);
+        for (long id = 1; id <= 5000; id++) {
+            assertThat(restarted.findById(id)).isEqualTo(repository.findById(id));
+        }
+        reloaded.close();
+    }
+
+    @Test
+    void clearStoreDeletesRows() throws InterruptedException {
+        FakeItemDao dao = new FakeItemDao();
+        WriteBehindItemWriter writer = new WriteBehindItemWriter(dao, 100, 1000, 10);
+        ItemRepository repository = new ItemRepository();
+        repository.addChangeListener(writer);
+        for (int i = 0; i < 3; i++) {
+            repository.save(new Item("item" + i, 1000, i));
+        }
+        waitUntil(() -> writer.writtenCount() == 3);
+
+        //when 저장소를 비우고 다시 저장하면 id 가 1 부터 다시 쓰인다
+        repository.clearStore();
+        Item saved = repository.save(new Item("new", 1000, 1));
+        writer.close();
+
+        //then 예전 행은 남지 않는다
+        assertThat(saved.getId()).isEqualTo(1L);
+        assertThat(dao.rows).hasSize(1);
+        assertThat(dao.rows.get(1L).getItemName()).isEqualTo("new");
+    }
+
+    @Test
+    void retryAfterFailure() throws InterruptedException {
+        FakeItemDao dao = new FakeItemDao();
+        dao.failures.set(1);
+        WriteBehindItemWriter writer = new WriteBehindItemWriter(dao, 100, 1000, 10);
+        ItemRepository repository = new ItemRepository();
+        repository.addChangeListener(writer);
+
+        repository.save(new Item("itemA", 10000, 10));
+
+        // 첫 batch 는 실패하고, 기록 스레드가 잠시 뒤 다시 기록한다.
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (writer.writtenCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(dao.rows).containsKey(1L);
+        assertThat(dao.batches.get()).isEqualTo(1);
+        writer.close();
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * DB 대신 TreeMap 에 기록한다. blocked 가 있으면 열릴 때까지 기록하지 않는다.
+     */
+    static class FakeItemDao extends JdbcItemDao {
+
+        final Map<Long, Item> rows = new TreeMap<>();
+        final AtomicInteger batches = new AtomicInteger();
+        final AtomicInteger failures = new AtomicInteger();
+        final CountDownLatch entered = new CountDownLatch(1);
+        volatile CountDownLatch blocked;
+
+        FakeItemDao() {
+            super(new JdbcTemplate());
+        }
+
+        @Override
+        void createTable() {
+        }
+
+        @Override
+        void mergeAll(List<Item> items) {
+            entered.countDown();
+            if (blocked != null) {
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            write(items);
+        }
+
+        private synchronized void write(List<Item> items) {
+            if (failures.getAndDecrement() > 0) {
+                throw new IllegalStateException("connection refused");
+            }
+            batches.incrementAndGet();
+            for (Item item : items) {
+                rows.put(item.getId(), item);
+            }
+        }
+
+        @Override
+        synchronized void deleteAll() {
+            rows.clear();
+        }
+
+        @Override
+        synchronized long loadAll(Consumer<Item> consumer) {
+            rows.values().forEach(consumer);
+            return rows.size();
+        }
+    }
+}
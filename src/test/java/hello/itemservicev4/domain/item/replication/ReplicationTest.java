@@ -0,0 +1,210 @@
+package hello.itemservicev4.domain.item.replication;
+
+import hello.itemservicev4.domain.item.Item;
+import hello.itemservicev4.domain.item.ItemPatch;
+import hello.itemservicev4.domain.item.ItemRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicationTest {
+
+    List<AutoCloseable> resources = new ArrayList<>();
+
+    @AfterEach
+    void close() throws Exception {
+        for (AutoCloseable resource : resources) {
+            resource.close();
+        }
+    }
+
+    @Test
+    void replicasFollowPrimary() throws InterruptedException {
+        ItemRepository primary = new ItemRepository();
+        ReplicationPublisher publisher = publisher(primary, 10000);
+        for (int i = 0; i < 1000; i++) {
+            primary.save(new Item("item" + i, 1000, 10));
+        }
+
+        // 스냅샷으로 받은 뒤 이어지는 변경을 받는다.
+        ItemRepository replicaA = new ItemRepository();
+        ItemRepository replicaB = new ItemRepository();
+        ReplicaSubscriber subscriberA = subscriber(replicaA, publisher);
+        ReplicaSubscriber subscriberB = subscriber(replicaB, publisher);
+        await(() -> subscriberA.lagMillis() >= 0 && subscriberB.lagMillis() >= 0);
+
+        for (int i = 0; i < 1000; i++) {
+            primary.save(new Item("new" + i, 2000, 20));
+        }
+        primary.update(1L, new Item("renamed", 3000, 30));
+        primary.patch(2L, new ItemPatch().price(5000), null);
+        primary.reserve(3L, 4);
+
+        long sequence = publisher.status().sequence();
+        await(() -> subscriberA.status().appliedSequence() == sequence && subscriberB.status().appliedSequence() == sequence);
+        for (ItemRepository replica : List.of(replicaA, replicaB)) {
+            assertThat(replica.count()).isEqualTo(2000L);
+            for (long id = 1; id <= 2000; id++) {
+                assertThat(replica.findById(id)).isEqualTo(primary.findById(id));
+            }
+            assertThat(replica.findIdByName("renamed")).isEqualTo(1L);
+            assertThat(replica.findIdByName("item0")).isNull();
+            assertThat(replica.search("renamed", 10)).hasSize(1);
+        }
+        assertThat(replicaA.findById(3L).getQuantity()).isEqualTo(6);
+        assertThat(publisher.status().replicas()).isEqualTo(2);
+
+        // 변경이 없어도 heartbeat 로 지연이 작게 유지된다.
+        Thread.sleep(500);
+        assertThat(subscriberA.lagMillis()).isBetween(0L, 400L);
+    }
+
+    @Test
+    void resyncReplacesReplicaData() {
+        ItemRepository primary = new ItemRepository();
+        ReplicationPublisher publisher = publisher(primary, 10000);
+        primary.save(new Item("itemA", 10000, 10));
+        ItemRepository replica = new ItemRepository();
+        ReplicaSubscriber subscriber = subscriber(replica, publisher);
+        await(() -> replica.count() == 1 && subscriber.lagMillis() >= 0);
+        Long epoch = subscriber.status().epoch();
+
+        // 데이터를 다시 만든 것처럼 restore 로만 채운다.
+        primary.clearStore();
+        Item restored = new Item("restored", 20000, 20);
+        restored.setId(5L);
+        primary.restore(restored);
+        publisher.resync();
+
+        await(() -> subscriber.lagMillis() >= 0 && !epoch.equals(subscriber.status().epoch()));
+        assertThat(replica.count()).isEqualTo(1L);
+        assertThat(replica.findById(5L)).isEqualTo(restored);
+        assertThat(replica.findById(1L)).isNull();
+        assertThat(subscriber.status().snapshots()).isEqualTo(2L);
+    }
+
+    @Test
+    void readersNeverSeeEmptyStoreDuringResync() throws InterruptedException {
+        ItemRepository primary = new ItemRepository();
+        ReplicationPublisher publisher = publisher(primary, 100_000);
+        for (int i = 0; i < 20_000; i++) {
+            primary.save(new Item("item" + i, 1000, 10));
+        }
+        ItemRepository replica = new ItemRepository();
+        ReplicaSubscriber subscriber = subscriber(replica, publisher);
+        await(() -> subscriber.lagMillis() >= 0);
+        Long epoch = subscriber.status().epoch();
+
+        // 스냅샷을 다시 받는 동안에도 조회는 예전이나 새 상품 전체를 본다.
+        AtomicLong emptyReads = new AtomicLong();
+        AtomicBoolean reading = new AtomicBoolean(true);
+        Thread reader = new Thread(() -> {
+            while (reading.get()) {
+                if (replica.findById(1L) == null || replica.count() < 20_000) {
+                    emptyReads.incrementAndGet();
+                }
+            }
+        });
+        reader.start();
+        publisher.resync();
+        await(() -> !epoch.equals(subscriber.status().epoch()));
+        reading.set(false);
+        reader.join();
+
+        assertThat(emptyReads.get()).isZero();
+        assertThat(replica.count()).isEqualTo(20_000L);
+        assertThat(replica.findById(1L)).isEqualTo(primary.findById(1L));
+    }
+
+    @Test
+    void namesMovingBetweenItemsConverge() throws InterruptedException {
+        ItemRepository primary = new ItemRepository();
+        ReplicationPublisher publisher = publisher(primary, 100_000);
+        primary.save(new Item("a", 1000, 1));
+        primary.save(new Item("b", 1000, 1));
+        ItemRepository replica = new ItemRepository();
+        ReplicaSubscriber subscriber = subscriber(replica, publisher);
+        await(() -> subscriber.lagMillis() >= 0);
+
+        // 두 상품이 같은 이름들을 번갈아 가져간다. 한쪽이 이름을 놓는 변경보다 다른 쪽이 가져가는 변경이 먼저 올 수 있다.
+        List<Thread> threads = new ArrayList<>();
+        for (long id = 1; id <= 2; id++) {
+            long itemId = id;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    primary.patch(itemId, new ItemPatch().itemName("name" + (i + itemId) % 3), null);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long sequence = publisher.status().sequence();
+        await(() -> subscriber.status().appliedSequence() == sequence);
+        for (long id = 1; id <= 2; id++) {
+            Item item = primary.findById(id);
+            assertThat(replica.findById(id)).isEqualTo(item);
+            assertThat(replica.findIdByName(item.getItemName())).isEqualTo(id);
+        }
+    }
+
+    @Test
+    void slowReplicaIsDropped() throws IOException {
+        ItemRepository primary = new ItemRepository();
+        ReplicationPublisher publisher = publisher(primary, 4);
+        for (int i = 0; i < 200_000; i++) {
+            primary.save(new Item("item" + i, 1000, 10));
+        }
+
+        // 접속만 하고 읽지 않는 replica. 스냅샷을 보내다 막히는 동안 변경이 쌓인다.
+        Socket socket = new Socket("127.0.0.1", publisher.getPort());
+        resources.add(socket);
+        await(() -> publisher.status().replicas() == 1);
+        for (int i = 0; i < 10; i++) {
+            primary.update(1L, new Item("item0", 1000, i));
+        }
+
+        // 쓰는 쪽은 기다리지 않고, 밀린 replica 만 끊긴다.
+        assertThat(publisher.status().dropped()).isEqualTo(1L);
+        assertThat(publisher.status().replicas()).isZero();
+    }
+
+    private ReplicationPublisher publisher(ItemRepository repository, int maxPending) {
+        ReplicationPublisher publisher = new ReplicationPublisher("127.0.0.1", 0, maxPending, 50);
+        repository.addChangeListener(publisher);
+        resources.add(publisher::close);
+        return publisher;
+    }
+
+    private ReplicaSubscriber subscriber(ItemRepository repository, ReplicationPublisher publisher) {
+        ReplicaSubscriber subscriber = new ReplicaSubscriber("127.0.0.1", publisher.getPort());
+        repository.addChangeListener(subscriber);
+        resources.add(subscriber::close);
+        return subscriber;
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("timed out").isLessThan(deadline);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
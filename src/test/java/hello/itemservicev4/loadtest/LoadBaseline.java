@@ -0,0 +1,96 @@
+package hello.itemservicev4.loadtest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * 기준 결과 파일 (시나리오.p50_ms, 시나리오.p99_ms, 시나리오.p999_ms, 시나리오.throughput)
+ * <p>
+ * 지연 시간이 기준보다 tolerance 이상 느려지거나 처리량이 tolerance 이상 줄면 회귀로 본다.
+ * p999 는 표본이 적어 흔들리므로 허용 폭을 두 배로 둔다.
+ */
+final class LoadBaseline {
+
+    private final Properties values;
+
+    private LoadBaseline(Properties values) {
+        this.values = values;
+    }
+
+    /**
+     * 파일이 없으면 null
+     */
+    static LoadBaseline load(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        Properties values = new Properties();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            values.load(reader);
+        }
+        return new LoadBaseline(values);
+    }
+
+    static void save(Path path, Map<String, LoadGenerator.Stats> result, String comment) throws IOException {
+        Properties values = new Properties();
+        for (LoadGenerator.Stats stats : result.values()) {
+            // 한 번도 성공하지 않은 시나리오는 0 이 기준이 되지 않게 뺀다.
+            if (stats.count() == 0) {
+                continue;
+            }
+            values.setProperty(stats.name() + ".p50_ms", format(stats.p50Millis()));
+            values.setProperty(stats.name() + ".p99_ms", format(stats.p99Millis()));
+            values.setProperty(stats.name() + ".p999_ms", format(stats.p999Millis()));
+            values.setProperty(stats.name() + ".throughput", format(stats.throughput()));
+        }
+        Files.createDirectories(path.getParent());
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            values.store(writer, comment);
+        }
+    }
+
+    /**
+     * @return 회귀한 항목 설명, 없으면 빈 목록
+     */
+    List<String> regressions(Map<String, LoadGenerator.Stats> result, double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        for (LoadGenerator.Stats stats : result.values()) {
+            String name = stats.name();
+            checkLatency(regressions, name + ".p50_ms", stats.p50Millis(), tolerance);
+            checkLatency(regressions, name + ".p99_ms", stats.p99Millis(), tolerance);
+            checkLatency(regressions, name + ".p999_ms", stats.p999Millis(), tolerance * 2);
+
+            String key = name + ".throughput";
+            if (values.containsKey(key)) {
+                double baseline = Double.parseDouble(values.getProperty(key));
+                if (stats.throughput() < baseline * (1 - tolerance)) {
+                    regressions.add(String.format("%s %.1f/s < baseline %.1f/s", key, stats.throughput(), baseline));
+                }
+            }
+        }
+        return regressions;
+    }
+
+    private void checkLatency(List<String> regressions, String key, double value, double tolerance) {
+        if (!values.containsKey(key)) {
+            return;
+        }
+        double baseline = Double.parseDouble(values.getProperty(key));
+        if (value > baseline * (1 + tolerance)) {
+            regressions.add(String.format("%s %.2fms > baseline %.2fms", key, value, baseline));
+        }
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+}
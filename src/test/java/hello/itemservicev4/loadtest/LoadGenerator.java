@@ -0,0 +1,249 @@
+package hello.itemservicev4.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiFunction;
+
+/**
+ * 부하 생성기. 사용자 스레드마다 가중치대로 시나리오를 골라 요청을 보낸다.
+ * <ul>
+ *     <li>rate 가 0 이면 닫힌 루프: 응답을 받으면 바로 다음 요청을 보낸다.
+ *     서버가 느려지면 요청도 덜 보내므로 느린 구간의 지연이 적게 잡힌다. (coordinated omission)
+ *     처리량의 한계를 볼 때 쓰고, 지연 시간은 참고로만 본다.</li>
+ *     <li>rate 가 있으면 일정 도착률: 전체 rate 개/초로 요청할 시각을 미리 정해 두고,
+ *     지연 시간을 실제로 보낸 시각이 아니라 보냈어야 할 시각부터 잰다. 밀린 만큼 지연에 들어간다.</li>
+ * </ul>
+ * 지연 시간은 스레드별 배열에 모았다가 끝나고 합쳐서 정렬하므로 측정 중에는 스레드끼리 공유하는 것이 없다.
+ * 503 (등록 요청 동시 처리 제한) 은 거절로 따로 세고 지연 시간에 넣지 않는다.
+ * requestTimeout 안에 응답이 없으면 오류로 센다. (timeouts 에도 따로 센다)
+ */
+final class LoadGenerator {
+
+    static final String ALL = "all";
+
+    /**
+     * @param request (난수, 사용자별 순번) 으로 요청을 만든다.
+     */
+    record Scenario(String name, int weight, BiFunction<SplittableRandom, Long, HttpRequest> request) {
+    }
+
+    record Stats(String name, long count, long rejected, long errors, long timeouts, double throughput,
+                 double p50Millis, double p99Millis, double p999Millis) {
+
+        @Override
+        public String toString() {
+            return String.format("%-14s count=%8d rejected=%6d errors=%4d timeouts=%4d throughput=%9.1f/s p50=%7.2fms p99=%7.2fms p999=%7.2fms",
+                    name, count, rejected, errors, timeouts, throughput, p50Millis, p99Millis, p999Millis);
+        }
+    }
+
+    private static final int TIMEOUT = -2;
+    // 마지막 요청이 끝나기를 requestTimeout 보다 이만큼 더 기다린다.
+    private static final long STOP_GRACE_MILLIS = 5000;
+
+    private final HttpClient client;
+    private final List<Scenario> scenarios;
+    private final int[] cumulativeWeights;
+    private final int users;
+    private final Duration requestTimeout;
+    // 사용자 한 명이 요청하는 간격. 0 이면 닫힌 루프
+    private final long intervalNanos;
+
+    /**
+     * @param rate 전체 초당 요청 수. 0 이면 닫힌 루프
+     */
+    LoadGenerator(HttpClient client, List<Scenario> scenarios, int users, Duration requestTimeout, double rate) {
+        this.client = client;
+        this.scenarios = scenarios;
+        this.users = users;
+        this.requestTimeout = requestTimeout;
+        this.intervalNanos = rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) * users / rate) : 0;
+        this.cumulativeWeights = new int[scenarios.size()];
+        int sum = 0;
+        for (int i = 0; i < scenarios.size(); i++) {
+            sum += scenarios.get(i).weight();
+            cumulativeWeights[i] = sum;
+        }
+    }
+
+    /**
+     * warmUp 동안은 기록하지 않고, 이어서 duration 동안 기록한다.
+     *
+     * @return 시나리오 이름 -> 결과 (마지막에 전체 합계 {@link #ALL})
+     */
+    Map<String, Stats> run(Duration warmUp, Duration duration, long seed) throws InterruptedException {
+        long start = System.nanoTime();
+        long recordFrom = start + warmUp.toNanos();
+        long end = recordFrom + duration.toNanos();
+
+        List<User> userList = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            // 일정 도착률이면 사용자마다 시작을 조금씩 어긋나게 해 요청이 한꺼번에 몰리지 않게 한다.
+            User user = new User(new SplittableRandom(seed + i), start + intervalNanos * i / users, recordFrom, end);
+            userList.add(user);
+            Thread thread = new Thread(user, "load-user-" + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+        long stopBy = System.currentTimeMillis() + TimeUnit.NANOSECONDS.toMillis(end - System.nanoTime())
+                + requestTimeout.toMillis() + STOP_GRACE_MILLIS;
+        for (Thread thread : threads) {
+            thread.join(Math.max(1, stopBy - System.currentTimeMillis()));
+            if (thread.isAlive()) {
+                throw new IllegalStateException(thread.getName() + " did not stop after the request timeout");
+            }
+        }
+
+        double seconds = duration.toNanos() / 1e9;
+        Map<String, Stats> result = new LinkedHashMap<>();
+        Recorder all = new Recorder();
+        for (int s = 0; s < scenarios.size(); s++) {
+            Recorder merged = new Recorder();
+            for (User user : userList) {
+                merged.addAll(user.recorders[s]);
+            }
+            all.addAll(merged);
+            result.put(scenarios.get(s).name(), merged.stats(scenarios.get(s).name(), seconds));
+        }
+        result.put(ALL, all.stats(ALL, seconds));
+        return result;
+    }
+
+    private int pick(SplittableRandom random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return i;
+            }
+        }
+        return cumulativeWeights.length - 1;
+    }
+
+    private final class User implements Runnable {
+
+        private final SplittableRandom random;
+        private final long firstAt;
+        private final long recordFrom;
+        private final long end;
+        private final Recorder[] recorders;
+        private long sequence;
+
+        User(SplittableRandom random, long firstAt, long recordFrom, long end) {
+            this.random = random;
+            this.firstAt = firstAt;
+            this.recordFrom = recordFrom;
+            this.end = end;
+            this.recorders = new Recorder[scenarios.size()];
+            for (int i = 0; i < recorders.length; i++) {
+                recorders[i] = new Recorder();
+            }
+        }
+
+        @Override
+        public void run() {
+            long intended = firstAt;
+            while (true) {
+                long now = System.nanoTime();
+                if (intervalNanos > 0) {
+                    // 보낼 시각이 아직이면 기다리고, 이미 지났으면(밀렸으면) 바로 보낸다.
+                    while (now < intended) {
+                        LockSupport.parkNanos(intended - now);
+                        now = System.nanoTime();
+                    }
+                } else {
+                    intended = now;
+                }
+                if (intended >= end) {
+                    return;
+                }
+                int s = pick(random);
+                HttpRequest request = HttpRequest.newBuilder(scenarios.get(s).request().apply(random, sequence++), (name, value) -> true)
+                        .timeout(requestTimeout)
+                        .build();
+                int status;
+                try {
+                    status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                } catch (HttpTimeoutException e) {
+                    status = TIMEOUT;
+                } catch (IOException e) {
+                    status = -1;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long elapsed = System.nanoTime() - intended;
+                if (intended >= recordFrom) {
+                    recorders[s].record(status, elapsed);
+                }
+                intended += intervalNanos;
+            }
+        }
+    }
+
+    private static final class Recorder {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private long rejected;
+        private long errors;
+        private long timeouts;
+
+        void record(int status, long nanos) {
+            if (status == 503) {
+                rejected++;
+                return;
+            }
+            if (status == TIMEOUT) {
+                timeouts++;
+            }
+            if (status < 0 || status >= 500) {
+                errors++;
+                return;
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+
+        void addAll(Recorder other) {
+            if (count + other.count > latencies.length) {
+                latencies = Arrays.copyOf(latencies, Math.max(latencies.length * 2, count + other.count));
+            }
+            System.arraycopy(other.latencies, 0, latencies, count, other.count);
+            count += other.count;
+            rejected += other.rejected;
+            errors += other.errors;
+            timeouts += other.timeouts;
+        }
+
+        Stats stats(String name, double seconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return new Stats(name, count, rejected, errors, timeouts, count / seconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999));
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package hello.itemservicev4.loadtest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 애플리케이션을 로컬 포트로 띄우고 조회, 등록, 수정, API 요청을 섞어 보낸 뒤 기준 결과와 비교한다.
+ * 외부 서비스 없이 한 대에서 돈다. 오래 걸리므로 -Dloadtest=true 일 때만 실행한다.
+ * <pre>
+ * ./gradlew test --tests '*LoadTest' -Dloadtest=true
+ *   -Dloadtest.users=32 -Dloadtest.warmup-seconds=10 -Dloadtest.duration-seconds=30
+ *   -Dloadtest.dataset-size=20000 -Dloadtest.tolerance=0.25 -Dloadtest.request-timeout-ms=5000
+ *   -Dloadtest.rate=0                 (전체 초당 요청 수, 0 이면 닫힌 루프)
+ *   -Dloadtest.update-baseline=true   (이번 결과를 기준으로 저장)
+ * </pre>
+ * 기준 파일(src/test/resources/loadtest/baseline.properties, rate 를 주면 baseline-rate-{rate}.properties)이 없으면
+ * 비교할 수 없으므로 실패한다. 처음에는 -Dloadtest.update-baseline=true 로 만든다.
+ * 기준은 측정한 장비에서만 의미가 있으므로 장비를 바꾸면 다시 만든다.
+ * <p>
+ * 닫힌 루프는 서버가 느려지면 요청도 덜 보내 지연이 적게 잡힌다. 지연 시간을 비교하려면 처리량보다 낮은 rate 를 준다.
+ * ({@link LoadGenerator} 참고)
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "dataset.size=${loadtest.dataset-size:20000}",
+        "dataset.seed=42",
+        // 요청마다 남기는 info 로그가 측정을 흔들지 않게 한다.
+        "logging.level.hello.itemservicev4=warn"
+})
+class LoadTest {
+
+    private static final Path BASELINE_DIR = Path.of("src/test/resources/loadtest");
+
+    private static final String[] QUERIES = {"smart", "mug", "basic keyboard", "pro", "chair 1"};
+
+    @LocalServerPort
+    int port;
+
+    @Test
+    void mixedTraffic() throws Exception {
+        int users = Integer.getInteger("loadtest.users", 32);
+        Duration warmUp = Duration.ofSeconds(Integer.getInteger("loadtest.warmup-seconds", 10));
+        Duration duration = Duration.ofSeconds(Integer.getInteger("loadtest.duration-seconds", 30));
+        int datasetSize = Integer.getInteger("loadtest.dataset-size", 20000);
+        double tolerance = Double.parseDouble(System.getProperty("loadtest.tolerance", "0.25"));
+        Duration requestTimeout = Duration.ofMillis(Integer.getInteger("loadtest.request-timeout-ms", 5000));
+        int rate = Integer.getInteger("loadtest.rate", 0);
+        Path baselinePath = BASELINE_DIR.resolve(rate > 0 ? "baseline-rate-" + rate + ".properties" : "baseline.properties");
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(2))
+                .build();
+        LoadGenerator generator = new LoadGenerator(client, scenarios("http://localhost:" + port, datasetSize), users,
+                requestTimeout, rate);
+        Map<String, LoadGenerator.Stats> result = generator.run(warmUp, duration, 42);
+        result.values().forEach(System.out::println);
+
+        // 503 은 동시 처리 제한으로 거절한 것이므로 오류로 보지 않는다. 시간 안에 응답하지 않은 요청은 오류다.
+        assertThat(result.get(LoadGenerator.ALL).errors()).isZero();
+
+        if (Boolean.getBoolean("loadtest.update-baseline")) {
+            LoadBaseline.save(baselinePath, result, String.format("users=%d rate=%d duration=%ds dataset=%d cpus=%d",
+                    users, rate, duration.toSeconds(), datasetSize, Runtime.getRuntime().availableProcessors()));
+            System.out.println("baseline saved to " + baselinePath.toAbsolutePath());
+            return;
+        }
+        LoadBaseline baseline = LoadBaseline.load(baselinePath);
+        assertThat(baseline)
+                .as("no baseline at %s, run once with -Dloadtest.update-baseline=true", baselinePath.toAbsolutePath())
+                .isNotNull();
+        List<String> regressions = baseline.regressions(result, tolerance);
+        regressions.forEach(regression -> System.out.println("REGRESSION " + regression));
+        assertThat(regressions).isEmpty();
+    }
+
+    /**
+     * 조회 위주에 등록, 수정, API 요청을 섞는다. 잘못된 입력은 검증 실패 경로(오류 메시지, 폼 다시 렌더링)를 탄다.
+     */
+    private static List<LoadGenerator.Scenario> scenarios(String baseUrl, int datasetSize) {
+        String items = baseUrl + "/validation/v4/items";
+        return List.of(
+                new LoadGenerator.Scenario("detail", 40, (random, seq) ->
+                        get(items + "/" + (1 + random.nextInt(datasetSize)))),
+                new LoadGenerator.Scenario("search", 10, (random, seq) ->
+                        get(items + "?q=" + encode(QUERIES[random.nextInt(QUERIES.length)]))),
+                new LoadGenerator.Scenario("list", 1, (random, seq) ->
+                        get(items)),
+                new LoadGenerator.Scenario("add", 8, (random, seq) ->
+                        postForm(items + "/add", form(uniqueName("add", random, seq), "10000", "10"))),
+                new LoadGenerator.Scenario("add-invalid", 12, (random, seq) ->
+                        postForm(items + "/add", form("", "qqq", "99999"))),
+                new LoadGenerator.Scenario("edit", 8, (random, seq) -> {
+                    long id = 1 + random.nextInt(datasetSize);
+                    return postForm(items + "/" + id + "/edit",
+                            "id=" + id + "&" + form(uniqueName("edit", random, seq), "20000", "5"));
+                }),
+                new LoadGenerator.Scenario("edit-invalid", 6, (random, seq) -> {
+                    long id = 1 + random.nextInt(datasetSize);
+                    return postForm(items + "/" + id + "/edit", "id=" + id + "&" + form("edit", "10", "1"));
+                }),
+                new LoadGenerator.Scenario("api-add", 8, (random, seq) ->
+                        postJson(baseUrl + "/validation/api/items/add",
+                                "{\"itemName\":\"" + uniqueName("api", random, seq) + "\",\"price\":10000,\"quantity\":10}")),
+                new LoadGenerator.Scenario("api-invalid", 7, (random, seq) ->
+                        postJson(baseUrl + "/validation/api/items/add", "{\"itemName\":\"\",\"price\":0,\"quantity\":100000}"))
+        );
+    }
+
+    // 사용자마다 다른 난수에 사용자별 순번을 붙여 이름이 겹치지 않게 한다.
+    private static String uniqueName(String prefix, SplittableRandom random, long seq) {
+        return prefix + "-" + Long.toHexString(random.nextLong()) + "-" + seq;
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET().build();
+    }
+
+    private static HttpRequest postForm(String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static HttpRequest postJson(String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static String form(String itemName, String price, String quantity) {
+        return "itemName=" + encode(itemName) + "&price=" + price + "&quantity=" + quantity;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,138 @@
+package hello.itemservicev4.validation;
+
+import hello.itemservicev4.domain.item.Item;
+import hello.itemservicev4.domain.item.SaveCheck;
+import hello.itemservicev4.domain.item.UpdateCheck;
+import hello.itemservicev4.web.validation.form.ItemSaveForm;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import lombok.Data;
+import org.hibernate.validator.constraints.ScriptAssert;
+import org.hibernate.validator.engine.HibernateConstraintViolation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import javax.script.ScriptEngineManager;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ExpressionAssertTest {
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Test
+    void compiledExpression() {
+        CompiledExpression expression = CompiledExpression.compile("price * quantity >= 10000", Item.class);
+
+        assertThat(expression.check(new Item("itemA", 1000, 10))).isNull();
+        assertThat(expression.check(new Item("itemA", 1000, 9))).containsExactly(10000, 9000);
+        // 필드가 비어 있으면 판단하지 않는다.
+        assertThat(expression.check(new Item("itemA", null, 1))).isNull();
+
+        // 같은 (클래스, 검증식) 은 한 번만 컴파일한다.
+        assertThat(CompiledExpression.compile("price * quantity >= 10000", Item.class)).isSameAs(expression);
+    }
+
+    @Test
+    void arithmetic() {
+        Item item = new Item("itemA", 1000, 3);
+
+        assertThat(CompiledExpression.compile("-(price - 100) / quantity + 2 * 5 < 0", Item.class).check(item)).isNull();
+        assertThat(CompiledExpression.compile("price != quantity * 1000 / 3", Item.class).check(item)).containsExactly(1000, 1000);
+
+        assertThatThrownBy(() -> CompiledExpression.compile("price * stock >= 1", Item.class))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CompiledExpression.compile("price * quantity", Item.class))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CompiledExpression.compile("itemName >= 1", Item.class))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void expressionAssert() {
+        ItemSaveForm form = new ItemSaveForm();
+        form.setItemName("itemA");
+        form.setPrice(1000);
+        form.setQuantity(1);
+
+        Set<ConstraintViolation<ItemSaveForm>> violations = validator.validate(form);
+
+        assertThat(violations).hasSize(1);
+        ConstraintViolation<ItemSaveForm> violation = violations.iterator().next();
+        assertThat(violation.getPropertyPath().toString()).isEmpty();
+        HibernateConstraintViolation<?> hibernateViolation = violation.unwrap(HibernateConstraintViolation.class);
+        assertThat(hibernateViolation.getDynamicPayload(Object[].class)).containsExactly(10000, 1000);
+    }
+
+    @Test
+    void groups() {
+        Item item = new Item("itemA", 1000, 1);
+
+        // Item 은 SaveCheck, UpdateCheck 에서만 검증한다.
+        assertThat(validator.validate(item)).isEmpty();
+        assertThat(validator.validate(item, SaveCheck.class)).hasSize(1);
+        assertThat(validator.validate(item, UpdateCheck.class)).hasSize(1);
+    }
+
+    /**
+     * ScriptAssert(javascript) 와 비교. JDK 15 부터 Nashorn 이 빠져 자바스크립트 엔진이 없으면 직접 작성한 검증 로직과만 비교한다.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark() {
+        int iterations = 200_000;
+        ExpressionTarget expressionTarget = new ExpressionTarget();
+        expressionTarget.setPrice(1000);
+        expressionTarget.setQuantity(1);
+
+        long handWritten = measure(iterations, () -> {
+            Integer price = expressionTarget.getPrice();
+            Integer quantity = expressionTarget.getQuantity();
+            return price != null && quantity != null && price * quantity < 10000 ? 1 : 0;
+        });
+        long expression = measure(iterations, () -> validator.validate(expressionTarget).size());
+        System.out.printf("hand-written      %6d ns/op%n", handWritten);
+        System.out.printf("@ExpressionAssert %6d ns/op%n", expression);
+
+        if (new ScriptEngineManager().getEngineByName("javascript") == null) {
+            System.out.println("@ScriptAssert     skipped (no javascript engine on " + System.getProperty("java.version") + ")");
+            return;
+        }
+        ScriptTarget scriptTarget = new ScriptTarget();
+        scriptTarget.setPrice(1000);
+        scriptTarget.setQuantity(1);
+        long script = measure(iterations, () -> validator.validate(scriptTarget).size());
+        System.out.printf("@ScriptAssert     %6d ns/op (%.1fx)%n", script, (double) script / expression);
+    }
+
+    private static long measure(int iterations, java.util.function.IntSupplier operation) {
+        int sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            sink += operation.getAsInt();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += operation.getAsInt();
+        }
+        long elapsed = System.nanoTime() - start;
+        assertThat(sink).isEqualTo(iterations * 2);
+        return elapsed / iterations;
+    }
+
+    @Data
+    @ExpressionAssert(expression = "price * quantity >= 10000", errorCode = "totalPriceMin")
+    public static class ExpressionTarget {
+        private Integer price;
+        private Integer quantity;
+    }
+
+    @Data
+    @ScriptAssert(lang = "javascript", script = "_this.price * _this.quantity >= 10000")
+    public static class ScriptTarget {
+        private Integer price;
+        private Integer quantity;
+    }
+}
@@ -0,0 +1,187 @@
+package hello.itemservicev4.validation;
+
+import hello.itemservicev4.domain.item.Item;
+import hello.itemservicev4.domain.item.SaveCheck;
+import hello.itemservicev4.domain.item.UpdateCheck;
+import hello.itemservicev4.web.validation.ItemPatchValidator;
+import hello.itemservicev4.web.validation.form.ItemPatchForm;
+import hello.itemservicev4.web.validation.form.ItemSaveForm;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.hibernate.validator.HibernateValidatorConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.ObjectError;
+
+import java.util.Set;
+import java.util.function.IntSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FailFastValidationTest {
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    private ExpressionAssertValidatorFactoryBean fullValidator;
+    private FailFastValidator failFastValidator;
+
+    @BeforeEach
+    void setUp() {
+        fullValidator = new ExpressionAssertValidatorFactoryBean();
+        fullValidator.afterPropertiesSet();
+        ExpressionAssertValidatorFactoryBean failFast = new ExpressionAssertValidatorFactoryBean();
+        failFast.getValidationPropertyMap().put(HibernateValidatorConfiguration.FAIL_FAST, "true");
+        failFast.afterPropertiesSet();
+        failFastValidator = new FailFastValidator(failFast);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fullValidator.destroy();
+        failFastValidator.destroy();
+    }
+
+    @Test
+    void defaultCollectsEveryError() {
+        BeanPropertyBindingResult errors = new BeanPropertyBindingResult(saveForm(" ", 0, 100000), "item");
+
+        fullValidator.validate(errors.getTarget(), errors);
+
+        assertThat(errors.getAllErrors().stream().map(ObjectError::getCode))
+                .containsExactlyInAnyOrder("NotBlank", "Range", "Max", "totalPriceMin");
+    }
+
+    @Test
+    void tiersStopAtFirstFailure() {
+        // 값이 비어 있으면 범위, 복합 룰은 검사하지 않는다.
+        assertThat(codes(validator.validate(saveForm(" ", null, 100000), SaveCheck.FailFast.class)))
+                .containsExactlyInAnyOrder("NotBlank", "NotNull");
+        // 범위에 걸리면 복합 룰은 검사하지 않는다.
+        assertThat(codes(validator.validate(saveForm("itemA", 0, 100000), SaveCheck.FailFast.class)))
+                .containsExactlyInAnyOrder("Range", "Max");
+        assertThat(codes(validator.validate(saveForm("itemA", 1000, 1), SaveCheck.FailFast.class)))
+                .containsExactly("ExpressionAssert");
+        assertThat(validator.validate(saveForm("itemA", 1000, 10), SaveCheck.FailFast.class)).isEmpty();
+
+        // 마지막 단계는 SaveCheck 자체라 Item 의 SaveCheck 제약도 그대로 검사한다.
+        assertThat(validator.validate(new Item("itemA", 1000, 1), SaveCheck.FailFast.class)).hasSize(1);
+    }
+
+    @Test
+    void failFastReturnsFirstError() {
+        BeanPropertyBindingResult errors = new BeanPropertyBindingResult(saveForm(" ", 0, 100000), "item");
+
+        failFastValidator.validate(errors.getTarget(), errors, SaveCheck.FailFast.class);
+
+        assertThat(errors.getErrorCount()).isEqualTo(1);
+        assertThat(errors.getFieldError("itemName").getCode()).isEqualTo("NotBlank");
+
+        BeanPropertyBindingResult crossField = new BeanPropertyBindingResult(saveForm("itemA", 1000, 1), "item");
+        failFastValidator.validate(crossField.getTarget(), crossField, SaveCheck.FailFast.class);
+        assertThat(crossField.getGlobalError().getCode()).isEqualTo("totalPriceMin");
+    }
+
+    @Test
+    void patchStopsAtFirstFailingField() {
+        ItemPatchValidator patchValidator = new ItemPatchValidator(fullValidator, failFastValidator);
+        ItemPatchForm garbage = patchForm(" ", 0);
+
+        BeanPropertyBindingResult all = new BeanPropertyBindingResult(garbage, "itemPatchForm");
+        patchValidator.validate(garbage, all);
+        BeanPropertyBindingResult first = new BeanPropertyBindingResult(garbage, "itemPatchForm");
+        patchValidator.validate(garbage, first, UpdateCheck.FailFast.class);
+
+        assertThat(all.getFieldErrors().stream().map(ObjectError::getCode)).containsExactlyInAnyOrder("NotBlank", "Range");
+        assertThat(first.getErrorCount()).isEqualTo(1);
+        assertThat(first.getFieldError("itemName").getCode()).isEqualTo("NotBlank");
+
+        // 들어오지 않은 필드(수량)는 검사하지 않는다.
+        BeanPropertyBindingResult valid = new BeanPropertyBindingResult(patchForm("itemA", 1000), "itemPatchForm");
+        patchValidator.validate(valid.getTarget(), valid, UpdateCheck.FailFast.class);
+        assertThat(valid.hasErrors()).isFalse();
+    }
+
+    /**
+     * 엉터리 요청(모든 필드 오류) 하나를 거절하는 데 드는 시간
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark() {
+        int iterations = 100_000;
+        ItemSaveForm garbage = saveForm(" ", 0, 100000);
+
+        long full = measure(iterations, () -> {
+            BeanPropertyBindingResult errors = new BeanPropertyBindingResult(garbage, "item");
+            fullValidator.validate(garbage, errors);
+            return errors.hasErrors() ? 1 : 0;
+        });
+        long failFast = measure(iterations, () -> {
+            BeanPropertyBindingResult errors = new BeanPropertyBindingResult(garbage, "item");
+            failFastValidator.validate(garbage, errors, SaveCheck.FailFast.class);
+            return errors.hasErrors() ? 1 : 0;
+        });
+        System.out.printf("Default (all errors)     %6d ns/op%n", full);
+        System.out.printf("SaveCheck.FailFast       %6d ns/op (%.1fx)%n", failFast, (double) full / failFast);
+
+        // PATCH (상품명, 가격만 들어온 엉터리 요청)
+        ItemPatchValidator patchValidator = new ItemPatchValidator(fullValidator, failFastValidator);
+        ItemPatchForm garbagePatch = patchForm(" ", 0);
+        long patchFull = measure(iterations, () -> {
+            BeanPropertyBindingResult errors = new BeanPropertyBindingResult(garbagePatch, "itemPatchForm");
+            patchValidator.validate(garbagePatch, errors);
+            return errors.hasErrors() ? 1 : 0;
+        });
+        long patchFailFast = measure(iterations, () -> {
+            BeanPropertyBindingResult errors = new BeanPropertyBindingResult(garbagePatch, "itemPatchForm");
+            patchValidator.validate(garbagePatch, errors, UpdateCheck.FailFast.class);
+            return errors.hasErrors() ? 1 : 0;
+        });
+        System.out.printf("PATCH Default            %6d ns/op%n", patchFull);
+        System.out.printf("PATCH UpdateCheck.FailFast %4d ns/op (%.1fx)%n", patchFailFast, (double) patchFull / patchFailFast);
+    }
+
+    /**
+     * 한 번 데운 뒤 여러 번 재서 가장 빠른 값 (JIT 컴파일이 끝나지 않은 구간을 빼려고)
+     */
+    private static long measure(int iterations, IntSupplier operation) {
+        int rounds = 5;
+        int sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            sink += operation.getAsInt();
+        }
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                sink += operation.getAsInt();
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        assertThat(sink).isEqualTo(iterations * (rounds + 1));
+        return best / iterations;
+    }
+
+    private static <T> String[] codes(Set<ConstraintViolation<T>> violations) {
+        return violations.stream()
+                .map(violation -> violation.getConstraintDescriptor().getAnnotation().annotationType().getSimpleName())
+                .toArray(String[]::new);
+    }
+
+    private static ItemSaveForm saveForm(String itemName, Integer price, Integer quantity) {
+        ItemSaveForm form = new ItemSaveForm();
+        form.setItemName(itemName);
+        form.setPrice(price);
+        form.setQuantity(quantity);
+        return form;
+    }
+
+    private static ItemPatchForm patchForm(String itemName, Integer price) {
+        ItemPatchForm form = new ItemPatchForm();
+        form.setItemName(itemName);
+        form.setPrice(price);
+        return form;
+    }
+}
@@ -0,0 +1,157 @@
+package hello.itemservicev4.validation;
+
+import hello.itemservicev4.web.validation.binder.FormBinder;
+import hello.itemservicev4.web.validation.binder.FormBindingResult;
+import hello.itemservicev4.web.validation.binder.ItemFormBinder;
+import hello.itemservicev4.web.validation.binder.ItemSaveFormBinder;
+import hello.itemservicev4.web.validation.binder.ItemUpdateFormBinder;
+import hello.itemservicev4.web.validation.form.ItemSaveForm;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.format.support.DefaultFormattingConversionService;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.ServletRequestDataBinder;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FormBinderTest {
+
+    ItemSaveFormBinder formBinder = new ItemSaveFormBinder();
+    DefaultFormattingConversionService conversionService = new DefaultFormattingConversionService();
+
+    @Test
+    void bind() {
+        MockHttpServletRequest request = request("itemA", "10000", "");
+
+        BindingResult bindingResult = bindWithFormBinder(request);
+        ItemSaveForm form = (ItemSaveForm) bindingResult.getTarget();
+
+        assertThat(bindingResult.hasErrors()).isFalse();
+        assertThat(form.getItemName()).isEqualTo("itemA");
+        assertThat(form.getPrice()).isEqualTo(10000);
+        assertThat(form.getQuantity()).isNull();
+    }
+
+    @Test
+    void typeMismatchSameAsDataBinder() {
+        MockHttpServletRequest request = request("itemA", "qqq", " 10 ");
+
+        BindingResult expected = bindWithDataBinder(request);
+        BindingResult actual = bindWithFormBinder(request);
+
+        FieldError expectedError = expected.getFieldError("price");
+        FieldError actualError = actual.getFieldError("price");
+        assertThat(actual.getErrorCount()).isEqualTo(expected.getErrorCount());
+        assertThat(actualError.getCodes()).containsExactly(expectedError.getCodes());
+        assertThat(actualError.getCodes()).contains("typeMismatch.java.lang.Integer");
+        assertThat(actualError.getArguments()[0].toString()).isEqualTo(expectedError.getArguments()[0].toString());
+        assertThat(actualError.getRejectedValue()).isEqualTo("qqq");
+        assertThat(actualError.isBindingFailure()).isTrue();
+        assertThat(actual.getFieldValue("price")).isEqualTo(expected.getFieldValue("price"));
+        assertThat(actual.getFieldValue("quantity")).isEqualTo(10);
+    }
+
+    @Test
+    void numberConversionSameAsDataBinder() {
+        for (String price : List.of("0x10", "#1F", "-0x10", "010", " 7 ", " ", "1e3", "99999999999")) {
+            MockHttpServletRequest request = request("itemA", price, "10");
+
+            BindingResult expected = bindWithDataBinder(request);
+            BindingResult actual = bindWithFormBinder(request);
+
+            assertThat(actual.hasFieldErrors("price")).as(price).isEqualTo(expected.hasFieldErrors("price"));
+            // 화면에 다시 보여 주는 값. (DataBinder 는 ConversionService 로 문자열로 바꿔 돌려준다.)
+            assertThat(String.valueOf(actual.getFieldValue("price"))).as(price)
+                    .isEqualTo(String.valueOf(expected.getFieldValue("price")));
+        }
+    }
+
+    /**
+     * 폼에 필드를 추가하고 FormBinder 에 빠뜨리면 실패한다.
+     */
+    @Test
+    void everyFormFieldIsBound() {
+        for (FormBinder<?> binder : List.of(new ItemFormBinder(), new ItemSaveFormBinder(), new ItemUpdateFormBinder())) {
+            assertAllFieldsBound(binder);
+        }
+    }
+
+    private static <T> void assertAllFieldsBound(FormBinder<T> binder) {
+        for (Field field : binder.getType().getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            String name = field.getName();
+            String text = field.getType() == String.class ? "text" : "7";
+            T target = binder.newInstance();
+            binder.bind(target, parameter -> parameter.equals(name) ? text : null,
+                    new FormBindingResult<>(target, "target", binder));
+
+            Object bound = new BeanWrapperImpl(target).getPropertyValue(name);
+            assertThat(binder.getFieldType(name)).as(binder.getType().getSimpleName() + "." + name).isEqualTo(field.getType());
+            assertThat(bound).as(binder.getType().getSimpleName() + "." + name).isNotNull();
+            assertThat(binder.getFieldValue(target, name)).as(binder.getType().getSimpleName() + "." + name).isEqualTo(bound);
+            assertThat(bound.toString()).isEqualTo(text);
+        }
+    }
+
+    /**
+     * 기본 DataBinder 와 FormBinder 의 바인딩 시간 비교
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark() {
+        MockHttpServletRequest valid = request("itemA", "10000", "10");
+        MockHttpServletRequest invalid = request("", "qqq", "zz");
+        int iterations = 200_000;
+
+        for (int i = 0; i < iterations; i++) {
+            bindWithDataBinder(i % 2 == 0 ? valid : invalid);
+            bindWithFormBinder(i % 2 == 0 ? valid : invalid);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            bindWithDataBinder(i % 2 == 0 ? valid : invalid);
+        }
+        long dataBinder = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            bindWithFormBinder(i % 2 == 0 ? valid : invalid);
+        }
+        long formBinder = System.nanoTime() - start;
+
+        System.out.println("DataBinder = " + dataBinder / iterations + "ns/op");
+        System.out.println("FormBinder = " + formBinder / iterations + "ns/op");
+    }
+
+    private BindingResult bindWithDataBinder(MockHttpServletRequest request) {
+        ServletRequestDataBinder binder = new ServletRequestDataBinder(new ItemSaveForm(), "item");
+        binder.setConversionService(conversionService);
+        binder.bind(request);
+        return binder.getBindingResult();
+    }
+
+    private BindingResult bindWithFormBinder(MockHttpServletRequest request) {
+        ItemSaveForm form = formBinder.newInstance();
+        FormBindingResult<ItemSaveForm> bindingResult = new FormBindingResult<>(form, "item", formBinder);
+        formBinder.bind(form, request::getParameter, bindingResult);
+        return bindingResult;
+    }
+
+    private static MockHttpServletRequest request(String itemName, String price, String quantity) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/validation/v4/items/add");
+        request.addParameter("itemName", itemName);
+        request.addParameter("price", price);
+        request.addParameter("quantity", quantity);
+        return request;
+    }
+}
@@ -0,0 +1,150 @@
+package hello.itemservicev4.validation;
+
+import hello.itemservicev4.domain.item.Item;
+import hello.itemservicev4.domain.item.ItemRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 상품 목록을 findAll() 로 미리 만들어 넘길 때와 iterateAll() 로 렌더링하면서 읽을 때의
+ * 첫 바이트까지 걸리는 시간(TTFB)과 첫 바이트 시점의 힙 사용량 비교
+ */
+public class ItemListRenderingTest {
+
+    // validation/v4/items.html 의 목록 부분 (링크는 웹 컨텍스트 없이 쓸 수 있는 상대 경로로 바꿈)
+    private static final String TEMPLATE = """
+            <table class="table">
+                <tbody>
+                <tr th:each="item : ${items}">
+                    <td><a th:href="@{|items/${item.id}|}" th:text="${item.id}">회원id</a></td>
+                    <td><a th:href="@{|items/${item.id}|}" th:text="${item.itemName}">상품명</a></td>
+                    <td th:text="${item.price}">10000</td>
+                    <td th:text="${item.quantity}">10</td>
+                </tr>
+                </tbody>
+            </table>
+            """;
+
+    private final TemplateEngine templateEngine = templateEngine();
+
+    @Test
+    void streamingRendersSameRows() {
+        ItemRepository itemRepository = new ItemRepository();
+        for (int i = 0; i < 1000; i++) {
+            itemRepository.save(new Item("item" + i, 1000 + i, i % 100));
+        }
+
+        StringWriter list = new StringWriter();
+        StringWriter streaming = new StringWriter();
+        templateEngine.process(TEMPLATE, context(itemRepository.findAll()), list);
+        templateEngine.process(TEMPLATE, context(itemRepository.iterateAll()), streaming);
+
+        assertThat(streaming.toString()).isEqualTo(list.toString());
+        assertThat(streaming.toString()).contains("item999");
+    }
+
+    /**
+     * GC 와 힙 사용량을 재며 30만 건까지 렌더링하므로 -Dbenchmark=true 일 때만 실행한다.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void streamingKeepsFirstByteConstant() {
+        for (int size : new int[]{10_000, 100_000, 300_000}) {
+            ItemRepository itemRepository = new ItemRepository();
+            for (int i = 0; i < size; i++) {
+                itemRepository.save(new Item("item" + i, 1000 + i, i % 100));
+            }
+            // JIT 워밍업
+            render(itemRepository::findAll);
+            render(itemRepository::iterateAll);
+
+            Result list = render(itemRepository::findAll);
+            Result streaming = render(itemRepository::iterateAll);
+            System.out.printf("items=%d findAll: ttfb=%dus heap@first byte=%dKB | iterateAll: ttfb=%dus heap@first byte=%dKB | %dKB written%n",
+                    size, list.ttfbMicros, list.heapAtFirstByte / 1024,
+                    streaming.ttfbMicros, streaming.heapAtFirstByte / 1024, streaming.bytes / 1024);
+
+            assertThat(streaming.bytes).isEqualTo(list.bytes);
+            if (size >= 100_000) {
+                assertThat(streaming.ttfbMicros).isLessThan(list.ttfbMicros);
+                assertThat(streaming.heapAtFirstByte).isLessThan(list.heapAtFirstByte);
+            }
+        }
+    }
+
+    private Result render(Supplier<Iterable<Item>> items) {
+        System.gc();
+        long baseHeap = usedHeap();
+        long start = System.nanoTime();
+
+        FirstByteWriter writer = new FirstByteWriter(start, baseHeap);
+        templateEngine.process(TEMPLATE, context(items.get()), writer);
+        return new Result(writer.ttfbNanos / 1000, writer.heapAtFirstByte, writer.bytes);
+    }
+
+    private static Context context(Iterable<Item> items) {
+        Context context = new Context();
+        context.setVariable("items", items);
+        return context;
+    }
+
+    private static TemplateEngine templateEngine() {
+        // 애플리케이션과 같이 SpEL 로 식을 계산한다.
+        TemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(new StringTemplateResolver());
+        return engine;
+    }
+
+    private static long usedHeap() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private record Result(long ttfbMicros, long heapAtFirstByte, long bytes) {
+    }
+
+    /**
+     * 내용은 버리고, 처음 쓰인 시점과 그때의 힙 사용량(GC 후, 렌더링 전 대비)만 기록한다.
+     */
+    private static final class FirstByteWriter extends Writer {
+
+        private final long start;
+        private final long baseHeap;
+        private long ttfbNanos = -1;
+        private long heapAtFirstByte;
+        private long bytes;
+
+        FirstByteWriter(long start, long baseHeap) {
+            this.start = start;
+            this.baseHeap = baseHeap;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            if (ttfbNanos < 0 && length > 0) {
+                ttfbNanos = System.nanoTime() - start;
+                System.gc();
+                heapAtFirstByte = Math.max(0, usedHeap() - baseHeap);
+            }
+            bytes += length;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package hello.itemservicev4.validation;
+
+import hello.itemservicev4.domain.item.Item;
+import hello.itemservicev4.domain.item.ItemRepository;
+import hello.itemservicev4.web.validation.form.ItemSaveForm;
+import hello.itemservicev4.web.validation.form.ItemUpdateForm;
+import jakarta.validation.Configuration;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorFactory;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UniqueItemNameTest {
+
+    ItemRepository itemRepository = new ItemRepository();
+    Validator validator = validator(itemRepository);
+
+    @Test
+    void saveFormWithTakenName() {
+        itemRepository.save(new Item("itemA", 10000, 10));
+
+        Set<ConstraintViolation<ItemSaveForm>> violations = validator.validate(saveForm(" ITEMA"));
+
+        // 상품명 필드 오류로 남는다.
+        assertThat(violations).hasSize(1);
+        assertThat(violations.iterator().next().getPropertyPath().toString()).isEqualTo("itemName");
+        assertThat(validator.validate(saveForm("itemB"))).isEmpty();
+    }
+
+    @Test
+    void updateFormKeepsOwnName() {
+        Item itemA = itemRepository.save(new Item("itemA", 10000, 10));
+        Item itemB = itemRepository.save(new Item("itemB", 10000, 10));
+
+        assertThat(validator.validate(updateForm(itemA.getId(), "itemA"))).isEmpty();
+        assertThat(validator.validate(updateForm(itemB.getId(), "itemA"))).hasSize(1);
+    }
+
+    private static ItemSaveForm saveForm(String itemName) {
+        ItemSaveForm form = new ItemSaveForm();
+        form.setItemName(itemName);
+        form.setPrice(10000);
+        form.setQuantity(10);
+        return form;
+    }
+
+    private static ItemUpdateForm updateForm(Long id, String itemName) {
+        ItemUpdateForm form = new ItemUpdateForm();
+        form.setId(id);
+        form.setItemName(itemName);
+        form.setPrice(10000);
+        form.setQuantity(10);
+        return form;
+    }
+
+    /**
+     * 스프링처럼 UniqueItemNameValidator 에 저장소를 넣어 주는 검증기
+     */
+    private static Validator validator(ItemRepository itemRepository) {
+        Configuration<?> configuration = Validation.byDefaultProvider().configure();
+        ConstraintValidatorFactory defaults = configuration.getDefaultConstraintValidatorFactory();
+        return configuration.constraintValidatorFactory(new ConstraintValidatorFactory() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T extends ConstraintValidator<?, ?>> T getInstance(Class<T> key) {
+                return key == UniqueItemNameValidator.class ? (T) new UniqueItemNameValidator(itemRepository) : defaults.getInstance(key);
+            }
+
+            @Override
+            public void releaseInstance(ConstraintValidator<?, ?> instance) {
+                defaults.releaseInstance(instance);
+            }
+        }).buildValidatorFactory().getValidator();
+    }
+}
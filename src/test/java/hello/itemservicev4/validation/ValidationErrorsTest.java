@@ -0,0 +1,111 @@
+package hello.itemservicev4.validation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hello.itemservicev4.web.validation.error.ValidationErrors;
+import hello.itemservicev4.web.validation.error.ValidationErrorsHttpMessageConverter;
+import hello.itemservicev4.web.validation.form.ItemSaveForm;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.http.MediaType;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ValidationErrorsTest {
+
+    ObjectMapper objectMapper = new ObjectMapper();
+    ValidationErrorsHttpMessageConverter converter = new ValidationErrorsHttpMessageConverter();
+    ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+
+    {
+        messageSource.setBasenames("messages", "errors");
+        messageSource.setDefaultEncoding("UTF-8");
+    }
+
+    @Test
+    void compactErrors() throws IOException {
+        ValidationErrors errors = ValidationErrors.of(bindingResult(), messageSource, Locale.KOREA);
+
+        String json = new String(write(errors, MediaType.APPLICATION_JSON), "UTF-8");
+
+        assertThat(errors.errors()).hasSize(4);
+        assertThat(json).contains("\"field\":\"price\"", "\"code\":\"Range\"", "\"rejectedValue\":0");
+        assertThat(json).contains("\"code\":\"totalPriceMin\"", "상품의 가격 * 수량의 합은 10,000원 이상이어야 합니다. 현재 값 = 0");
+        assertThat(json).doesNotContain("codes", "arguments", "bindingFailure");
+    }
+
+    @Test
+    void compactPayloadIsSmaller() throws IOException {
+        BindingResult bindingResult = bindingResult();
+        ValidationErrors errors = ValidationErrors.of(bindingResult, messageSource, Locale.KOREA);
+
+        byte[] full = objectMapper.writeValueAsBytes(bindingResult.getAllErrors());
+        byte[] json = write(errors, MediaType.APPLICATION_JSON);
+        byte[] cbor = write(errors, MediaType.APPLICATION_CBOR);
+
+        assertThat(json.length).isLessThan(full.length);
+        assertThat(cbor.length).isLessThan(json.length);
+    }
+
+    /**
+     * getAllErrors() 를 ObjectMapper 로 직렬화할 때와 응답 크기, 직렬화 시간 비교
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void payloadReport() throws IOException {
+        BindingResult bindingResult = bindingResult();
+        ValidationErrors errors = ValidationErrors.of(bindingResult, messageSource, Locale.KOREA);
+        int iterations = 50_000;
+
+        byte[] full = objectMapper.writeValueAsBytes(bindingResult.getAllErrors());
+        byte[] json = write(errors, MediaType.APPLICATION_JSON);
+        byte[] smile = write(errors, ValidationErrorsHttpMessageConverter.APPLICATION_SMILE);
+        byte[] cbor = write(errors, MediaType.APPLICATION_CBOR);
+
+        for (int i = 0; i < iterations; i++) {
+            objectMapper.writeValueAsBytes(bindingResult.getAllErrors());
+            write(errors, MediaType.APPLICATION_JSON);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            objectMapper.writeValueAsBytes(bindingResult.getAllErrors());
+        }
+        long fullTime = (System.nanoTime() - start) / iterations;
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            write(errors, MediaType.APPLICATION_JSON);
+        }
+        long compactTime = (System.nanoTime() - start) / iterations;
+
+        System.out.println("getAllErrors() JSON = " + full.length + " bytes, " + fullTime + "ns");
+        System.out.println("compact JSON        = " + json.length + " bytes, " + compactTime + "ns");
+        System.out.println("compact Smile       = " + smile.length + " bytes");
+        System.out.println("compact CBOR        = " + cbor.length + " bytes");
+    }
+
+    private byte[] write(ValidationErrors errors, MediaType mediaType) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        converter.writeTo(errors, mediaType, out);
+        return out.toByteArray();
+    }
+
+    private static BindingResult bindingResult() {
+        ItemSaveForm form = new ItemSaveForm();
+        form.setItemName(" ");
+        form.setPrice(0);
+        form.setQuantity(10000);
+
+        BindingResult bindingResult = new BeanPropertyBindingResult(form, "item");
+        bindingResult.rejectValue("itemName", "NotBlank", new Object[]{"itemName"}, "공백일 수 없습니다");
+        bindingResult.rejectValue("price", "Range", new Object[]{"price", 1000000, 1000}, "1000에서 1000000 사이여야 합니다");
+        bindingResult.rejectValue("quantity", "Max", new Object[]{"quantity", 9999}, "9999 이하여야 합니다");
+        bindingResult.reject("totalPriceMin", new Object[]{10000, 0}, null);
+        return bindingResult;
+    }
+}
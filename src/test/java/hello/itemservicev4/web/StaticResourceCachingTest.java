@@ -0,0 +1,110 @@
+package hello.itemservicev4.web;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 화면의 css 링크가 해시 URL 로 바뀌고, 해시 URL 만 오래 캐시되는지 확인한다.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class StaticResourceCachingTest {
+
+    private static final Pattern CSS_LINK = Pattern.compile("href=\"(/css/bootstrap\\.min-[0-9a-f]+\\.css)\"");
+    private static final String PAGE = "/validation/v4/items";
+
+    @LocalServerPort
+    int port;
+
+    HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void onlyFingerprintedUrlIsImmutable() throws Exception {
+        String css = cssLink();
+
+        HttpResponse<byte[]> versioned = get(css, "Accept-Encoding", "gzip");
+        assertThat(versioned.statusCode()).isEqualTo(200);
+        assertThat(versioned.headers().firstValue("Cache-Control")).hasValue("max-age=31536000, public, immutable");
+        assertThat(versioned.headers().firstValue("Content-Encoding")).hasValue("gzip");
+        assertThat(versioned.body()).hasSize((int) Files.size(Path.of("src/main/resources/static/css/bootstrap.min.css.gz")));
+
+        // 해시 없는 URL 은 내용이 바뀌어도 URL 이 그대로이므로 매번 다시 확인하게 한다.
+        HttpResponse<byte[]> plain = get("/css/bootstrap.min.css");
+        assertThat(plain.statusCode()).isEqualTo(200);
+        assertThat(plain.headers().firstValue("Cache-Control")).hasValue("no-cache");
+        String lastModified = plain.headers().firstValue("Last-Modified").orElseThrow();
+        assertThat(get("/css/bootstrap.min.css", "If-Modified-Since", lastModified).statusCode()).isEqualTo(304);
+    }
+
+    /**
+     * 목록 화면 한 번을 보는 데 걸리는 시간. (같은 장비의 loopback 이라 전송 시간은 거의 없다.)
+     * <ul>
+     *     <li>first : 화면 + css 전체 (gzip)</li>
+     *     <li>revalidate : 화면 + 해시 없는 css 를 다시 확인 (304)</li>
+     *     <li>immutable : 화면만 (해시 URL 의 css 는 브라우저 캐시에서 읽는다)</li>
+     * </ul>
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void pageLoadReport() throws Exception {
+        String css = cssLink();
+        String lastModified = get("/css/bootstrap.min.css").headers().firstValue("Last-Modified").orElseThrow();
+        int rounds = 2000;
+        long[] first = new long[rounds];
+        long[] revalidate = new long[rounds];
+        long[] immutable = new long[rounds];
+        for (int round = -500; round < rounds; round++) {
+            long start = System.nanoTime();
+            get(PAGE);
+            get(css, "Accept-Encoding", "gzip");
+            long firstDone = System.nanoTime();
+            get(PAGE);
+            get("/css/bootstrap.min.css", "If-Modified-Since", lastModified);
+            long revalidateDone = System.nanoTime();
+            get(PAGE);
+            long immutableDone = System.nanoTime();
+            if (round >= 0) {
+                first[round] = firstDone - start;
+                revalidate[round] = revalidateDone - firstDone;
+                immutable[round] = immutableDone - revalidateDone;
+            }
+        }
+        System.out.printf("page load p50/p99 (us) first=%s revalidate=%s immutable=%s%n",
+                percentiles(first), percentiles(revalidate), percentiles(immutable));
+    }
+
+    private String cssLink() throws IOException, InterruptedException {
+        String page = new String(get(PAGE).body());
+        Matcher matcher = CSS_LINK.matcher(page);
+        assertThat(matcher.find()).as("fingerprinted css link in " + PAGE).isTrue();
+        return matcher.group(1);
+    }
+
+    private HttpResponse<byte[]> get(String path, String... headers) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+        if (headers.length > 0) {
+            request.headers(headers);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static String percentiles(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2] / 1000 + "/" + sorted[sorted.length * 99 / 100] / 1000;
+    }
+}
@@ -0,0 +1,30 @@
+package hello.itemservicev4.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 미리 압축해 둔 정적 리소스가 원본과 맞는지 확인한다.
+ * 원본을 바꾸고 압축본을 다시 만들지 않으면 실패한다. (gzip -9 -n -k 로 다시 만든다.)
+ */
+class StaticResourceTest {
+
+    private static final Path CSS = Path.of("src/main/resources/static/css");
+
+    @Test
+    void precompressedVariantsMatchOriginal() throws IOException {
+        byte[] original = Files.readAllBytes(CSS.resolve("bootstrap.min.css"));
+
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(CSS.resolve("bootstrap.min.css.gz")))) {
+            assertThat(in.readAllBytes()).isEqualTo(original);
+        }
+        assertThat(Files.size(CSS.resolve("bootstrap.min.css.gz"))).isLessThan(original.length / 4);
+    }
+}
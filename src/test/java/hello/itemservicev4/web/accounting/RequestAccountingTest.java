@@ -0,0 +1,64 @@
+package hello.itemservicev4.web.accounting;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestAccountingTest {
+
+    RequestAccounting accounting = new RequestAccounting();
+
+    // 할당이 최적화로 사라지지 않게 결과를 붙잡아 둔다.
+    static Object sink;
+
+    @Test
+    void recordsAllocatedBytesPerHandler() {
+        if (!accounting.isAllocationSupported()) {
+            return;
+        }
+
+        for (int i = 0; i < 3; i++) {
+            RequestAccounting.Usage start = accounting.begin();
+            sink = new byte[1024 * 1024];
+            accounting.record("Big#handle", start);
+        }
+        RequestAccounting.Usage start = accounting.begin();
+        sink = new byte[1024];
+        RequestAccounting.Usage small = accounting.record("Small#handle", start);
+
+        List<RequestAccounting.HandlerUsage> usages = accounting.snapshot();
+
+        assertThat(usages).hasSize(2);
+        RequestAccounting.HandlerUsage big = usages.get(0);
+        assertThat(big.handler()).isEqualTo("Big#handle");
+        assertThat(big.count()).isEqualTo(3);
+        assertThat(big.avgAllocatedBytes()).isGreaterThanOrEqualTo(1024 * 1024);
+        assertThat(big.totalAllocatedBytes()).isGreaterThanOrEqualTo(3L * 1024 * 1024);
+        assertThat(small.allocatedBytes()).isBetween(1024L, 64L * 1024);
+    }
+
+    @Test
+    void recordsCpuTime() {
+        if (!accounting.isCpuTimeSupported()) {
+            return;
+        }
+
+        RequestAccounting.Usage start = accounting.begin();
+        long deadline = System.nanoTime() + 20_000_000;
+        long spins = 0;
+        while (System.nanoTime() < deadline) {
+            spins++;
+        }
+        sink = spins;
+        RequestAccounting.Usage usage = accounting.record("Busy#handle", start);
+
+        assertThat(usage.wallNanos()).isGreaterThanOrEqualTo(20_000_000L);
+        assertThat(usage.cpuNanos()).isGreaterThan(0L);
+        assertThat(usage.cpuNanos()).isLessThanOrEqualTo(usage.wallNanos() + 10_000_000);
+
+        accounting.reset();
+        assertThat(accounting.snapshot()).isEmpty();
+    }
+}
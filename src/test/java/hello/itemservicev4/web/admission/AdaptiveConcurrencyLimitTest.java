@@ -0,0 +1,174 @@
+package hello.itemservicev4.web.admission;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveConcurrencyLimitTest {
+
+    // 동시에 4 건만 처리할 수 있고 한 건에 2ms 걸리는 서버에 64 개 클라이언트가 쉬지 않고 요청한다.
+    private static final int WORKERS = 4;
+    private static final long SERVICE_MILLIS = 2;
+    private static final int CLIENTS = 64;
+    private static final long DURATION_MILLIS = 1500;
+
+    @Test
+    void acquireAndRelease() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10);
+
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isFalse();
+        assertThat(limit.getInFlight()).isEqualTo(2);
+
+        limit.release(1_000_000, false);
+        assertThat(limit.getInFlight()).isEqualTo(1);
+        assertThat(limit.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void droppedRequestShrinksLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(100, 1, 200);
+
+        limit.tryAcquire();
+        limit.release(1_000_000, true);
+
+        assertThat(limit.getLimit()).isEqualTo(90);
+    }
+
+    @Test
+    void queueingShrinksLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 4, 200);
+
+        // 1ms 로 기준을 잡은 뒤 응답이 10ms 로 느려지면 한도가 줄어든다.
+        feed(limit, 50, 1_000_000);
+        int before = limit.getLimit();
+        feed(limit, 500, 10_000_000);
+
+        assertThat(limit.getLimit()).isLessThan(before / 2);
+    }
+
+    /**
+     * 3 초 동안 스레드 64 개로 부하를 주고 지연 시간을 비교하므로 -Dbenchmark=true 일 때만 실행한다.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void overload() throws InterruptedException {
+        Result unlimited = run(null);
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 2, 200);
+        Result limited = run(limit);
+
+        System.out.println("unlimited " + unlimited);
+        System.out.println("adaptive  " + limited + " limit=" + limit.getLimit());
+
+        // 받은 요청의 p99 는 큐 길이에 비례해 늘어나지 않고, 넘치는 요청은 바로 거절된다.
+        assertThat(limited.rejected).isPositive();
+        assertThat(limited.p99Micros).isLessThan(unlimited.p99Micros / 2);
+        assertThat(limited.rejectP99Micros).isLessThan(SERVICE_MILLIS * 1000);
+        // 처리량은 거의 그대로
+        assertThat(limited.accepted).isGreaterThan(unlimited.accepted / 2);
+    }
+
+    private static void feed(AdaptiveConcurrencyLimit limit, int count, long rttNanos) {
+        for (int i = 0; i < count; i++) {
+            while (!limit.tryAcquire()) {
+                limit.release(rttNanos, false);
+            }
+            // 한도를 꽉 채워 쓰는 상태로 만든다.
+            while (limit.tryAcquire()) {
+            }
+            limit.release(rttNanos, false);
+        }
+    }
+
+    private static Result run(AdaptiveConcurrencyLimit limit) throws InterruptedException {
+        Semaphore workers = new Semaphore(WORKERS, true);
+        long deadline = System.nanoTime() + DURATION_MILLIS * 1_000_000;
+        List<Samples> latencies = new ArrayList<>();
+        List<Samples> rejections = new ArrayList<>();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int c = 0; c < CLIENTS; c++) {
+            Samples accepted = new Samples();
+            Samples rejected = new Samples();
+            latencies.add(accepted);
+            rejections.add(rejected);
+            Thread thread = new Thread(() -> {
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    if (limit != null && !limit.tryAcquire()) {
+                        rejected.add(System.nanoTime() - start);
+                        // 503 을 받은 클라이언트는 잠깐 쉬었다가 다시 보낸다.
+                        sleep(SERVICE_MILLIS);
+                        continue;
+                    }
+                    workers.acquireUninterruptibly();
+                    try {
+                        sleep(SERVICE_MILLIS);
+                    } finally {
+                        workers.release();
+                    }
+                    long elapsed = System.nanoTime() - start;
+                    if (limit != null) {
+                        limit.release(elapsed, false);
+                    }
+                    accepted.add(elapsed);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return new Result(count(latencies), count(rejections), p99(latencies), p99(rejections));
+    }
+
+    private static long count(List<Samples> samples) {
+        return samples.stream().mapToLong(s -> s.size).sum();
+    }
+
+    private static long p99(List<Samples> samples) {
+        long[] all = samples.stream()
+                .flatMapToLong(s -> Arrays.stream(s.values, 0, s.size))
+                .sorted()
+                .toArray();
+        return all.length == 0 ? 0 : all[(int) (all.length * 0.99)] / 1000;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 클라이언트 스레드 하나가 잰 시간 (ns)
+     */
+    private static final class Samples {
+        long[] values = new long[1024];
+        int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+
+    private record Result(long accepted, long rejected, long p99Micros, long rejectP99Micros) {
+        @Override
+        public String toString() {
+            return String.format("accepted=%d rejected=%d p99=%dus reject p99=%dus", accepted, rejected, p99Micros, rejectP99Micros);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package hello.itemservicev4.web.idempotency;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyCacheTest {
+
+    static final byte[] BODY = IdempotencyFilter.fingerprint("application/json", "{\"itemName\":\"A\"}".getBytes(StandardCharsets.UTF_8));
+
+    @Test
+    void replayCompletedResponse() throws Exception {
+        IdempotencyCache cache = new IdempotencyCache(100, 1 << 20, 60_000);
+        IdempotencyCache.Lookup first = cache.lookup("k1", BODY);
+        assertThat(first.owner()).isTrue();
+        cache.complete(first.entry(), response(200, "ok"));
+
+        IdempotencyCache.Lookup retry = cache.lookup("k1", BODY);
+        assertThat(retry.owner()).isFalse();
+        assertThat(retry.matches()).isTrue();
+        assertThat(new String(cache.await(retry.entry(), 0).body(), StandardCharsets.UTF_8)).isEqualTo("ok");
+
+        // 같은 키에 다른 본문
+        byte[] other = IdempotencyFilter.fingerprint("application/json", "{}".getBytes(StandardCharsets.UTF_8));
+        assertThat(cache.lookup("k1", other).matches()).isFalse();
+
+        IdempotencyCache.Stats stats = cache.stats();
+        assertThat(stats.misses()).isEqualTo(1L);
+        assertThat(stats.hits()).isEqualTo(1L);
+        assertThat(stats.mismatches()).isEqualTo(1L);
+        assertThat(stats.bytes()).isEqualTo(2L + 2 * (2 + 16) + IdempotencyCache.ENTRY_OVERHEAD_BYTES);
+    }
+
+    @Test
+    void concurrentDuplicatesExecuteOnce() throws Exception {
+        IdempotencyCache cache = new IdempotencyCache(100, 1 << 20, 60_000);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                IdempotencyCache.Lookup lookup = cache.lookup("k1", BODY);
+                if (lookup.owner()) {
+                    executions.incrementAndGet();
+                    // 처리하는 동안 나머지가 기다리게 한다.
+                    Thread.sleep(100);
+                    cache.complete(lookup.entry(), response(201, "created"));
+                }
+                return new String(cache.await(lookup.entry(), 5000).body(), StandardCharsets.UTF_8);
+            }));
+        }
+        start.countDown();
+        for (Future<String> result : results) {
+            assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo("created");
+        }
+        executor.shutdown();
+
+        assertThat(executions.get()).isEqualTo(1);
+        IdempotencyCache.Stats stats = cache.stats();
+        assertThat(stats.misses()).isEqualTo(1L);
+        assertThat(stats.hits() + stats.joins()).isEqualTo(16L);
+    }
+
+    @Test
+    void failedOrServerErrorIsNotKept() throws Exception {
+        IdempotencyCache cache = new IdempotencyCache(100, 1 << 20, 60_000);
+        IdempotencyCache.Lookup first = cache.lookup("k1", BODY);
+        cache.complete(first.entry(), response(503, ""));
+        assertThat(cache.lookup("k1", BODY).owner()).isTrue();
+
+        IdempotencyCache.Lookup second = cache.lookup("k2", BODY);
+        cache.fail(second.entry(), new IllegalStateException("boom"));
+        assertThat(cache.lookup("k2", BODY).owner()).isTrue();
+        assertThat(cache.stats().bytes()).isZero();
+    }
+
+    @Test
+    void boundedAndExpiring() throws Exception {
+        IdempotencyCache cache = new IdempotencyCache(10, 1 << 20, 60_000);
+        for (int i = 0; i < 100; i++) {
+            cache.complete(cache.lookup("k" + i, BODY).entry(), response(200, "ok"));
+        }
+        IdempotencyCache.Stats stats = cache.stats();
+        assertThat(stats.entries()).isEqualTo(10);
+        assertThat(stats.evictions()).isEqualTo(90L);
+        // 오래된 키는 밀려나 다시 처리한다.
+        assertThat(cache.lookup("k0", BODY).owner()).isTrue();
+        assertThat(cache.lookup("k99", BODY).owner()).isFalse();
+
+        // 크기 한도
+        IdempotencyCache small = new IdempotencyCache(1000, 10_000, 60_000);
+        for (int i = 0; i < 100; i++) {
+            small.complete(small.lookup("k" + i, BODY).entry(), response(200, "x".repeat(1000)));
+        }
+        assertThat(small.stats().bytes()).isLessThanOrEqualTo(10_000L);
+        assertThat(small.stats().entries()).isBetween(1, 9);
+
+        // 만료
+        IdempotencyCache expiring = new IdempotencyCache(1000, 1 << 20, 50);
+        expiring.complete(expiring.lookup("k1", BODY).entry(), response(200, "ok"));
+        Thread.sleep(100);
+        assertThat(expiring.lookup("k1", BODY).owner()).isTrue();
+        assertThat(expiring.stats().expirations()).isEqualTo(1L);
+    }
+
+    private static IdempotencyCache.CachedResponse response(int status, String body) {
+        return new IdempotencyCache.CachedResponse(status, "application/json", body.getBytes(StandardCharsets.UTF_8));
+    }
+}
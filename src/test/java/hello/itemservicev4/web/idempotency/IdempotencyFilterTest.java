@@ -0,0 +1,132 @@
+package hello.itemservicev4.web.idempotency;
+
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class IdempotencyFilterTest {
+
+    static final String BODY = "{\"itemName\":\"A\"}";
+
+    EchoController controller = new EchoController();
+    AtomicBoolean failNext = new AtomicBoolean();
+    MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        IdempotencyCache cache = new IdempotencyCache(100, 1 << 20, 60_000);
+        // 컨트롤러 앞에서 Error 를 던진다. (DispatcherServlet 은 Error 를 ServletException 으로 감싸므로 필터에서 던진다.)
+        Filter failing = (request, response, chain) -> {
+            if (failNext.getAndSet(false)) {
+                throw new StackOverflowError("test");
+            }
+            chain.doFilter(request, response);
+        };
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .addFilters(new IdempotencyFilter(cache, 1024, 200), failing)
+                .build();
+    }
+
+    @Test
+    void replaySameResponse() throws Exception {
+        // 필터가 해시를 구하려고 읽은 본문을 컨트롤러가 다시 읽는다.
+        mockMvc.perform(add("k1", BODY))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER))
+                .andExpect(content().string("saved " + BODY));
+
+        mockMvc.perform(add("k1", BODY))
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andExpect(content().string("saved " + BODY));
+        assertThat(controller.calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void differentBodyWithSameKey() throws Exception {
+        mockMvc.perform(add("k1", BODY)).andExpect(status().isOk());
+
+        mockMvc.perform(add("k1", "{\"itemName\":\"B\"}"))
+                .andExpect(status().isUnprocessableEntity());
+        assertThat(controller.calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void inProgressTimesOut() throws Exception {
+        controller.release = new CountDownLatch(1);
+        CompletableFuture<MvcResult> first = CompletableFuture.supplyAsync(() -> {
+            try {
+                return mockMvc.perform(add("k1", BODY)).andReturn();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (controller.calls.get() == 0) {
+            Thread.sleep(5);
+        }
+
+        // 먼저 온 요청이 wait-timeout 안에 끝나지 않으면 409
+        mockMvc.perform(add("k1", BODY))
+                .andExpect(status().isConflict())
+                .andExpect(header().string("Retry-After", "1"));
+
+        controller.release.countDown();
+        assertThat(first.get().getResponse().getStatus()).isEqualTo(200);
+        assertThat(controller.calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void errorDoesNotLeaveKeyInProgress() throws Exception {
+        failNext.set(true);
+        assertThatThrownBy(() -> mockMvc.perform(add("k1", BODY))).isInstanceOf(StackOverflowError.class);
+
+        // 실패한 키는 남지 않으므로 다시 보내면 409 가 아니라 처리된다.
+        mockMvc.perform(add("k1", BODY))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+        assertThat(controller.calls.get()).isEqualTo(1);
+    }
+
+    private static MockHttpServletRequestBuilder add(String key, String body) {
+        return post("/items")
+                .header(IdempotencyFilter.KEY_HEADER, key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body);
+    }
+
+    @RestController
+    static class EchoController {
+
+        final AtomicInteger calls = new AtomicInteger();
+        volatile CountDownLatch release;
+
+        @PostMapping("/items")
+        String add(@RequestBody String body) throws InterruptedException {
+            calls.incrementAndGet();
+            if (release != null) {
+                release.await();
+            }
+            return "saved " + body;
+        }
+    }
+}